@@ -10,7 +10,9 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
-import org.springframework.cache.CacheManager;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,6 +21,9 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
@@ -47,6 +52,12 @@ public class CachingConfig {
   public static final String VISIT_CACHE_NAME = "openisle_visit";
   // 文章缓存
   public static final String POST_CACHE_NAME = "openisle_posts";
+  // 文章浏览量增量
+  public static final String VIEW_CACHE_NAME = "openisle_views";
+
+  // 启用一级缓存时调用方会修改返回的 DTO，一级缓存只能保存副本；
+  // 标签、分类只被映射为新的 DTO，直接共享对象
+  private static final Set<String> COPY_ON_READ_CACHES = Set.of(POST_CACHE_NAME);
 
   /**
    * 自定义Redis的序列化器
@@ -55,6 +66,28 @@ public class CachingConfig {
   @Bean
   @Primary
   public RedisSerializer<Object> redisSerializer() {
+    return new GenericJackson2JsonRedisSerializer(cacheObjectMapper());
+  }
+
+  /**
+   * Spring Cache 缓存值的序列化器，通过 app.cache.serializer 切换
+   * compact: Smile 二进制 + 超过阈值时 GZIP 压缩；json: 与 RedisTemplate 相同的 JSON 格式
+   */
+  @Bean
+  public RedisSerializer<Object> cacheValueSerializer(
+    @Value("${app.cache.serializer:compact}") String type,
+    @Value("${app.cache.compress-threshold-bytes:1024}") int compressThreshold
+  ) {
+    if ("json".equalsIgnoreCase(type)) {
+      return redisSerializer();
+    }
+    return new CompactRedisSerializer(cacheObjectMapper(), compressThreshold);
+  }
+
+  /**
+   * 缓存值使用的 ObjectMapper
+   */
+  static ObjectMapper cacheObjectMapper() {
     // 注册 JavaTimeModule 來支持 Java 8 的日期和时间 API,否则回报一下错误，同时还要引入jsr310
 
     // org.springframework.data.redis.serializer.SerializationException: Could not write JSON: Java 8 date/time type `java.time.LocalDateTime` not supported by default:
@@ -80,16 +113,52 @@ public class CachingConfig {
       JsonTypeInfo.As.PROPERTY
     );
     objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-    return new GenericJackson2JsonRedisSerializer(objectMapper);
+    return objectMapper;
   }
 
   /**
-   * 配置 Spring Cache 使用 RedisCacheManager
+   * 配置 Spring Cache 使用 Caffeine + Redis 两级缓存
    */
   @Bean
-  public CacheManager cacheManager(
+  public TwoLevelCacheManager cacheManager(
     RedisConnectionFactory connectionFactory,
-    RedisSerializer<Object> redisSerializer
+    @Qualifier("cacheValueSerializer") RedisSerializer<Object> cacheValueSerializer,
+    LocalCacheProperties localCacheProperties,
+    StringRedisTemplate stringRedisTemplate
+  ) {
+    return new TwoLevelCacheManager(
+      redisCacheManager(connectionFactory, cacheValueSerializer),
+      localCacheProperties,
+      stringRedisTemplate,
+      cacheValueSerializer,
+      COPY_ON_READ_CACHES
+    );
+  }
+
+  /**
+   * 订阅其他节点发出的一级缓存失效通知
+   */
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+    RedisConnectionFactory connectionFactory,
+    TwoLevelCacheManager cacheManager,
+    LocalCacheProperties localCacheProperties
+  ) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(
+      cacheManager,
+      new ChannelTopic(localCacheProperties.getInvalidationChannel())
+    );
+    return container;
+  }
+
+  /**
+   * 二级缓存 RedisCacheManager
+   */
+  private RedisCacheManager redisCacheManager(
+    RedisConnectionFactory connectionFactory,
+    RedisSerializer<Object> valueSerializer
   ) {
     RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
       .entryTtl(Duration.ZERO) // 默认缓存不过期
@@ -97,7 +166,7 @@ public class CachingConfig {
         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
       )
       .serializeValuesWith(
-        RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer)
+        RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer)
       )
       .disableCachingNullValues(); // 禁止缓存 null 值
 
@@ -109,10 +178,13 @@ public class CachingConfig {
     cacheConfigs.put(CATEGORY_CACHE_NAME, oneHourConfig);
     cacheConfigs.put(POST_CACHE_NAME, tenMinutesConfig);
 
-    return RedisCacheManager.builder(connectionFactory)
+    RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
       .cacheDefaults(config)
       .withInitialCacheConfigurations(cacheConfigs)
       .build();
+    // 不是 Spring Bean，需要手动初始化预先配置的缓存
+    redisCacheManager.afterPropertiesSet();
+    return redisCacheManager;
   }
 
   /**
@@ -0,0 +1,110 @@
+package com.openisle.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 缓存值的紧凑二进制序列化器
+ * 使用 Smile（二进制 JSON）编码，重复出现的属性名和类型名只写一次并以回引用表示，
+ * 超过阈值的数据再做 GZIP 压缩。
+ * 数据前带 3 字节头：魔数(2) + 版本/压缩标记(1)，头不匹配（例如旧的 JSON 缓存）时按未命中处理。
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+  // 0xC0 0x1E 不是合法的 UTF-8 开头，不会与 JSON 数据混淆
+  private static final byte MAGIC_0 = (byte) 0xC0;
+  private static final byte MAGIC_1 = (byte) 0x1E;
+  static final byte VERSION = 1;
+  private static final byte FLAG_GZIP = (byte) 0x80;
+  private static final int HEADER_LENGTH = 3;
+
+  private final ObjectMapper mapper;
+  private final int compressThreshold;
+
+  /**
+   * @param objectMapper 提供模块、类型信息等配置，会复制一份改用 Smile 编码
+   * @param compressThreshold 编码后超过该字节数才压缩，小于等于 0 表示不压缩
+   */
+  public CompactRedisSerializer(ObjectMapper objectMapper, int compressThreshold) {
+    SmileFactory smileFactory = SmileFactory.builder()
+      .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+      .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+      // 版本信息已经由自定义的头表示
+      .disable(SmileGenerator.Feature.WRITE_HEADER)
+      .build();
+    this.mapper = objectMapper.copyWith(smileFactory);
+    this.compressThreshold = compressThreshold;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return new byte[0];
+    }
+    try {
+      byte[] payload = mapper.writeValueAsBytes(value);
+      boolean compress = compressThreshold > 0 && payload.length > compressThreshold;
+      if (compress) {
+        payload = gzip(payload);
+      }
+      byte[] result = new byte[HEADER_LENGTH + payload.length];
+      result[0] = MAGIC_0;
+      result[1] = MAGIC_1;
+      result[2] = compress ? (byte) (VERSION | FLAG_GZIP) : VERSION;
+      System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+      return result;
+    } catch (IOException e) {
+      throw new SerializationException("Could not write cache value: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (
+      bytes.length < HEADER_LENGTH ||
+      bytes[0] != MAGIC_0 ||
+      bytes[1] != MAGIC_1 ||
+      (bytes[2] & ~FLAG_GZIP) != VERSION
+    ) {
+      // 旧格式或其他版本写入的缓存，视为未命中，由调用方重新加载并覆盖
+      log.debug("Ignoring cache value with unknown header");
+      return null;
+    }
+    try {
+      if ((bytes[2] & FLAG_GZIP) != 0) {
+        return mapper.readValue(gunzip(bytes, HEADER_LENGTH), Object.class);
+      }
+      return mapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, Object.class);
+    } catch (IOException e) {
+      throw new SerializationException("Could not read cache value: " + e.getMessage(), e);
+    }
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(data);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] gunzip(byte[] data, int offset) throws IOException {
+    ByteArrayInputStream in = new ByteArrayInputStream(data, offset, data.length - offset);
+    try (GZIPInputStream gzip = new GZIPInputStream(in)) {
+      return gzip.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.openisle.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内一级缓存（Caffeine）配置，只有在 caches 中配置过的缓存才会启用一级缓存
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.local")
+public class LocalCacheProperties {
+
+  private boolean enabled = true;
+
+  // 跨节点失效通知使用的 Redis 频道
+  private String invalidationChannel = "openisle_cache:invalidate";
+
+  private Map<String, Spec> caches = new HashMap<>();
+
+  @Data
+  public static class Spec {
+
+    private long maxSize = 1000;
+    private Duration ttl = Duration.ofMinutes(5);
+  }
+}
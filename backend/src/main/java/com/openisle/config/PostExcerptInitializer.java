@@ -0,0 +1,56 @@
+package com.openisle.config;
+
+import com.openisle.repository.PostRepository;
+import com.openisle.util.MarkdownExcerpt;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * 为没有摘要的历史文章生成摘要，与新发布的文章使用同样的 {@link MarkdownExcerpt} 规则
+ * 每次启动都要扫描 excerpt IS NULL，回填完成后将 app.post.excerpt-backfill-enabled 设为 false
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+  name = "app.post.excerpt-backfill-enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+@RequiredArgsConstructor
+public class PostExcerptInitializer implements CommandLineRunner {
+
+  static final int BATCH_SIZE = 200;
+
+  private final PostRepository postRepository;
+
+  @Override
+  public void run(String... args) {
+    long afterId = 0L;
+    int updated = 0;
+    while (true) {
+      List<Object[]> rows = postRepository.findContentWithoutExcerpt(
+        afterId,
+        PageRequest.of(0, BATCH_SIZE)
+      );
+      for (Object[] row : rows) {
+        afterId = (Long) row[0];
+        updated += postRepository.updateExcerpt(afterId, MarkdownExcerpt.of((String) row[1]));
+      }
+      if (rows.size() < BATCH_SIZE) {
+        break;
+      }
+    }
+    if (updated > 0) {
+      log.info("Backfilled excerpts for {} posts", updated);
+    } else {
+      log.info(
+        "All posts have excerpts, set POST_EXCERPT_BACKFILL_ENABLED=false to skip this scan"
+      );
+    }
+  }
+}
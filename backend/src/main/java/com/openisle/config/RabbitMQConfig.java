@@ -31,15 +31,19 @@ public class RabbitMQConfig {
   public static final String QUEUE_NAME = "notifications-queue";
   public static final String ROUTING_KEY = "notifications.routingkey";
 
-  // 硬编码为16以匹配ShardingStrategy中的十六进制分片逻辑
-  private final int queueCount = 16;
+  // 分片数量和队列命名统一由 ShardingStrategy 提供
+  private final ShardingStrategy shardingStrategy;
 
   @Value("${rabbitmq.queue.durable}")
   private boolean queueDurable;
 
   @PostConstruct
   public void init() {
-    log.info("RabbitMQ配置初始化: 队列数量={}, 持久化={}", queueCount, queueDurable);
+    log.info(
+      "RabbitMQ配置初始化: 队列数量={}, 持久化={}",
+      shardingStrategy.getShardCount(),
+      queueDurable
+    );
   }
 
   @Bean
@@ -48,18 +52,15 @@ public class RabbitMQConfig {
   }
 
   /**
-   * 创建所有分片队列, 使用十六进制后缀 (0-f)
+   * 创建所有分片队列, 使用十六进制后缀 (notifications-queue-0 起)
    */
   @Bean
   public List<Queue> shardedQueues() {
     log.info("开始创建分片队列 Bean...");
 
     List<Queue> queues = new ArrayList<>();
-    for (int i = 0; i < queueCount; i++) {
-      String shardKey = Integer.toHexString(i);
-      String queueName = "notifications-queue-" + shardKey;
-      Queue queue = new Queue(queueName, queueDurable);
-      queues.add(queue);
+    for (ShardInfo shard : shardingStrategy.getAllShards()) {
+      queues.add(new Queue(shard.getQueueName(), queueDurable));
     }
 
     log.info("分片队列 Bean 创建完成，总数: {}", queues.size());
@@ -67,7 +68,7 @@ public class RabbitMQConfig {
   }
 
   /**
-   * 创建所有分片绑定, 使用十六进制路由键 (notifications.shard.0 - notifications.shard.f)
+   * 创建所有分片绑定, 使用十六进制路由键 (notifications.shard.0 起)
    */
   @Bean
   public List<Binding> shardedBindings(
@@ -79,8 +80,8 @@ public class RabbitMQConfig {
     if (shardedQueues != null) {
       for (Queue queue : shardedQueues) {
         String queueName = queue.getName();
-        String shardKey = queueName.substring("notifications-queue-".length());
-        String routingKey = "notifications.shard." + shardKey;
+        String shardKey = queueName.substring(ShardingStrategy.QUEUE_PREFIX.length());
+        String routingKey = ShardingStrategy.ROUTING_KEY_PREFIX + shardKey;
         Binding binding = BindingBuilder.bind(queue).to(exchange).with(routingKey);
         bindings.add(binding);
       }
@@ -106,14 +107,21 @@ public class RabbitMQConfig {
     return BindingBuilder.bind(legacyQueue).to(exchange).with(ROUTING_KEY);
   }
 
-  @Bean
-  public Jackson2JsonMessageConverter messageConverter() {
+  /**
+   * 通知消息使用的 ObjectMapper，磁盘溢出区也使用它以保证回放后的消息格式一致
+   */
+  public static ObjectMapper notificationObjectMapper() {
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
     objectMapper.disable(
       com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS
     );
-    return new Jackson2JsonMessageConverter(objectMapper);
+    return objectMapper;
+  }
+
+  @Bean
+  public Jackson2JsonMessageConverter messageConverter() {
+    return new Jackson2JsonMessageConverter(notificationObjectMapper());
   }
 
   @Bean
@@ -115,6 +115,7 @@ public class SecurityConfig {
     );
     cfg.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
     cfg.setAllowedHeaders(List.of("*"));
+    cfg.setExposedHeaders(List.of(com.openisle.controller.PostController.NEXT_CURSOR_HEADER));
     cfg.setAllowCredentials(true);
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/api/**", cfg);
@@ -1,25 +1,67 @@
 package com.openisle.config;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * 通知分片路由，基于一致性哈希环
+ * 每个分片在环上放置若干虚拟节点，用户名哈希后顺时针找到的第一个节点即为所属分片；
+ * 调整分片数时只有少部分用户需要迁移到新分片。
+ * 分片数由 rabbitmq.sharding.shard-count 配置，websocket 服务使用同一配置生成监听队列。
+ */
 @Component
 @Slf4j
 public class ShardingStrategy {
 
-  // 固定为16以匹配RabbitMQConfig中的十六进制分片逻辑
-  private static final int QUEUE_COUNT = 16;
+  public static final String QUEUE_PREFIX = "notifications-queue-";
+  public static final String ROUTING_KEY_PREFIX = "notifications.shard.";
+
+  private final int shardCount;
+  // 环上的节点位置（升序）及其对应的分片
+  private final long[] ringPoints;
+  private final int[] ringShards;
 
   // 分片分布统计
-  private final Map<Integer, AtomicLong> shardCounts = new ConcurrentHashMap<>();
+  private final AtomicLongArray shardCounts;
+
+  public ShardingStrategy(
+    @Value("${rabbitmq.sharding.shard-count:16}") int shardCount,
+    @Value("${rabbitmq.sharding.virtual-nodes:512}") int virtualNodes
+  ) {
+    if (shardCount <= 0 || virtualNodes <= 0) {
+      throw new IllegalArgumentException("Shard count and virtual nodes must be positive");
+    }
+    this.shardCount = shardCount;
+    this.shardCounts = new AtomicLongArray(shardCount);
+
+    long[][] nodes = new long[shardCount * virtualNodes][];
+    int n = 0;
+    for (int shard = 0; shard < shardCount; shard++) {
+      for (int v = 0; v < virtualNodes; v++) {
+        nodes[n++] = new long[] { hash("shard-" + shard + "#" + v), shard };
+      }
+    }
+    Arrays.sort(nodes, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+    this.ringPoints = new long[nodes.length];
+    this.ringShards = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      ringPoints[i] = nodes[i][0];
+      ringShards[i] = (int) nodes[i][1];
+    }
+  }
+
+  public int getShardCount() {
+    return shardCount;
+  }
 
   /**
-   * 根据用户名获取分片信息（基于哈希值首字符）
+   * 根据用户名获取分片信息
    */
   public ShardInfo getShardInfo(String username) {
     if (username == null || username.isEmpty()) {
@@ -27,61 +69,90 @@ public class ShardingStrategy {
       return getShardInfoByIndex(0);
     }
 
-    // 计算用户名的哈希值并转为十六进制字符串
-    String hash = Integer.toHexString(Math.abs(username.hashCode()));
-
-    // 取哈希值的第一个字符 (0-9, a-f)
-    char firstChar = hash.charAt(0);
-
-    // 十六进制字符映射到队列
-    int shard = getShardFromHexChar(firstChar);
-    recordShardUsage(shard);
-
-    log.debug(
-      "Username '{}' -> hash '{}' -> firstChar '{}' -> shard {}",
-      username,
-      hash,
-      firstChar,
-      shard
-    );
-
+    int shard = locate(hash(username));
+    shardCounts.incrementAndGet(shard);
+    log.debug("Username '{}' -> shard {}", username, shard);
     return getShardInfoByIndex(shard);
   }
 
   /**
-   * 将十六进制字符映射到分片索引
+   * 根据分片索引获取分片信息，队列名和路由键使用十六进制后缀，前 16 个与旧版保持一致
+   */
+  public ShardInfo getShardInfoByIndex(int shard) {
+    String shardKey = Integer.toHexString(shard);
+    return new ShardInfo(shard, QUEUE_PREFIX + shardKey, ROUTING_KEY_PREFIX + shardKey);
+  }
+
+  /**
+   * 所有分片的信息，用于声明队列和绑定
    */
-  private int getShardFromHexChar(char hexChar) {
-    int charValue;
-    if (hexChar >= '0' && hexChar <= '9') {
-      charValue = hexChar - '0'; // 0-9
-    } else if (hexChar >= 'a' && hexChar <= 'f') {
-      charValue = hexChar - 'a' + 10; // 10-15
-    } else {
-      // 异常情况，默认为0
-      charValue = 0;
+  public List<ShardInfo> getAllShards() {
+    List<ShardInfo> shards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      shards.add(getShardInfoByIndex(i));
     }
+    return shards;
+  }
 
-    // 映射到队列数量范围内
-    return charValue % QUEUE_COUNT;
+  /**
+   * 各分片累计路由的消息数
+   */
+  public long getRoutedCount(int shard) {
+    return shardCounts.get(shard);
   }
 
   /**
-   * 根据分片索引获取分片信息
+   * 各分片在哈希环上覆盖的比例，理想情况下均为 1 / shardCount
    */
-  private ShardInfo getShardInfoByIndex(int shard) {
-    String shardKey = Integer.toHexString(shard);
-    return new ShardInfo(
-      shard,
-      "notifications-queue-" + shardKey,
-      "notifications.shard." + shardKey
-    );
+  public double[] getRingShares() {
+    double[] shares = new double[shardCount];
+    if (shardCount == 1) {
+      shares[0] = 1;
+      return shares;
+    }
+    for (int i = 0; i < ringPoints.length; i++) {
+      // 节点 i 负责 (前一个节点, 节点 i] 这段弧
+      long previous = ringPoints[i == 0 ? ringPoints.length - 1 : i - 1];
+      long arc = ringPoints[i] - previous;
+      shares[ringShards[i]] += toUnsignedDouble(arc) / 0x1p64;
+    }
+    return shares;
+  }
+
+  private int locate(long hash) {
+    int low = 0;
+    int high = ringPoints.length - 1;
+    // 找第一个 >= hash 的节点，超过末尾时回到环首
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (Long.compareUnsigned(ringPoints[mid], hash) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return ringShards[low == ringPoints.length ? 0 : low];
   }
 
   /**
-   * 记录分片使用统计
+   * FNV-1a 64 位哈希再经过 MurmurHash3 的 fmix64 打散，跨 JVM 稳定
    */
-  private void recordShardUsage(int shard) {
-    shardCounts.computeIfAbsent(shard, k -> new AtomicLong(0)).incrementAndGet();
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= (b & 0xff);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static double toUnsignedDouble(long value) {
+    double d = (double) (value >>> 1) * 2;
+    return d + (value & 1);
   }
 }
@@ -0,0 +1,174 @@
+package com.openisle.config;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 两级缓存：进程内 Caffeine 作为一级缓存，Redis 作为二级缓存
+ * 写入和失效会先作用于 Redis，再通过 invalidation 回调通知其他节点清理各自的一级缓存
+ * 一级缓存默认直接保存对象，命中时不再反序列化，适用于调用方只读的缓存；
+ * 传入 copySerializer 时改为保存序列化后的字节，每次读取反序列化出新对象，供会修改返回值的缓存使用
+ */
+public class TwoLevelCache implements Cache {
+
+  private final Cache remote;
+  // 缓存值为 null 时或对象，copy 模式下为 byte[]
+  private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+  // 为 null 时一级缓存与调用方共享对象
+  private final RedisSerializer<Object> copySerializer;
+  // 参数为失效的 key，null 表示清空整个缓存
+  private final Consumer<String> invalidation;
+
+  public TwoLevelCache(
+    Cache remote,
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+    RedisSerializer<Object> copySerializer,
+    Consumer<String> invalidation
+  ) {
+    this.remote = remote;
+    this.local = local;
+    this.copySerializer = copySerializer;
+    this.invalidation = invalidation;
+  }
+
+  @Override
+  public String getName() {
+    return remote.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return remote.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    String localKey = localKey(key);
+    Object stored = local.getIfPresent(localKey);
+    if (stored != null) {
+      return new SimpleValueWrapper(fromLocal(stored));
+    }
+    ValueWrapper wrapper = remote.get(key);
+    if (wrapper != null) {
+      putLocal(localKey, wrapper.get());
+    }
+    return wrapper;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper != null ? wrapper.get() : null;
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException(
+        "Cached value is not of required type [" + type.getName() + "]: " + value
+      );
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper wrapper = get(key);
+    if (wrapper != null) {
+      return (T) wrapper.get();
+    }
+    T value = remote.get(key, valueLoader);
+    if (value != null) {
+      putLocal(localKey(key), value);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    remote.put(key, value);
+    String localKey = localKey(key);
+    putLocal(localKey, value);
+    invalidation.accept(localKey);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = remote.putIfAbsent(key, value);
+    String localKey = localKey(key);
+    evictLocal(localKey);
+    invalidation.accept(localKey);
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    remote.evict(key);
+    String localKey = localKey(key);
+    evictLocal(localKey);
+    invalidation.accept(localKey);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean present = remote.evictIfPresent(key);
+    String localKey = localKey(key);
+    evictLocal(localKey);
+    invalidation.accept(localKey);
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    clearLocal();
+    invalidation.accept(null);
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean present = remote.invalidate();
+    clearLocal();
+    invalidation.accept(null);
+    return present;
+  }
+
+  private void putLocal(String localKey, Object value) {
+    if (value == null) {
+      local.put(localKey, NullValue.INSTANCE);
+      return;
+    }
+    if (copySerializer == null) {
+      local.put(localKey, value);
+      return;
+    }
+    byte[] bytes = copySerializer.serialize(value);
+    if (bytes == null || bytes.length == 0) {
+      // 无法序列化的值只放在 Redis 中
+      local.invalidate(localKey);
+      return;
+    }
+    local.put(localKey, bytes);
+  }
+
+  private Object fromLocal(Object stored) {
+    if (stored == NullValue.INSTANCE) {
+      return null;
+    }
+    return copySerializer == null ? stored : copySerializer.deserialize((byte[]) stored);
+  }
+
+  void evictLocal(String localKey) {
+    local.invalidate(localKey);
+  }
+
+  void clearLocal() {
+    local.invalidateAll();
+  }
+
+  static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+}
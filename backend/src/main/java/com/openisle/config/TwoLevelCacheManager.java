@@ -0,0 +1,115 @@
+package com.openisle.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 在 RedisCacheManager 前加一层进程内缓存
+ * 只有 {@link LocalCacheProperties#getCaches()} 中配置过的缓存启用一级缓存，其余直接使用 Redis
+ * 本节点的写入/失效通过 Redis pub/sub 广播，其他节点收到后清理对应的一级缓存
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+  private static final String SEPARATOR = "|";
+  private static final String EVICT = "E";
+  private static final String CLEAR = "C";
+
+  private final CacheManager remoteCacheManager;
+  private final LocalCacheProperties properties;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisSerializer<Object> valueSerializer;
+  // 调用方会修改返回值的缓存，一级缓存中保存序列化副本
+  private final Set<String> copyOnReadCaches;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public TwoLevelCacheManager(
+    CacheManager remoteCacheManager,
+    LocalCacheProperties properties,
+    StringRedisTemplate stringRedisTemplate,
+    RedisSerializer<Object> valueSerializer,
+    Set<String> copyOnReadCaches
+  ) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.properties = properties;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.valueSerializer = valueSerializer;
+    this.copyOnReadCaches = copyOnReadCaches;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    Cache cache = caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    Cache remote = remoteCacheManager.getCache(name);
+    if (remote == null) {
+      return null;
+    }
+    return caches.computeIfAbsent(name, n -> decorate(n, remote));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return remoteCacheManager.getCacheNames();
+  }
+
+  private Cache decorate(String name, Cache remote) {
+    LocalCacheProperties.Spec spec = properties.getCaches().get(name);
+    if (!properties.isEnabled() || spec == null) {
+      return remote;
+    }
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+      .maximumSize(spec.getMaxSize())
+      .expireAfterWrite(spec.getTtl())
+      .build();
+    RedisSerializer<Object> copySerializer = copyOnReadCaches.contains(name)
+      ? valueSerializer
+      : null;
+    return new TwoLevelCache(remote, local, copySerializer, key -> publish(name, key));
+  }
+
+  private void publish(String cacheName, String key) {
+    String message = key == null
+      ? String.join(SEPARATOR, nodeId, CLEAR, cacheName)
+      : String.join(SEPARATOR, nodeId, EVICT, cacheName, key);
+    try {
+      stringRedisTemplate.convertAndSend(properties.getInvalidationChannel(), message);
+    } catch (Exception e) {
+      log.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+    }
+  }
+
+  /**
+   * 处理其他节点发来的失效通知
+   */
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+    if (parts.length < 3 || nodeId.equals(parts[0])) {
+      return;
+    }
+    if (!(caches.get(parts[2]) instanceof TwoLevelCache cache)) {
+      return;
+    }
+    if (CLEAR.equals(parts[1])) {
+      cache.clearLocal();
+    } else if (EVICT.equals(parts[1]) && parts.length == 4) {
+      cache.evictLocal(parts[3]);
+    }
+  }
+}
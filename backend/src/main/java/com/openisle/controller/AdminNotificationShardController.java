@@ -0,0 +1,56 @@
+package com.openisle.controller;
+
+import com.openisle.config.ShardInfo;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.dto.NotificationShardStatDto;
+import com.openisle.service.NotificationProducer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/notification-shards")
+@RequiredArgsConstructor
+public class AdminNotificationShardController {
+
+  private final ShardingStrategy shardingStrategy;
+  private final NotificationProducer notificationProducer;
+
+  @GetMapping
+  @SecurityRequirement(name = "JWT")
+  @Operation(
+    summary = "Notification shard distribution",
+    description = "Messages routed to and buffered for each notification shard, and its share of " +
+    "the hash ring"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "Per-shard statistics",
+    content = @Content(
+      array = @ArraySchema(schema = @Schema(implementation = NotificationShardStatDto.class))
+    )
+  )
+  public List<NotificationShardStatDto> shardStats() {
+    double[] shares = shardingStrategy.getRingShares();
+    List<NotificationShardStatDto> stats = new ArrayList<>();
+    for (ShardInfo shard : shardingStrategy.getAllShards()) {
+      NotificationShardStatDto dto = new NotificationShardStatDto();
+      dto.setShardIndex(shard.getShardIndex());
+      dto.setQueueName(shard.getQueueName());
+      dto.setRoutedCount(shardingStrategy.getRoutedCount(shard.getShardIndex()));
+      dto.setBufferedCount(notificationProducer.getBufferDepth(shard.getShardIndex()));
+      dto.setRingShare(shares[shard.getShardIndex()]);
+      stats.add(dto);
+    }
+    return stats;
+  }
+}
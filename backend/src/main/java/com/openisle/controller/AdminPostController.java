@@ -10,7 +10,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import java.util.List;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -36,11 +35,7 @@ public class AdminPostController {
     )
   )
   public List<PostSummaryDto> pendingPosts() {
-    return postService
-      .listPendingPosts()
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toSummaryDtos(postService.listPendingPosts());
   }
 
   @PostMapping("/{id}/approve")
@@ -6,6 +6,7 @@ import com.openisle.dto.PostSummaryDto;
 import com.openisle.mapper.CategoryMapper;
 import com.openisle.mapper.PostMapper;
 import com.openisle.model.Category;
+import com.openisle.model.PostSort;
 import com.openisle.service.CategoryService;
 import com.openisle.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -118,10 +119,8 @@ public class CategoryController {
     @RequestParam(value = "page", required = false) Integer page,
     @RequestParam(value = "pageSize", required = false) Integer pageSize
   ) {
-    return postService
-      .listPostsByCategories(java.util.List.of(id), page, pageSize)
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toListDtos(
+      postService.listPostRows(PostSort.CREATED_AT, false, List.of(id), null, page, pageSize)
+    );
   }
 }
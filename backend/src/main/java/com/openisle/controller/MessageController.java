@@ -16,6 +16,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -44,7 +45,10 @@ public class MessageController {
   }
 
   @GetMapping("/conversations")
-  @Operation(summary = "List conversations", description = "Get all conversations of current user")
+  @Operation(
+    summary = "List conversations",
+    description = "Get conversations of current user, optionally paged with a cursor"
+  )
   @ApiResponse(
     responseCode = "200",
     description = "List of conversations",
@@ -53,8 +57,22 @@ public class MessageController {
     )
   )
   @SecurityRequirement(name = "JWT")
-  public ResponseEntity<List<ConversationDto>> getConversations(Authentication auth) {
-    List<ConversationDto> conversations = messageService.getConversations(getCurrentUserId(auth));
+  public ResponseEntity<List<ConversationDto>> getConversations(
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", required = false) Integer size,
+    HttpServletResponse response,
+    Authentication auth
+  ) {
+    List<ConversationDto> conversations = messageService.getConversations(
+      getCurrentUserId(auth),
+      cursor,
+      size
+    );
+    // 分页时下一页游标通过响应头返回，没有更多数据时不返回该响应头
+    String nextCursor = messageService.nextConversationCursor(conversations, size);
+    if (nextCursor != null) {
+      response.setHeader(PostController.NEXT_CURSOR_HEADER, nextCursor);
+    }
     return ResponseEntity.ok(conversations);
   }
 
@@ -102,6 +120,35 @@ public class MessageController {
     return ResponseEntity.ok(messageService.toDto(message));
   }
 
+  @GetMapping("/conversations/{conversationId}/messages")
+  @Operation(
+    summary = "List conversation messages",
+    description = "Get messages before or after a message id, newest first"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "List of messages",
+    content = @Content(array = @ArraySchema(schema = @Schema(implementation = MessageDto.class)))
+  )
+  @SecurityRequirement(name = "JWT")
+  public ResponseEntity<List<MessageDto>> listMessages(
+    @PathVariable Long conversationId,
+    @RequestParam(value = "before", required = false) Long before,
+    @RequestParam(value = "after", required = false) Long after,
+    @RequestParam(defaultValue = "20") int size,
+    Authentication auth
+  ) {
+    return ResponseEntity.ok(
+      messageService.getConversationMessages(
+        conversationId,
+        getCurrentUserId(auth),
+        before,
+        after,
+        size
+      )
+    );
+  }
+
   @PostMapping("/conversations/{conversationId}/messages")
   @Operation(summary = "Send message to conversation", description = "Reply within a conversation")
   @ApiResponse(
@@ -7,6 +7,8 @@ import com.openisle.dto.PostRequest;
 import com.openisle.dto.PostSummaryDto;
 import com.openisle.mapper.PostMapper;
 import com.openisle.model.Post;
+import com.openisle.model.PostSort;
+import com.openisle.repository.PostListRow;
 import com.openisle.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -14,8 +16,8 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
@@ -38,6 +40,8 @@ public class PostController {
   private final PostMapper postMapper;
   private final PointService pointService;
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   @Value("${app.captcha.enabled:false}")
   private boolean captchaEnabled;
 
@@ -199,7 +203,8 @@ public class PostController {
   )
   @Cacheable(
     value = CachingConfig.POST_CACHE_NAME,
-    key = "new org.springframework.cache.interceptor.SimpleKey('default', #categoryId, #categoryIds, #tagId, #tagIds, #page, #pageSize)"
+    key = "@postListCacheService.listKey('default', #categoryId, #categoryIds, #tagId, #tagIds, #page, #pageSize)",
+    condition = "#cursor == null"
   )
   public List<PostSummaryDto> listPosts(
     @RequestParam(value = "categoryId", required = false) Long categoryId,
@@ -208,6 +213,8 @@ public class PostController {
     @RequestParam(value = "tagIds", required = false) List<Long> tagIds,
     @RequestParam(value = "page", required = false) Integer page,
     @RequestParam(value = "pageSize", required = false) Integer pageSize,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    HttpServletResponse response,
     Authentication auth
   ) {
     List<Long> ids = categoryService.getSearchCategoryIds(categoryIds, categoryId);
@@ -216,8 +223,13 @@ public class PostController {
     //        if (auth != null) {
     //            userVisitService.recordVisit(auth.getName());
     //        }
+    if (cursor != null) {
+      return listByCursor(PostSort.CREATED_AT, false, ids, tids, cursor, pageSize, response);
+    }
 
-    return postMapper.toListDtos(postService.defaultListPosts(ids, tids, page, pageSize));
+    return postMapper.toListDtos(
+      postService.listPostRows(PostSort.CREATED_AT, false, ids, tids, page, pageSize)
+    );
   }
 
   @GetMapping("/recent")
@@ -233,11 +245,7 @@ public class PostController {
     )
   )
   public List<PostSummaryDto> recentPosts(@RequestParam("minutes") int minutes) {
-    return postService
-      .listRecentPosts(minutes)
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toSummaryDtos(postService.listRecentPosts(minutes));
   }
 
   @GetMapping("/ranking")
@@ -256,6 +264,8 @@ public class PostController {
     @RequestParam(value = "tagIds", required = false) List<Long> tagIds,
     @RequestParam(value = "page", required = false) Integer page,
     @RequestParam(value = "pageSize", required = false) Integer pageSize,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    HttpServletResponse response,
     Authentication auth
   ) {
     List<Long> ids = categoryService.getSearchCategoryIds(categoryIds, categoryId);
@@ -264,8 +274,13 @@ public class PostController {
     //        if (auth != null) {
     //            userVisitService.recordVisit(auth.getName());
     //        }
+    if (cursor != null) {
+      return listByCursor(PostSort.VIEWS, false, ids, tids, cursor, pageSize, response);
+    }
 
-    return postMapper.toListDtos(postService.listPostsByViews(ids, tids, page, pageSize));
+    return postMapper.toListDtos(
+      postService.listPostRows(PostSort.VIEWS, false, ids, tids, page, pageSize)
+    );
   }
 
   @GetMapping("/latest-reply")
@@ -279,7 +294,8 @@ public class PostController {
   )
   @Cacheable(
     value = CachingConfig.POST_CACHE_NAME,
-    key = "new org.springframework.cache.interceptor.SimpleKey('latest_reply', #categoryId, #categoryIds, #tagIds, #page, #pageSize)"
+    key = "@postListCacheService.listKey('latest_reply', #categoryId, #categoryIds, #tagId, #tagIds, #page, #pageSize)",
+    condition = "#cursor == null"
   )
   public List<PostSummaryDto> latestReplyPosts(
     @RequestParam(value = "categoryId", required = false) Long categoryId,
@@ -288,6 +304,8 @@ public class PostController {
     @RequestParam(value = "tagIds", required = false) List<Long> tagIds,
     @RequestParam(value = "page", required = false) Integer page,
     @RequestParam(value = "pageSize", required = false) Integer pageSize,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    HttpServletResponse response,
     Authentication auth
   ) {
     List<Long> ids = categoryService.getSearchCategoryIds(categoryIds, categoryId);
@@ -296,8 +314,13 @@ public class PostController {
     //        if (auth != null) {
     //            userVisitService.recordVisit(auth.getName());
     //        }
+    if (cursor != null) {
+      return listByCursor(PostSort.LAST_REPLY_AT, false, ids, tids, cursor, pageSize, response);
+    }
 
-    return postMapper.toListDtos(postService.listPostsByLatestReply(ids, tids, page, pageSize));
+    return postMapper.toListDtos(
+      postService.listPostRows(PostSort.LAST_REPLY_AT, false, ids, tids, page, pageSize)
+    );
   }
 
   @GetMapping("/featured")
@@ -316,6 +339,8 @@ public class PostController {
     @RequestParam(value = "tagIds", required = false) List<Long> tagIds,
     @RequestParam(value = "page", required = false) Integer page,
     @RequestParam(value = "pageSize", required = false) Integer pageSize,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    HttpServletResponse response,
     Authentication auth
   ) {
     List<Long> ids = categoryService.getSearchCategoryIds(categoryIds, categoryId);
@@ -324,6 +349,39 @@ public class PostController {
     //        if (auth != null) {
     //            userVisitService.recordVisit(auth.getName());
     //        }
-    return postMapper.toListDtos(postService.listFeaturedPosts(ids, tids, page, pageSize));
+    if (cursor != null) {
+      return listByCursor(PostSort.CREATED_AT, true, ids, tids, cursor, pageSize, response);
+    }
+    return postMapper.toListDtos(
+      postService.listPostRows(PostSort.CREATED_AT, true, ids, tids, page, pageSize)
+    );
+  }
+
+  /**
+   * 游标分页模式
+   * 下一页游标通过 {@link #NEXT_CURSOR_HEADER} 响应头返回，没有更多数据时不返回该响应头
+   */
+  private List<PostSummaryDto> listByCursor(
+    PostSort sort,
+    boolean featuredOnly,
+    List<Long> categoryIds,
+    List<Long> tagIds,
+    String cursor,
+    Integer pageSize,
+    HttpServletResponse response
+  ) {
+    List<PostListRow> rows = postService.listPostsByCursor(
+      sort,
+      featuredOnly,
+      categoryIds,
+      tagIds,
+      cursor,
+      pageSize
+    );
+    String nextCursor = postService.nextCursor(rows, sort, pageSize);
+    if (nextCursor != null) {
+      response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+    }
+    return postMapper.toListDtos(rows);
   }
 }
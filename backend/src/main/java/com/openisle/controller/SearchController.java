@@ -1,6 +1,7 @@
 package com.openisle.controller;
 
 import com.openisle.dto.PostSummaryDto;
+import com.openisle.dto.SearchPageDto;
 import com.openisle.dto.SearchResultDto;
 import com.openisle.dto.UserDto;
 import com.openisle.mapper.PostMapper;
@@ -11,9 +12,11 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -53,11 +56,7 @@ public class SearchController {
     )
   )
   public List<PostSummaryDto> searchPosts(@RequestParam String keyword) {
-    return searchService
-      .searchPosts(keyword)
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toSummaryDtos(searchService.searchPosts(keyword));
   }
 
   @GetMapping("/posts/content")
@@ -70,11 +69,7 @@ public class SearchController {
     )
   )
   public List<PostSummaryDto> searchPostsByContent(@RequestParam String keyword) {
-    return searchService
-      .searchPostsByContent(keyword)
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toSummaryDtos(searchService.searchPostsByContent(keyword));
   }
 
   @GetMapping("/posts/title")
@@ -87,11 +82,7 @@ public class SearchController {
     )
   )
   public List<PostSummaryDto> searchPostsByTitle(@RequestParam String keyword) {
-    return searchService
-      .searchPostsByTitle(keyword)
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toSummaryDtos(searchService.searchPostsByTitle(keyword));
   }
 
   @GetMapping("/global")
@@ -107,19 +98,58 @@ public class SearchController {
     return searchService
       .globalSearch(keyword)
       .stream()
-      .map(r -> {
-        SearchResultDto dto = new SearchResultDto();
-        dto.setType(r.type());
-        dto.setId(r.id());
-        dto.setText(r.text());
-        dto.setSubText(r.subText());
-        dto.setExtra(r.extra());
-        dto.setPostId(r.postId());
-        dto.setHighlightedText(r.highlightedText());
-        dto.setHighlightedSubText(r.highlightedSubText());
-        dto.setHighlightedExtra(r.highlightedExtra());
-        return dto;
-      })
+      .map(this::toDto)
       .collect(Collectors.toList());
   }
+
+  @GetMapping("/results")
+  @Operation(
+    summary = "Paged search",
+    description = "Search with type, category, tag and date filters, paged with a cursor"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "One page of search results",
+    content = @Content(schema = @Schema(implementation = SearchPageDto.class))
+  )
+  public SearchPageDto results(
+    @RequestParam String keyword,
+    @RequestParam(value = "types", required = false) List<String> types,
+    @RequestParam(value = "category", required = false) String category,
+    @RequestParam(value = "tags", required = false) List<String> tags,
+    @RequestParam(value = "from", required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE
+    ) LocalDate from,
+    @RequestParam(value = "to", required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE
+    ) LocalDate to,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", required = false) Integer size,
+    @RequestParam(value = "total", defaultValue = "false") boolean total
+  ) {
+    SearchService.SearchPage page = searchService.searchPage(
+      new SearchService.SearchQuery(keyword, types, category, tags, from, to, cursor, size, total)
+    );
+    SearchPageDto dto = new SearchPageDto();
+    dto.setItems(page.items().stream().map(this::toDto).collect(Collectors.toList()));
+    dto.setNextCursor(page.nextCursor());
+    dto.setTypeCounts(page.typeCounts());
+    dto.setTotal(page.total());
+    dto.setDegraded(page.degraded());
+    return dto;
+  }
+
+  private SearchResultDto toDto(SearchService.SearchResult r) {
+    SearchResultDto dto = new SearchResultDto();
+    dto.setType(r.type());
+    dto.setId(r.id());
+    dto.setText(r.text());
+    dto.setSubText(r.subText());
+    dto.setExtra(r.extra());
+    dto.setPostId(r.postId());
+    dto.setHighlightedText(r.highlightedText());
+    dto.setHighlightedSubText(r.highlightedSubText());
+    dto.setHighlightedExtra(r.highlightedExtra());
+    return dto;
+  }
 }
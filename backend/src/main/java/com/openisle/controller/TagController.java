@@ -5,6 +5,7 @@ import com.openisle.dto.TagDto;
 import com.openisle.dto.TagRequest;
 import com.openisle.mapper.PostMapper;
 import com.openisle.mapper.TagMapper;
+import com.openisle.model.PostSort;
 import com.openisle.model.PublishMode;
 import com.openisle.model.Role;
 import com.openisle.model.Tag;
@@ -157,10 +158,8 @@ public class TagController {
     @RequestParam(value = "page", required = false) Integer page,
     @RequestParam(value = "pageSize", required = false) Integer pageSize
   ) {
-    return postService
-      .listPostsByTags(java.util.List.of(id), page, pageSize)
-      .stream()
-      .map(postMapper::toSummaryDto)
-      .collect(Collectors.toList());
+    return postMapper.toListDtos(
+      postService.listPostRows(PostSort.CREATED_AT, false, null, List.of(id), page, pageSize)
+    );
   }
 }
@@ -1,15 +1,65 @@
 package com.openisle.dto;
 
 import java.io.Serializable;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import java.util.List;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class MessageNotificationPayload implements Serializable {
+/**
+ * 发往 websocket 服务的消息通知，websocket_service 中有同名同结构的定义，修改时两边需同步并升级版本号
+ *
+ * @param version 格式版本，接收方不认识的版本会丢弃
+ * @param targetUsername 分片键
+ * @param recipients 需要推送未读数的接收者；私信为除发送者外的全部参与者，频道只包含未读频道数有变化的成员
+ * @param recipientIds 频道中除发送者外的全部成员，只用于轻量提醒；私信为空
+ */
+public record MessageNotificationPayload(
+  int version,
+  String targetUsername,
+  Long conversationId,
+  boolean channel,
+  Long senderId,
+  MessageDto message,
+  List<NotificationRecipient> recipients,
+  List<Long> recipientIds
+)
+  implements Serializable {
+  public static final int CURRENT_VERSION = 2;
 
-  private String targetUsername;
-  private Object payload;
+  public static MessageNotificationPayload direct(
+    String targetUsername,
+    Long conversationId,
+    Long senderId,
+    MessageDto message,
+    List<NotificationRecipient> recipients
+  ) {
+    return new MessageNotificationPayload(
+      CURRENT_VERSION,
+      targetUsername,
+      conversationId,
+      false,
+      senderId,
+      message,
+      recipients,
+      List.of()
+    );
+  }
+
+  public static MessageNotificationPayload channel(
+    String targetUsername,
+    Long conversationId,
+    Long senderId,
+    MessageDto message,
+    List<NotificationRecipient> unreadDeltas,
+    List<Long> recipientIds
+  ) {
+    return new MessageNotificationPayload(
+      CURRENT_VERSION,
+      targetUsername,
+      conversationId,
+      true,
+      senderId,
+      message,
+      unreadDeltas,
+      recipientIds
+    );
+  }
 }
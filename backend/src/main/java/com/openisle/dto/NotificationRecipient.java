@@ -0,0 +1,14 @@
+package com.openisle.dto;
+
+import java.io.Serializable;
+
+/**
+ * 消息通知的接收者，未读数为 null 表示不需要推送该项
+ */
+public record NotificationRecipient(
+  Long userId,
+  String username,
+  Long unreadCount,
+  Long channelUnread
+)
+  implements Serializable {}
@@ -0,0 +1,17 @@
+package com.openisle.dto;
+
+import lombok.Data;
+
+/** DTO for notification shard distribution. */
+@Data
+public class NotificationShardStatDto {
+
+  private int shardIndex;
+  private String queueName;
+  /** 启动以来路由到该分片的消息数 */
+  private long routedCount;
+  /** 缓冲区中等待发布的消息数 */
+  private int bufferedCount;
+  /** 该分片在哈希环上覆盖的比例 */
+  private double ringShare;
+}
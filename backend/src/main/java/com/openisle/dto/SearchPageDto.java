@@ -0,0 +1,20 @@
+package com.openisle.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+/** DTO representing one page of search results. */
+@Data
+public class SearchPageDto {
+
+  private List<SearchResultDto> items;
+  // 下一页游标，没有更多结果时为 null
+  private String nextCursor;
+  // 各类型命中数，只在第一页返回
+  private Map<String, Long> typeCounts;
+  // 精确总数，只在请求时计算
+  private Long total;
+  // 为 true 时是搜索服务不可用时的数据库兜底结果，过滤条件和命中数不准确
+  private boolean degraded;
+}
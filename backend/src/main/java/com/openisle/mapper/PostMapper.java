@@ -8,21 +8,32 @@ import com.openisle.dto.PostDetailDto;
 import com.openisle.dto.PostSummaryDto;
 import com.openisle.dto.ProposalDto;
 import com.openisle.dto.ReactionDto;
+import com.openisle.dto.TagDto;
+import com.openisle.model.Category;
 import com.openisle.model.CategoryProposalPost;
 import com.openisle.model.CommentSort;
 import com.openisle.model.LotteryPost;
 import com.openisle.model.PollPost;
 import com.openisle.model.PollVote;
 import com.openisle.model.Post;
+import com.openisle.model.Tag;
 import com.openisle.model.User;
+import com.openisle.repository.CategoryRepository;
 import com.openisle.repository.PollVoteRepository;
+import com.openisle.repository.PostListRow;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.UserRepository;
 import com.openisle.service.CommentService;
+import com.openisle.service.PostViewService;
 import com.openisle.service.ReactionService;
 import com.openisle.service.SubscriptionService;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -41,48 +52,101 @@ public class PostMapper {
   private final TagMapper tagMapper;
   private final CategoryMapper categoryMapper;
   private final PollVoteRepository pollVoteRepository;
+  private final PostViewService postViewService;
+  private final PostRepository postRepository;
+  private final UserRepository userRepository;
+  private final CategoryRepository categoryRepository;
 
   public PostSummaryDto toSummaryDto(Post post) {
     PostSummaryDto dto = new PostSummaryDto();
-    applyCommon(post, dto);
+    applyCommon(post, dto, postViewService.getPendingViews(post.getId()));
     return dto;
   }
 
-  public List<PostSummaryDto> toListDtos(List<Post> posts) {
+  /**
+   * 批量转换，未落库浏览量一次 HMGET 取回
+   */
+  public List<PostSummaryDto> toSummaryDtos(List<? extends Post> posts) {
     if (posts == null || posts.isEmpty()) {
       return List.of();
     }
-    Map<Long, List<User>> participantsMap = commentService.getParticipantsForPosts(posts, 5);
+    Map<Long, Long> pendingViews = postViewService.getPendingViews(
+      posts.stream().map(Post::getId).collect(Collectors.toList())
+    );
     return posts
       .stream()
       .map(post -> {
         PostSummaryDto dto = new PostSummaryDto();
-        applyListFields(post, dto);
-        List<User> participants = participantsMap.get(post.getId());
-        if (participants != null) {
-          dto.setParticipants(
-            participants.stream().map(userMapper::toAuthorDto).collect(Collectors.toList())
-          );
-        } else {
-          dto.setParticipants(List.of());
-        }
-        dto.setReactions(List.of());
+        applyCommon(post, dto, pendingViews.getOrDefault(post.getId(), 0L));
         return dto;
       })
       .collect(Collectors.toList());
   }
 
-  public PostSummaryDto toListDto(Post post) {
-    PostSummaryDto dto = new PostSummaryDto();
-    applyListFields(post, dto);
-    dto.setParticipants(List.of());
-    dto.setReactions(List.of());
-    return dto;
+  /**
+   * 列表页 DTO，正文以摘要代替；作者、分类、标签、参与者和未落库浏览量均按页批量查询
+   */
+  public List<PostSummaryDto> toListDtos(List<PostListRow> rows) {
+    if (rows == null || rows.isEmpty()) {
+      return List.of();
+    }
+    List<Long> postIds = rows.stream().map(PostListRow::id).collect(Collectors.toList());
+    Map<Long, User> authors = userRepository
+      .findAllById(rows.stream().map(PostListRow::authorId).collect(Collectors.toSet()))
+      .stream()
+      .collect(Collectors.toMap(User::getId, Function.identity()));
+    Map<Long, Category> categories = categoryRepository
+      .findAllById(rows.stream().map(PostListRow::categoryId).collect(Collectors.toSet()))
+      .stream()
+      .collect(Collectors.toMap(Category::getId, Function.identity()));
+    Map<Long, List<TagDto>> tags = new HashMap<>();
+    for (Object[] r : postRepository.findTagsByPostIds(postIds)) {
+      TagDto tag = tagMapper.toDto((Tag) r[1]);
+      tags.computeIfAbsent((Long) r[0], k -> new ArrayList<>()).add(tag);
+    }
+    Map<Long, User> postAuthors = new LinkedHashMap<>();
+    rows.forEach(row -> postAuthors.put(row.id(), authors.get(row.authorId())));
+    Map<Long, List<User>> participantsMap = commentService.getParticipantsForPosts(postAuthors, 5);
+    Map<Long, Long> pendingViews = postViewService.getPendingViews(postIds);
+
+    return rows
+      .stream()
+      .map(row -> {
+        PostSummaryDto dto = new PostSummaryDto();
+        dto.setId(row.id());
+        dto.setTitle(row.title());
+        dto.setContent(row.excerpt());
+        dto.setCreatedAt(row.createdAt());
+        User author = authors.get(row.authorId());
+        dto.setAuthor(author != null ? userMapper.toAuthorDto(author) : null);
+        Category category = categories.get(row.categoryId());
+        dto.setCategory(category != null ? categoryMapper.toDto(category) : null);
+        dto.setTags(tags.getOrDefault(row.id(), List.of()));
+        dto.setViews(row.views() + pendingViews.getOrDefault(row.id(), 0L));
+        dto.setCommentCount(row.commentCount());
+        dto.setStatus(row.status());
+        dto.setPinnedAt(row.pinnedAt());
+        dto.setLastReplyAt(row.lastReplyAt());
+        dto.setRssExcluded(row.rssExcluded() == null || row.rssExcluded());
+        dto.setClosed(row.closed());
+        dto.setVisibleScope(row.visibleScope());
+        dto.setType(row.type());
+        dto.setParticipants(
+          participantsMap
+            .getOrDefault(row.id(), List.of())
+            .stream()
+            .map(userMapper::toAuthorDto)
+            .collect(Collectors.toList())
+        );
+        dto.setReactions(List.of());
+        return dto;
+      })
+      .collect(Collectors.toList());
   }
 
   public PostDetailDto toDetailDto(Post post, String viewer) {
     PostDetailDto dto = new PostDetailDto();
-    applyCommon(post, dto);
+    applyCommon(post, dto, postViewService.getPendingViews(post.getId()));
     List<CommentDto> comments = commentService
       .getCommentsForPost(post.getId(), CommentSort.OLDEST)
       .stream()
@@ -93,26 +157,7 @@ public class PostMapper {
     return dto;
   }
 
-  private void applyListFields(Post post, PostSummaryDto dto) {
-    dto.setId(post.getId());
-    dto.setTitle(post.getTitle());
-    dto.setContent(post.getContent());
-    dto.setCreatedAt(post.getCreatedAt());
-    dto.setAuthor(userMapper.toAuthorDto(post.getAuthor()));
-    dto.setCategory(categoryMapper.toDto(post.getCategory()));
-    dto.setTags(post.getTags().stream().map(tagMapper::toDto).collect(Collectors.toList()));
-    dto.setViews(post.getViews());
-    dto.setCommentCount(post.getCommentCount());
-    dto.setStatus(post.getStatus());
-    dto.setPinnedAt(post.getPinnedAt());
-    dto.setLastReplyAt(post.getLastReplyAt());
-    dto.setRssExcluded(post.getRssExcluded() == null || post.getRssExcluded());
-    dto.setClosed(post.isClosed());
-    dto.setVisibleScope(post.getVisibleScope());
-    dto.setType(post.getType());
-  }
-
-  private void applyCommon(Post post, PostSummaryDto dto) {
+  private void applyCommon(Post post, PostSummaryDto dto, long pendingViews) {
     dto.setId(post.getId());
     dto.setTitle(post.getTitle());
     dto.setContent(post.getContent());
@@ -121,7 +166,7 @@ public class PostMapper {
     dto.setAuthor(userMapper.toAuthorDto(post.getAuthor()));
     dto.setCategory(categoryMapper.toDto(post.getCategory()));
     dto.setTags(post.getTags().stream().map(tagMapper::toDto).collect(Collectors.toList()));
-    dto.setViews(post.getViews());
+    dto.setViews(post.getViews() + pendingViews);
     dto.setStatus(post.getStatus());
     dto.setPinnedAt(post.getPinnedAt());
     dto.setRssExcluded(post.getRssExcluded() == null || post.getRssExcluded());
@@ -140,10 +185,6 @@ public class PostMapper {
       participants.stream().map(userMapper::toAuthorDto).collect(Collectors.toList())
     );
 
-    LocalDateTime last = post.getLastReplyAt();
-    if (last == null) {
-      commentService.updatePostCommentStats(post);
-    }
     dto.setCommentCount(post.getCommentCount());
     dto.setLastReplyAt(post.getLastReplyAt());
     dto.setReward(0);
@@ -13,7 +13,13 @@ import org.hibernate.annotations.Where;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "comments")
+@Table(
+  name = "comments",
+  indexes = @Index(
+    name = "idx_comments_post_created",
+    columnList = "post_id, deleted_at, created_at"
+  )
+)
 @SQLDelete(sql = "UPDATE comments SET deleted_at = CURRENT_TIMESTAMP(6) WHERE id = ?")
 @Where(clause = "deleted_at IS NULL")
 public class Comment {
@@ -12,7 +12,10 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "messages")
+@Table(
+  name = "messages",
+  indexes = @Index(name = "idx_messages_conversation_id_id", columnList = "conversation_id, id")
+)
 public class Message {
 
   @Id
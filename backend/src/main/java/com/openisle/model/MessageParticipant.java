@@ -29,4 +29,8 @@ public class MessageParticipant {
 
   @Column
   private LocalDateTime lastReadAt;
+
+  // 上次已读之后别人发来的消息数
+  @Column(nullable = false)
+  private long unreadCount = 0;
 }
@@ -0,0 +1,28 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 用户维度的未读汇总，随发消息和已读同步更新
+ * messageUnread 为私信未读消息总数，channelUnread 为有未读消息的频道数
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "message_unread_counters")
+public class MessageUnreadCounter {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(nullable = false)
+  private long messageUnread = 0;
+
+  @Column(nullable = false)
+  private long channelUnread = 0;
+}
@@ -17,7 +17,16 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "posts")
+@Table(
+  name = "posts",
+  indexes = {
+    @Index(
+      name = "idx_posts_featured",
+      columnList = "rss_excluded, status, pinned_at, created_at"
+    ),
+    @Index(name = "idx_posts_latest_reply", columnList = "status, pinned_at, last_reply_at"),
+  }
+)
 @Inheritance(strategy = InheritanceType.JOINED)
 public class Post {
 
@@ -31,6 +40,10 @@ public class Post {
   @Column(nullable = false, columnDefinition = "LONGTEXT")
   private String content;
 
+  /** 列表页使用的纯文本摘要，随正文一起更新 */
+  @Column(length = 512)
+  private String excerpt;
+
   @CreationTimestamp
   @Column(
     nullable = false,
@@ -82,6 +95,14 @@ public class Post {
   @Column(nullable = false)
   private long commentCount = 0;
 
-  @Column(nullable = true)
+  /** 最后回复时间，没有评论时为发帖时间；最新回复列表的排序字段 */
+  @Column(nullable = false)
   private LocalDateTime lastReplyAt;
+
+  @PrePersist
+  void initLastReplyAt() {
+    if (lastReplyAt == null) {
+      lastReplyAt = createdAt != null ? createdAt : LocalDateTime.now();
+    }
+  }
 }
@@ -0,0 +1,10 @@
+package com.openisle.model;
+
+/**
+ * Sort keys used by post listings. Pinned posts always come first.
+ */
+public enum PostSort {
+  CREATED_AT,
+  VIEWS,
+  LAST_REPLY_AT,
+}
@@ -0,0 +1,9 @@
+package com.openisle.model;
+
+/**
+ * 搜索索引写入类型
+ */
+public enum SearchIndexOperation {
+  INDEX,
+  DELETE,
+}
@@ -0,0 +1,56 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * 待写入搜索索引的变更，与业务数据在同一事务中写入，由后台任务批量发送后删除
+ * indexName 为索引别名，payload 为 INDEX 操作的文档 JSON
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+  name = "search_index_outbox",
+  indexes = {
+    @Index(name = "idx_search_index_outbox_due", columnList = "next_attempt_at, id"),
+    @Index(name = "idx_search_index_outbox_entity", columnList = "index_name, entity_id"),
+  }
+)
+public class SearchIndexOutboxEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "index_name", nullable = false, length = 128)
+  private String indexName;
+
+  @Column(name = "entity_id", nullable = false)
+  private Long entityId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private SearchIndexOperation operation;
+
+  @Column(columnDefinition = "LONGTEXT")
+  private String payload;
+
+  @Column(nullable = false)
+  private int attempts = 0;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(length = 500)
+  private String lastError;
+
+  @CreationTimestamp
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * 搜索索引重建进度，每个别名一行
+ * targetIndex 为正在构建（或已切换到别名下）的物理索引，lastEntityId 之前的实体均已写入
+ * lockedBy / lockedUntil 为重建锁，同一时间只有一个节点构建同一个别名
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "search_reindex_checkpoints")
+public class SearchReindexCheckpoint {
+
+  @Id
+  @Column(name = "index_alias", length = 128)
+  private String indexAlias;
+
+  @Column(length = 190)
+  private String targetIndex;
+
+  @Column(nullable = false)
+  private int mappingVersion;
+
+  @Column(nullable = false)
+  private long lastEntityId = 0;
+
+  @Column(nullable = false)
+  private boolean completed = false;
+
+  @Column(length = 64)
+  private String lockedBy;
+
+  private LocalDateTime lockedUntil;
+
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
+}
@@ -3,10 +3,23 @@ package com.openisle.repository;
 import com.openisle.model.Category;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-  List<Category> findByNameContainingIgnoreCase(String keyword);
+  List<Category> findByNameContainingIgnoreCase(String keyword, Pageable pageable);
+
+  @Query(
+    value = "SELECT c.id FROM categories c WHERE MATCH(c.name) AGAINST (:query IN BOOLEAN MODE) " +
+      "ORDER BY MATCH(c.name) AGAINST (:query IN BOOLEAN MODE) DESC, c.id DESC LIMIT :limit",
+    nativeQuery = true
+  )
+  List<Long> searchIdsByFulltext(@Param("query") String query, @Param("limit") int limit);
 
   Optional<Category> findByName(String name);
+
+  // 按 id 递增翻页，用于索引重建时从断点继续
+  List<Category> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -16,7 +16,18 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     LocalDateTime createdAt
   );
   List<Comment> findByAuthorOrderByCreatedAtDesc(User author, Pageable pageable);
-  List<Comment> findByContentContainingIgnoreCase(String keyword);
+  List<Comment> findByContentContainingIgnoreCase(String keyword, Pageable pageable);
+
+  @org.springframework.data.jpa.repository.Query(
+    value = "SELECT c.id FROM comments c WHERE c.deleted_at IS NULL " +
+      "AND MATCH(c.content) AGAINST (:query IN BOOLEAN MODE) " +
+      "ORDER BY MATCH(c.content) AGAINST (:query IN BOOLEAN MODE) DESC, c.id DESC LIMIT :limit",
+    nativeQuery = true
+  )
+  List<Long> searchIdsByFulltext(
+    @org.springframework.data.repository.query.Param("query") String query,
+    @org.springframework.data.repository.query.Param("limit") int limit
+  );
 
   @org.springframework.data.jpa.repository.Query(
     "SELECT DISTINCT c.author FROM Comment c WHERE c.post = :post"
@@ -69,4 +80,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @org.springframework.data.repository.query.Param("start") java.time.LocalDateTime start,
     @org.springframework.data.repository.query.Param("end") java.time.LocalDateTime end
   );
+
+  // 按 id 递增翻页，用于索引重建时从断点继续
+  List<Comment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -3,6 +3,7 @@ package com.openisle.repository;
 import com.openisle.model.MessageConversation;
 import com.openisle.model.User;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,11 +11,6 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MessageConversationRepository extends JpaRepository<MessageConversation, Long> {
-  @Query(
-    "SELECT c FROM MessageConversation c LEFT JOIN FETCH c.participants p LEFT JOIN FETCH p.user WHERE c.id = :id"
-  )
-  java.util.Optional<MessageConversation> findByIdWithParticipantsAndUsers(@Param("id") Long id);
-
   @Query(
     "SELECT c FROM MessageConversation c " +
       "WHERE c.channel = false AND size(c.participants) = 2 " +
@@ -27,18 +23,41 @@ public interface MessageConversationRepository extends JpaRepository<MessageConv
     @Param("user2") User user2
   );
 
+  // 用户的私信会话，按最后活跃时间倒序；最后一条消息及其发送者、引用消息一并取出
   @Query(
-    "SELECT DISTINCT c FROM MessageConversation c " +
-      "JOIN c.participants p " +
+    "SELECT c FROM MessageConversation c " +
+      "LEFT JOIN FETCH c.lastMessage lm " +
+      "LEFT JOIN FETCH lm.sender " +
+      "LEFT JOIN FETCH lm.replyTo rt " +
+      "LEFT JOIN FETCH rt.sender " +
+      "WHERE c.channel = false " +
+      "AND EXISTS (SELECT 1 FROM MessageParticipant p " +
+      "WHERE p.conversation = c AND p.user.id = :userId) " +
+      "ORDER BY COALESCE(lm.createdAt, c.createdAt) DESC, c.id DESC"
+  )
+  List<MessageConversation> findDirectConversationsByUserId(
+    @Param("userId") Long userId,
+    Pageable pageable
+  );
+
+  @Query(
+    "SELECT c FROM MessageConversation c " +
       "LEFT JOIN FETCH c.lastMessage lm " +
       "LEFT JOIN FETCH lm.sender " +
-      "LEFT JOIN FETCH c.participants cp " +
-      "LEFT JOIN FETCH cp.user " +
-      "WHERE p.user.id = :userId " +
-      "ORDER BY COALESCE(lm.createdAt, c.createdAt) DESC"
+      "LEFT JOIN FETCH lm.replyTo rt " +
+      "LEFT JOIN FETCH rt.sender " +
+      "WHERE c.channel = false " +
+      "AND EXISTS (SELECT 1 FROM MessageParticipant p " +
+      "WHERE p.conversation = c AND p.user.id = :userId) " +
+      "AND (COALESCE(lm.createdAt, c.createdAt) < :activityAt " +
+      "OR (COALESCE(lm.createdAt, c.createdAt) = :activityAt AND c.id < :lastId)) " +
+      "ORDER BY COALESCE(lm.createdAt, c.createdAt) DESC, c.id DESC"
   )
-  List<MessageConversation> findConversationsByUserIdOrderByLastMessageDesc(
-    @Param("userId") Long userId
+  List<MessageConversation> findDirectConversationsByUserIdAfter(
+    @Param("userId") Long userId,
+    @Param("activityAt") java.time.LocalDateTime activityAt,
+    @Param("lastId") Long lastId,
+    Pageable pageable
   );
 
   List<MessageConversation> findByChannelTrue();
@@ -1,13 +1,68 @@
 package com.openisle.repository;
 
 import com.openisle.model.MessageParticipant;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MessageParticipantRepository extends JpaRepository<MessageParticipant, Long> {
   Optional<MessageParticipant> findByConversationIdAndUserId(Long conversationId, Long userId);
   List<MessageParticipant> findByUserId(Long userId);
+
+  @Query(
+    "SELECT p FROM MessageParticipant p JOIN FETCH p.user " +
+      "WHERE p.conversation.id IN :conversationIds"
+  )
+  List<MessageParticipant> findWithUsersByConversationIdIn(
+    @Param("conversationIds") Collection<Long> conversationIds
+  );
+
+  // 已读时加行锁，避免与并发发送的未读数递增交错
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+    "SELECT p FROM MessageParticipant p " +
+      "WHERE p.conversation.id = :conversationId AND p.user.id = :userId"
+  )
+  Optional<MessageParticipant> findForUpdate(
+    @Param("conversationId") Long conversationId,
+    @Param("userId") Long userId
+  );
+
+  @Modifying
+  @Query(
+    "UPDATE MessageParticipant p SET p.unreadCount = p.unreadCount + 1 " +
+      "WHERE p.conversation.id = :conversationId AND p.user.id <> :senderId"
+  )
+  int incrementUnreadCount(
+    @Param("conversationId") Long conversationId,
+    @Param("senderId") Long senderId
+  );
+
+  @Query(
+    "SELECT p.user.id FROM MessageParticipant p " +
+      "WHERE p.conversation.id = :conversationId AND p.user.id <> :senderId"
+  )
+  List<Long> findRecipientIds(
+    @Param("conversationId") Long conversationId,
+    @Param("senderId") Long senderId
+  );
+
+  // 本次消息使会话从无未读变为有未读的参与者，需在未读数递增之后查询
+  @Query(
+    "SELECT p FROM MessageParticipant p JOIN FETCH p.user " +
+      "WHERE p.conversation.id = :conversationId AND p.user.id <> :senderId " +
+      "AND p.unreadCount = 1"
+  )
+  List<MessageParticipant> findNewlyUnread(
+    @Param("conversationId") Long conversationId,
+    @Param("senderId") Long senderId
+  );
 }
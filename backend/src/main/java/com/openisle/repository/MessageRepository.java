@@ -5,13 +5,60 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
   List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
 
-  Page<Message> findByConversationId(Long conversationId, Pageable pageable);
+  @Query(
+    value = "SELECT m FROM Message m " +
+      "JOIN FETCH m.sender " +
+      "LEFT JOIN FETCH m.replyTo rt " +
+      "LEFT JOIN FETCH rt.sender " +
+      "WHERE m.conversation.id = :conversationId",
+    countQuery = "SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId"
+  )
+  Page<Message> findByConversationId(
+    @Param("conversationId") Long conversationId,
+    Pageable pageable
+  );
+
+  /**
+   * id 小于 beforeId 的消息，按 id 倒序，走 (conversation_id, id) 索引
+   */
+  @Query(
+    "SELECT m FROM Message m " +
+      "JOIN FETCH m.sender " +
+      "LEFT JOIN FETCH m.replyTo rt " +
+      "LEFT JOIN FETCH rt.sender " +
+      "WHERE m.conversation.id = :conversationId AND m.id < :beforeId " +
+      "ORDER BY m.id DESC"
+  )
+  List<Message> findByConversationIdBefore(
+    @Param("conversationId") Long conversationId,
+    @Param("beforeId") Long beforeId,
+    Pageable pageable
+  );
+
+  /**
+   * id 大于 afterId 的消息，按 id 正序，走 (conversation_id, id) 索引
+   */
+  @Query(
+    "SELECT m FROM Message m " +
+      "JOIN FETCH m.sender " +
+      "LEFT JOIN FETCH m.replyTo rt " +
+      "LEFT JOIN FETCH rt.sender " +
+      "WHERE m.conversation.id = :conversationId AND m.id > :afterId " +
+      "ORDER BY m.id ASC"
+  )
+  List<Message> findByConversationIdAfter(
+    @Param("conversationId") Long conversationId,
+    @Param("afterId") Long afterId,
+    Pageable pageable
+  );
 
   long countByConversationIdAndCreatedAtAfter(
     Long conversationId,
@@ -0,0 +1,56 @@
+package com.openisle.repository;
+
+import com.openisle.model.MessageUnreadCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MessageUnreadCounterRepository extends JpaRepository<MessageUnreadCounter, Long> {
+  // 会话中除发送者外的每个参与者私信未读数 +1，没有汇总行时插入
+  @Modifying
+  @Query(
+    value = "INSERT INTO message_unread_counters (user_id, message_unread, channel_unread) " +
+      "SELECT p.user_id, 1, 0 FROM message_participants p " +
+      "WHERE p.conversation_id = :conversationId AND p.user_id <> :senderId " +
+      "ON DUPLICATE KEY UPDATE message_unread = message_unread + 1",
+    nativeQuery = true
+  )
+  int incrementMessageUnread(
+    @Param("conversationId") Long conversationId,
+    @Param("senderId") Long senderId
+  );
+
+  // 频道从无未读变为有未读的参与者，未读频道数 +1；需在参与者未读数递增之后执行
+  @Modifying
+  @Query(
+    value = "INSERT INTO message_unread_counters (user_id, message_unread, channel_unread) " +
+      "SELECT p.user_id, 0, 1 FROM message_participants p " +
+      "WHERE p.conversation_id = :conversationId AND p.user_id <> :senderId " +
+      "AND p.unread_count = 1 " +
+      "ON DUPLICATE KEY UPDATE channel_unread = channel_unread + 1",
+    nativeQuery = true
+  )
+  int incrementChannelUnread(
+    @Param("conversationId") Long conversationId,
+    @Param("senderId") Long senderId
+  );
+
+  @Modifying
+  @Query(
+    "UPDATE MessageUnreadCounter c " +
+      "SET c.messageUnread = CASE WHEN c.messageUnread > :count THEN c.messageUnread - :count ELSE 0 END " +
+      "WHERE c.userId = :userId"
+  )
+  int decrementMessageUnread(@Param("userId") Long userId, @Param("count") long count);
+
+  @Modifying
+  @Query(
+    "UPDATE MessageUnreadCounter c " +
+      "SET c.channelUnread = CASE WHEN c.channelUnread > 0 THEN c.channelUnread - 1 ELSE 0 END " +
+      "WHERE c.userId = :userId"
+  )
+  int decrementChannelUnread(@Param("userId") Long userId);
+}
@@ -6,10 +6,15 @@ import com.openisle.model.NotificationType;
 import com.openisle.model.Post;
 import com.openisle.model.ReactionType;
 import com.openisle.model.User;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /** Repository for Notification entities. */
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -47,6 +52,22 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
   void deleteByTypeAndFromUserAndPost(NotificationType type, User fromUser, Post post);
 
+  /** Move an existing notification back to the top of the list and mark it unread. */
+  @Modifying
+  @Transactional
+  @Query(
+    value = "UPDATE notifications SET created_at = :now, is_read = false " +
+    "WHERE type = :type AND user_id = :userId AND from_user_id = :fromUserId AND post_id = :postId",
+    nativeQuery = true
+  )
+  int refreshByTypeAndUserAndFromUserAndPost(
+    @Param("type") String type,
+    @Param("userId") Long userId,
+    @Param("fromUserId") Long fromUserId,
+    @Param("postId") Long postId,
+    @Param("now") LocalDateTime now
+  );
+
   void deleteByTypeAndFromUserAndPostAndReactionType(
     NotificationType type,
     User fromUser,
@@ -0,0 +1,28 @@
+package com.openisle.repository;
+
+import com.openisle.model.PostStatus;
+import com.openisle.model.PostType;
+import com.openisle.model.PostVisibleScopeType;
+import java.time.LocalDateTime;
+
+/**
+ * Columns needed by post listings. Selected with a constructor expression so the
+ * LONGTEXT content and the eager author/category/tags associations are never loaded.
+ */
+public record PostListRow(
+  Long id,
+  String title,
+  String excerpt,
+  LocalDateTime createdAt,
+  Long authorId,
+  Long categoryId,
+  long views,
+  long commentCount,
+  PostStatus status,
+  LocalDateTime pinnedAt,
+  LocalDateTime lastReplyAt,
+  Boolean rssExcluded,
+  boolean closed,
+  PostVisibleScopeType visibleScope,
+  PostType type
+) {}
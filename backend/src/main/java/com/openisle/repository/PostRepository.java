@@ -1,26 +1,21 @@
 package com.openisle.repository;
 
-import com.openisle.model.Category;
 import com.openisle.model.Post;
 import com.openisle.model.PostStatus;
-import com.openisle.model.Tag;
 import com.openisle.model.User;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
   List<Post> findByStatus(PostStatus status);
   List<Post> findByStatus(PostStatus status, Pageable pageable);
-  List<Post> findByStatusOrderByCreatedAtDesc(PostStatus status);
-  List<Post> findByStatusOrderByCreatedAtDesc(PostStatus status, Pageable pageable);
-  List<Post> findByStatusOrderByViewsDesc(PostStatus status);
-  List<Post> findByStatusOrderByViewsDesc(PostStatus status, Pageable pageable);
-  List<Post> findByStatusOrderByPinnedAtDescViewsDesc(PostStatus status, Pageable pageable);
-  List<Post> findByStatusOrderByPinnedAtDescLastReplyAtDesc(PostStatus status, Pageable pageable);
   List<Post> findByStatusAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
     PostStatus status,
     LocalDateTime createdAt
@@ -30,258 +25,58 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     PostStatus status,
     Pageable pageable
   );
-  List<Post> findByCategoryInAndStatus(List<Category> categories, PostStatus status);
-  List<Post> findByCategoryInAndStatus(
-    List<Category> categories,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findByCategoryInAndStatusOrderByCreatedAtDesc(
-    List<Category> categories,
-    PostStatus status
-  );
-  List<Post> findByCategoryInAndStatusOrderByCreatedAtDesc(
-    List<Category> categories,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findByCategoryInAndStatusOrderByPinnedAtDescViewsDesc(
-    List<Category> categories,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findByCategoryInAndStatusOrderByPinnedAtDescLastReplyAtDesc(
-    List<Category> categories,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findDistinctByTagsInAndStatus(List<Tag> tags, PostStatus status);
-  List<Post> findDistinctByTagsInAndStatus(List<Tag> tags, PostStatus status, Pageable pageable);
-  List<Post> findDistinctByTagsInAndStatusOrderByCreatedAtDesc(List<Tag> tags, PostStatus status);
-  List<Post> findDistinctByTagsInAndStatusOrderByCreatedAtDesc(
-    List<Tag> tags,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findDistinctByCategoryInAndTagsInAndStatus(
-    List<Category> categories,
-    List<Tag> tags,
-    PostStatus status
-  );
-  List<Post> findDistinctByCategoryInAndTagsInAndStatus(
-    List<Category> categories,
-    List<Tag> tags,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findDistinctByCategoryInAndTagsInAndStatusOrderByCreatedAtDesc(
-    List<Category> categories,
-    List<Tag> tags,
-    PostStatus status
-  );
-  List<Post> findDistinctByCategoryInAndTagsInAndStatusOrderByCreatedAtDesc(
-    List<Category> categories,
-    List<Tag> tags,
-    PostStatus status,
-    Pageable pageable
-  );
-
-  // Queries requiring all provided tags to be present
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount"
-  )
-  List<Post> findByAllTags(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount
-  );
-
-  @Query(
-    value = "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount"
-  )
-  List<Post> findByAllTags(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.createdAt DESC"
-  )
-  List<Post> findByAllTagsOrderByCreatedAtDesc(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount
-  );
-
-  @Query(
-    value = "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.createdAt DESC"
-  )
-  List<Post> findByAllTagsOrderByCreatedAtDesc(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
 
+  /**
+   * 数据库全文检索（ngram FULLTEXT 索引），标题命中的权重更高
+   */
   @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.views DESC"
+    value = "SELECT p.id FROM posts p WHERE p.status = :status " +
+      "AND MATCH(p.title, p.content) AGAINST (:query IN BOOLEAN MODE) " +
+      "ORDER BY MATCH(p.title) AGAINST (:query IN BOOLEAN MODE) * 3 " +
+      "+ MATCH(p.title, p.content) AGAINST (:query IN BOOLEAN MODE) DESC, p.id DESC " +
+      "LIMIT :limit",
+    nativeQuery = true
   )
-  List<Post> findByAllTagsOrderByViewsDesc(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount
+  List<Long> searchIdsByFulltext(
+    @Param("query") String query,
+    @Param("status") String status,
+    @Param("limit") int limit
   );
 
   @Query(
-    value = "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.views DESC"
+    value = "SELECT p.id FROM posts p WHERE p.status = :status " +
+      "AND MATCH(p.title) AGAINST (:query IN BOOLEAN MODE) " +
+      "ORDER BY MATCH(p.title) AGAINST (:query IN BOOLEAN MODE) DESC, p.id DESC LIMIT :limit",
+    nativeQuery = true
   )
-  List<Post> findByAllTagsOrderByViewsDesc(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
+  List<Long> searchIdsByTitleFulltext(
+    @Param("query") String query,
+    @Param("status") String status,
+    @Param("limit") int limit
   );
 
+  // 不支持全文索引的数据库使用的 LIKE 检索，只用于兜底，调用方必须限制条数
   @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.pinnedAt DESC, p.views DESC"
+    "SELECT p FROM Post p WHERE p.status = :status AND (" +
+      "LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+      "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')))"
   )
-  List<Post> findByAllTagsOrderByPinnedAtDescViewsDesc(
-    @Param("tags") List<Tag> tags,
+  List<Post> searchByKeyword(
+    @Param("keyword") String keyword,
     @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
     Pageable pageable
   );
 
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.pinnedAt DESC, p.lastReplyAt DESC"
-  )
-  List<Post> findByAllTagsOrderByPinnedAtDescLastReplyAtDesc(
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount"
-  )
-  List<Post> findByCategoriesAndAllTags(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount
-  );
-
-  @Query(
-    value = "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount"
-  )
-  List<Post> findByCategoriesAndAllTags(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.views DESC"
-  )
-  List<Post> findByCategoriesAndAllTagsOrderByViewsDesc(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount
-  );
-
-  @Query(
-    value = "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.views DESC"
-  )
-  List<Post> findByCategoriesAndAllTagsOrderByViewsDesc(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.pinnedAt DESC, p.views DESC"
-  )
-  List<Post> findByCategoriesAndAllTagsOrderByPinnedAtDescViewsDesc(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.pinnedAt DESC, p.lastReplyAt DESC"
-  )
-  List<Post> findByCategoriesAndAllTagsOrderByPinnedAtDescLastReplyAtDesc(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  @Query(
-    "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.createdAt DESC"
-  )
-  List<Post> findByCategoriesAndAllTagsOrderByCreatedAtDesc(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount
-  );
-
-  @Query(
-    value = "SELECT p FROM Post p JOIN p.tags t WHERE p.category IN :categories AND t IN :tags AND p.status = :status GROUP BY p.id HAVING COUNT(DISTINCT t.id) = :tagCount ORDER BY p.createdAt DESC"
-  )
-  List<Post> findByCategoriesAndAllTagsOrderByCreatedAtDesc(
-    @Param("categories") List<Category> categories,
-    @Param("tags") List<Tag> tags,
-    @Param("status") PostStatus status,
-    @Param("tagCount") long tagCount,
-    Pageable pageable
-  );
-
-  List<Post> findByCategoryInAndStatusOrderByViewsDesc(
-    List<Category> categories,
-    PostStatus status
-  );
-  List<Post> findByCategoryInAndStatusOrderByViewsDesc(
-    List<Category> categories,
+  List<Post> findByContentContainingIgnoreCaseAndStatus(
+    String keyword,
     PostStatus status,
     Pageable pageable
   );
-  List<Post> findDistinctByTagsInAndStatusOrderByViewsDesc(List<Tag> tags, PostStatus status);
-  List<Post> findDistinctByTagsInAndStatusOrderByViewsDesc(
-    List<Tag> tags,
-    PostStatus status,
-    Pageable pageable
-  );
-  List<Post> findDistinctByCategoryInAndTagsInAndStatusOrderByViewsDesc(
-    List<Category> categories,
-    List<Tag> tags,
-    PostStatus status
-  );
-  List<Post> findDistinctByCategoryInAndTagsInAndStatusOrderByViewsDesc(
-    List<Category> categories,
-    List<Tag> tags,
+  List<Post> findByTitleContainingIgnoreCaseAndStatus(
+    String keyword,
     PostStatus status,
     Pageable pageable
   );
-  List<Post> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
-    String titleKeyword,
-    String contentKeyword,
-    PostStatus status
-  );
-  List<Post> findByContentContainingIgnoreCaseAndStatus(String keyword, PostStatus status);
-  List<Post> findByTitleContainingIgnoreCaseAndStatus(String keyword, PostStatus status);
 
   @Query(
     "SELECT MAX(p.createdAt) FROM Post p WHERE p.author.username = :username AND p.status = com.openisle.model.PostStatus.PUBLISHED"
@@ -319,6 +114,37 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
   long countByAuthor_Id(Long userId);
 
+  // 评论数或最后回复时间与 comments 表不一致的文章
+  // 最后回复时间与发帖或评论时间分别取值，相差一秒以内视为一致
+  @Query(
+    value = "SELECT p.id FROM posts p LEFT JOIN (" +
+      "SELECT post_id, COUNT(*) AS cnt, MAX(created_at) AS last_at FROM comments" +
+      " WHERE deleted_at IS NULL GROUP BY post_id) c ON c.post_id = p.id" +
+      " WHERE p.comment_count <> COALESCE(c.cnt, 0) OR p.last_reply_at IS NULL" +
+      " OR p.last_reply_at < COALESCE(c.last_at, p.created_at) - INTERVAL '1' SECOND" +
+      " OR p.last_reply_at > COALESCE(c.last_at, p.created_at) + INTERVAL '1' SECOND",
+    nativeQuery = true
+  )
+  List<Long> findIdsWithStaleCommentStats();
+
+  // 根据 comments 表重新计算评论数和最后回复时间（没有评论时取发帖时间）
+  @Modifying
+  @Transactional
+  @Query(
+    value = "UPDATE posts p SET" +
+      " p.comment_count = (SELECT COUNT(*) FROM comments c" +
+      " WHERE c.post_id = p.id AND c.deleted_at IS NULL)," +
+      " p.last_reply_at = COALESCE((SELECT MAX(c.created_at) FROM comments c" +
+      " WHERE c.post_id = p.id AND c.deleted_at IS NULL), p.created_at)" +
+      " WHERE p.id IN :ids",
+    nativeQuery = true
+  )
+  int recalculateCommentStats(@Param("ids") Collection<Long> ids);
+
+  // 一次查出一页文章的全部标签，返回 [postId, Tag]
+  @Query("SELECT p.id, t FROM Post p JOIN p.tags t WHERE p.id IN :postIds")
+  List<Object[]> findTagsByPostIds(@Param("postIds") Collection<Long> postIds);
+
   @Query(
     "SELECT FUNCTION('date', p.createdAt) AS d, COUNT(p) AS c FROM Post p " +
       "WHERE p.createdAt >= :start AND p.createdAt < :end GROUP BY d ORDER BY d"
@@ -328,8 +154,27 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     @Param("end") LocalDateTime end
   );
 
+  @Modifying
+  @Transactional
+  @Query("UPDATE Post p SET p.views = p.views + :delta WHERE p.id = :id")
+  int incrementViews(@Param("id") Long id, @Param("delta") long delta);
+
+  // 摘要为空的文章，按 id 递增翻页，返回 [id, content]
+  @Query(
+    "SELECT p.id, p.content FROM Post p WHERE p.excerpt IS NULL AND p.id > :afterId ORDER BY p.id"
+  )
+  List<Object[]> findContentWithoutExcerpt(@Param("afterId") Long afterId, Pageable pageable);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE Post p SET p.excerpt = :excerpt WHERE p.id = :id")
+  int updateExcerpt(@Param("id") Long id, @Param("excerpt") String excerpt);
+
   List<Post> findByStatusAndRssExcludedFalseOrderByCreatedAtDesc(
     PostStatus status,
     Pageable pageable
   );
+
+  // 按 id 递增翻页，用于索引重建时从断点继续
+  List<Post> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,28 @@
+package com.openisle.repository;
+
+import com.openisle.model.Category;
+import com.openisle.model.PostSort;
+import com.openisle.model.PostStatus;
+import com.openisle.model.Tag;
+import com.openisle.util.PostCursor;
+import java.util.List;
+
+/** Custom queries for {@link PostRepository} that cannot be expressed as derived queries. */
+public interface PostRepositoryCustom {
+  /**
+   * Listing rows ordered by pinnedAt, the given sort key and id (all descending).
+   * Rows strictly after {@code cursor} are returned; a {@code null} cursor starts from the top.
+   * {@code offset} and {@code limit} may be {@code null} for an unpaged result.
+   * Empty category or tag lists mean no filter; tags must all be present on a post.
+   */
+  List<PostListRow> findListRows(
+    PostStatus status,
+    PostSort sort,
+    boolean featuredOnly,
+    List<Category> categories,
+    List<Tag> tags,
+    PostCursor cursor,
+    Integer offset,
+    Integer limit
+  );
+}
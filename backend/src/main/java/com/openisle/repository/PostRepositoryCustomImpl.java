@@ -0,0 +1,96 @@
+package com.openisle.repository;
+
+import com.openisle.model.Category;
+import com.openisle.model.PostSort;
+import com.openisle.model.PostStatus;
+import com.openisle.model.Tag;
+import com.openisle.util.PostCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<PostListRow> findListRows(
+    PostStatus status,
+    PostSort sort,
+    boolean featuredOnly,
+    List<Category> categories,
+    List<Tag> tags,
+    PostCursor cursor,
+    Integer offset,
+    Integer limit
+  ) {
+    String key = sortColumn(sort);
+    StringBuilder jpql = new StringBuilder(
+      "SELECT new com.openisle.repository.PostListRow(p.id, p.title, p.excerpt, p.createdAt," +
+        " p.author.id, p.category.id, p.views, p.commentCount, p.status, p.pinnedAt," +
+        " p.lastReplyAt, p.rssExcluded, p.closed, p.visibleScope, p.type)" +
+        " FROM Post p WHERE p.status = :status"
+    );
+    if (featuredOnly) {
+      jpql.append(" AND p.rssExcluded = false");
+    }
+    if (!categories.isEmpty()) {
+      jpql.append(" AND p.category IN :categories");
+    }
+    if (!tags.isEmpty()) {
+      jpql.append(
+        " AND p.id IN (SELECT tp.id FROM Post tp JOIN tp.tags t WHERE t IN :tags" +
+          " GROUP BY tp.id HAVING COUNT(DISTINCT t.id) = :tagCount)"
+      );
+    }
+    if (cursor != null) {
+      String afterKey =
+        "(" + key + " < :sortKey OR (" + key + " = :sortKey AND p.id < :lastId))";
+      if (cursor.pinnedAt() != null) {
+        // 仍处于置顶区：之后是更早置顶的、未置顶的，或同一置顶时间下排在后面的
+        jpql.append(
+          " AND (p.pinnedAt < :pinnedAt OR p.pinnedAt IS NULL OR (p.pinnedAt = :pinnedAt AND " +
+            afterKey +
+            "))"
+        );
+      } else {
+        jpql.append(" AND p.pinnedAt IS NULL AND ").append(afterKey);
+      }
+    }
+    jpql.append(" ORDER BY p.pinnedAt DESC NULLS LAST, ").append(key).append(" DESC, p.id DESC");
+
+    TypedQuery<PostListRow> query = entityManager.createQuery(jpql.toString(), PostListRow.class);
+    query.setParameter("status", status);
+    if (!categories.isEmpty()) {
+      query.setParameter("categories", categories);
+    }
+    if (!tags.isEmpty()) {
+      query.setParameter("tags", tags);
+      query.setParameter("tagCount", (long) tags.size());
+    }
+    if (cursor != null) {
+      query.setParameter("sortKey", cursor.sortKey());
+      query.setParameter("lastId", cursor.id());
+      if (cursor.pinnedAt() != null) {
+        query.setParameter("pinnedAt", cursor.pinnedAt());
+      }
+    }
+    if (offset != null) {
+      query.setFirstResult(offset);
+    }
+    if (limit != null) {
+      query.setMaxResults(limit);
+    }
+    return query.getResultList();
+  }
+
+  private static String sortColumn(PostSort sort) {
+    return switch (sort) {
+      case VIEWS -> "p.views";
+      case LAST_REPLY_AT -> "p.lastReplyAt";
+      case CREATED_AT -> "p.createdAt";
+    };
+  }
+}
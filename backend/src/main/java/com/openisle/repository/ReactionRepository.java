@@ -5,6 +5,7 @@ import com.openisle.model.Message;
 import com.openisle.model.Post;
 import com.openisle.model.Reaction;
 import com.openisle.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +33,9 @@ public interface ReactionRepository extends JpaRepository<Reaction, Long> {
   List<Reaction> findByComment(Comment comment);
   List<Reaction> findByMessage(Message message);
 
+  @Query("SELECT r FROM Reaction r JOIN FETCH r.user WHERE r.message.id IN :messageIds")
+  List<Reaction> findWithUsersByMessageIdIn(@Param("messageIds") Collection<Long> messageIds);
+
   @Query(
     "SELECT r.post.id FROM Reaction r WHERE r.post IS NOT NULL AND r.post.author.username = :username AND r.type = com.openisle.model.ReactionType.LIKE GROUP BY r.post.id ORDER BY COUNT(r.id) DESC"
   )
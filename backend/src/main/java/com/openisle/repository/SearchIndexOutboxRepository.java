@@ -0,0 +1,56 @@
+package com.openisle.repository;
+
+import com.openisle.model.SearchIndexOutboxEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchIndexOutboxRepository extends JpaRepository<SearchIndexOutboxEntry, Long> {
+  /**
+   * 按写入顺序取出到期的变更并加锁，已被其他节点锁定的行直接跳过
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+    "SELECT e FROM SearchIndexOutboxEntry e " +
+    "WHERE e.nextAttemptAt <= :now AND e.attempts < :maxAttempts ORDER BY e.id ASC"
+  )
+  List<SearchIndexOutboxEntry> findDue(
+    @Param("now") LocalDateTime now,
+    @Param("maxAttempts") int maxAttempts,
+    Pageable pageable
+  );
+
+  /**
+   * 删除同一文档更早的变更，避免它们重试时覆盖较新的写入
+   */
+  @Modifying
+  @Query(
+    "DELETE FROM SearchIndexOutboxEntry e " +
+    "WHERE e.indexName = :indexName AND e.entityId = :entityId AND e.id < :id"
+  )
+  int deleteSuperseded(
+    @Param("indexName") String indexName,
+    @Param("entityId") Long entityId,
+    @Param("id") Long id
+  );
+
+  long countByAttemptsLessThan(int maxAttempts);
+
+  long countByAttemptsGreaterThanEqual(int maxAttempts);
+
+  @Query(
+    "SELECT MIN(e.createdAt) FROM SearchIndexOutboxEntry e WHERE e.attempts < :maxAttempts"
+  )
+  LocalDateTime findOldestCreatedAt(@Param("maxAttempts") int maxAttempts);
+}
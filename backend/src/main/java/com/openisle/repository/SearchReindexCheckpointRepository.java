@@ -0,0 +1,21 @@
+package com.openisle.repository;
+
+import com.openisle.model.SearchReindexCheckpoint;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchReindexCheckpointRepository
+  extends JpaRepository<SearchReindexCheckpoint, String> {
+  /**
+   * 锁住检查点行，用于领取和续期重建锁
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT c FROM SearchReindexCheckpoint c WHERE c.indexAlias = :alias")
+  Optional<SearchReindexCheckpoint> findForUpdate(@Param("alias") String alias);
+}
@@ -6,15 +6,29 @@ import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface TagRepository extends JpaRepository<Tag, Long> {
   List<Tag> findByNameContainingIgnoreCase(String keyword);
   List<Tag> findByApproved(boolean approved);
   List<Tag> findByApprovedTrue();
   List<Tag> findByNameContainingIgnoreCaseAndApprovedTrue(String keyword);
+  List<Tag> findByNameContainingIgnoreCaseAndApprovedTrue(String keyword, Pageable pageable);
+
+  @Query(
+    value = "SELECT t.id FROM tags t WHERE t.approved = TRUE " +
+      "AND MATCH(t.name) AGAINST (:query IN BOOLEAN MODE) " +
+      "ORDER BY MATCH(t.name) AGAINST (:query IN BOOLEAN MODE) DESC, t.id DESC LIMIT :limit",
+    nativeQuery = true
+  )
+  List<Long> searchIdsByFulltext(@Param("query") String query, @Param("limit") int limit);
 
   List<Tag> findByCreatorOrderByCreatedAtDesc(User creator, Pageable pageable);
   List<Tag> findByCreator(User creator);
 
   Optional<Tag> findByName(String name);
+
+  // 按 id 递增翻页，用于索引重建时从断点继续
+  List<Tag> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -2,7 +2,9 @@ package com.openisle.repository;
 
 import com.openisle.model.User;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,7 +12,17 @@ import org.springframework.data.repository.query.Param;
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByUsername(String username);
   Optional<User> findByEmail(String email);
-  java.util.List<User> findByUsernameContainingIgnoreCase(String keyword);
+  java.util.List<User> findByUsernameContainingIgnoreCase(String keyword, Pageable pageable);
+
+  @Query(
+    value = "SELECT u.id FROM users u WHERE MATCH(u.username) AGAINST (:query IN BOOLEAN MODE) " +
+      "ORDER BY MATCH(u.username) AGAINST (:query IN BOOLEAN MODE) DESC, u.id DESC LIMIT :limit",
+    nativeQuery = true
+  )
+  java.util.List<Long> searchIdsByFulltext(
+    @Param("query") String query,
+    @Param("limit") int limit
+  );
   java.util.List<User> findByRole(com.openisle.model.Role role);
   long countByExperienceGreaterThanEqual(int experience);
   long countByCreatedAtBefore(LocalDateTime createdAt);
@@ -23,4 +35,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Param("start") LocalDateTime start,
     @Param("end") LocalDateTime end
   );
+
+  // 按 id 递增翻页，用于索引重建时从断点继续
+  List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
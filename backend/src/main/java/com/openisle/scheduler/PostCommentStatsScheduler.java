@@ -0,0 +1,31 @@
+package com.openisle.scheduler;
+
+import com.openisle.service.PostCommentStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 执行计划
+ * 每天检查并修复文章的评论数和最后回复时间
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostCommentStatsScheduler {
+
+  private final PostCommentStatsService postCommentStatsService;
+
+  @Scheduled(cron = "${app.post.comment-stats-check-cron:0 30 4 * * ?}")
+  public void repairCommentStats() {
+    try {
+      int repaired = postCommentStatsService.repairStaleStats();
+      if (repaired > 0) {
+        log.info("Repaired comment stats for {} posts", repaired);
+      }
+    } catch (Exception e) {
+      log.warn("Failed to check post comment stats: {}", e.getMessage());
+    }
+  }
+}
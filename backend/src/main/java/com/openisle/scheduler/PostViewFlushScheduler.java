@@ -0,0 +1,45 @@
+package com.openisle.scheduler;
+
+import com.openisle.service.PostViewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 执行计划
+ * 定时将 Redis 中累计的文章浏览量批量落库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostViewFlushScheduler {
+
+  private final PostViewService postViewService;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void requeueOrphanedFlushes() {
+    try {
+      postViewService.requeueOrphanedFlushes();
+    } catch (Exception e) {
+      log.warn("Failed to requeue orphaned post view flushes: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(
+    fixedDelayString = "${app.post.views-flush-interval-ms:30000}",
+    initialDelayString = "${app.post.views-flush-interval-ms:30000}"
+  )
+  public void flushViews() {
+    try {
+      int flushed = postViewService.flushPendingViews();
+      if (flushed > 0) {
+        log.debug("Flushed views for {} posts", flushed);
+      }
+    } catch (Exception e) {
+      log.warn("Failed to flush post views: {}", e.getMessage());
+    }
+  }
+}
@@ -67,7 +67,7 @@ public class OpenSearchConfig {
   @Bean
   @ConditionalOnBean(OpenSearchClient.class)
   public SearchIndexer openSearchIndexer(OpenSearchClient client, OpenSearchProperties properties) {
-    return new OpenSearchIndexer(client);
+    return new OpenSearchIndexer(client, properties.getBulk());
   }
 
   @Bean
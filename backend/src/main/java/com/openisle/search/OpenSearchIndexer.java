@@ -1,38 +1,123 @@
 package com.openisle.search;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
-import lombok.RequiredArgsConstructor;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearch.client.opensearch.OpenSearchClient;
-import org.opensearch.client.opensearch.core.DeleteRequest;
-import org.opensearch.client.opensearch.core.IndexRequest;
-import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.VersionType;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+/**
+ * 批量写入 OpenSearch。
+ * 写入和删除先进入缓冲区，同一文档只保留最后一次操作；缓冲区达到条数或字节上限、
+ * 或定时到期时合并为一个 bulk 请求，最多 concurrentRequests 个请求同时在途，
+ * 全部在途时调用方阻塞等待。返回 429/5xx 的单条操作按指数退避重试。
+ * 带外部版本号的操作遇到版本冲突说明索引中已有更新的数据，视为成功。
+ * 同一文档同时只有一个操作在途，较新的操作留在缓冲区，等前一个请求（含重试）结束后再发送，
+ * 避免并发请求乱序到达时旧数据覆盖新数据。
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class OpenSearchIndexer implements SearchIndexer {
 
+  private static final Set<Integer> RETRYABLE_STATUS = Set.of(429, 502, 503, 504);
+  private static final int VERSION_CONFLICT = 409;
+  // 每条操作在请求体中的固定开销：action 行、字段名和数值字段
+  private static final int OPERATION_OVERHEAD_BYTES = 200;
+
   private final OpenSearchClient client;
+  private final OpenSearchProperties.Bulk settings;
+  private final int concurrency;
+  private final Semaphore inFlight;
+  private final Object lock = new Object();
+
+  // index/id -> 最新的写入操作
+  private Map<String, PendingOperation> buffer = new LinkedHashMap<>();
+  private long bufferedBytes;
+  // 在途请求中的 index/id
+  private final Set<String> inFlightKeys = new HashSet<>();
+
+  private ExecutorService senders;
+  private ScheduledExecutorService flusher;
+
+  public OpenSearchIndexer(OpenSearchClient client, OpenSearchProperties.Bulk settings) {
+    this.client = client;
+    this.settings = settings;
+    this.concurrency = Math.max(1, settings.getConcurrentRequests());
+    this.inFlight = new Semaphore(concurrency);
+  }
+
+  @PostConstruct
+  public void start() {
+    senders = Executors.newFixedThreadPool(
+      concurrency,
+      new CustomizableThreadFactory("search-bulk-")
+    );
+    flusher = Executors.newSingleThreadScheduledExecutor(
+      new CustomizableThreadFactory("search-bulk-flush-")
+    );
+    long interval = Math.max(10, settings.getFlushIntervalMs());
+    flusher.scheduleWithFixedDelay(this::flushBuffer, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+    flush();
+    if (senders != null) {
+      senders.shutdown();
+    }
+  }
 
   @Override
   public void indexDocument(String index, SearchDocument document) {
     if (document == null || document.entityId() == null) {
       return;
     }
-    try {
-      IndexRequest<SearchDocument> request = IndexRequest.of(builder ->
-        builder.index(index).id(document.entityId().toString()).document(document)
-      );
-      IndexResponse response = client.index(request);
-      log.info(
-        "Indexed document {} into {} with result {}",
-        document.entityId(),
+    add(
+      new PendingOperation(
         index,
-        response.result()
-      );
-    } catch (IOException e) {
-      log.warn("Failed to index document {} into {}", document.entityId(), index, e);
+        document.entityId().toString(),
+        document,
+        estimateBytes(document),
+        null
+      )
+    );
+  }
+
+  @Override
+  public void indexDocument(String index, SearchDocument document, long version) {
+    if (document == null || document.entityId() == null) {
+      return;
     }
+    add(
+      new PendingOperation(
+        index,
+        document.entityId().toString(),
+        document,
+        estimateBytes(document),
+        version
+      )
+    );
   }
 
   @Override
@@ -40,10 +125,307 @@ public class OpenSearchIndexer implements SearchIndexer {
     if (id == null) {
       return;
     }
+    add(new PendingOperation(index, id.toString(), null, OPERATION_OVERHEAD_BYTES, null));
+  }
+
+  @Override
+  public void flush() {
+    while (true) {
+      flushBuffer();
+      // 拿到全部许可即说明没有在途请求
+      inFlight.acquireUninterruptibly(concurrency);
+      inFlight.release(concurrency);
+      // 等待前一个请求而留在缓冲区的操作在下一轮发送
+      synchronized (lock) {
+        if (buffer.isEmpty()) {
+          return;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void beginBulkLoad(String index) {
+    putRefreshInterval(index, "-1");
+  }
+
+  @Override
+  public void endBulkLoad(String index) {
+    flush();
+    putRefreshInterval(index, settings.getRefreshInterval());
+    try {
+      client.indices().refresh(builder -> builder.index(index));
+    } catch (IOException | OpenSearchException e) {
+      log.warn("Failed to refresh index {}", index, e);
+    }
+  }
+
+  private void putRefreshInterval(String index, String interval) {
     try {
-      client.delete(DeleteRequest.of(builder -> builder.index(index).id(id.toString())));
-    } catch (IOException e) {
-      log.warn("Failed to delete document {} from {}", id, index, e);
+      client
+        .indices()
+        .putSettings(builder ->
+          builder.index(index).settings(s -> s.refreshInterval(t -> t.time(interval)))
+        );
+    } catch (IOException | OpenSearchException e) {
+      log.warn("Failed to set refresh_interval={} on index {}", interval, index, e);
+    }
+  }
+
+  private void add(PendingOperation operation) {
+    List<PendingOperation> batch = null;
+    synchronized (lock) {
+      PendingOperation previous = buffer.put(operation.key(), operation);
+      bufferedBytes += operation.bytes() - (previous != null ? previous.bytes() : 0);
+      if (buffer.size() >= settings.getActions() || bufferedBytes >= settings.getSizeBytes()) {
+        batch = drain();
+      }
+    }
+    if (batch != null) {
+      submit(batch);
+    }
+  }
+
+  private void flushBuffer() {
+    List<PendingOperation> batch;
+    synchronized (lock) {
+      batch = drain();
+    }
+    if (batch != null) {
+      submit(batch);
+    }
+  }
+
+  /**
+   * 取出缓冲区中可以发送的操作，文档已有操作在途时留在缓冲区
+   */
+  private List<PendingOperation> drain() {
+    if (buffer.isEmpty()) {
+      return null;
+    }
+    List<PendingOperation> batch = new ArrayList<>(buffer.size());
+    Map<String, PendingOperation> held = new LinkedHashMap<>();
+    long heldBytes = 0;
+    for (PendingOperation operation : buffer.values()) {
+      if (inFlightKeys.contains(operation.key())) {
+        held.put(operation.key(), operation);
+        heldBytes += operation.bytes();
+      } else {
+        batch.add(operation);
+        inFlightKeys.add(operation.key());
+      }
+    }
+    buffer = held;
+    bufferedBytes = heldBytes;
+    return batch.isEmpty() ? null : batch;
+  }
+
+  private void release(List<PendingOperation> batch) {
+    synchronized (lock) {
+      for (PendingOperation operation : batch) {
+        inFlightKeys.remove(operation.key());
+      }
+    }
+  }
+
+  private void submit(List<PendingOperation> batch) {
+    inFlight.acquireUninterruptibly();
+    try {
+      senders.execute(() -> {
+        try {
+          send(batch);
+        } catch (Exception e) {
+          log.error("Unexpected error while sending {} search operations", batch.size(), e);
+        } finally {
+          release(batch);
+          inFlight.release();
+        }
+      });
+    } catch (RuntimeException e) {
+      release(batch);
+      inFlight.release();
+      log.error("Failed to submit {} search operations", batch.size(), e);
+    }
+  }
+
+  private void send(List<PendingOperation> batch) {
+    List<PendingOperation> pending = batch;
+    for (int attempt = 1; ; attempt++) {
+      pending = execute(pending);
+      if (pending.isEmpty()) {
+        return;
+      }
+      if (attempt > settings.getMaxRetries()) {
+        log.error("Giving up on {} search operations after {} attempts", pending.size(), attempt);
+        return;
+      }
+      try {
+        Thread.sleep(settings.getRetryBackoffMs() << (attempt - 1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while retrying {} search operations", pending.size());
+        return;
+      }
+    }
+  }
+
+  @Override
+  public List<SearchOperation> write(List<SearchOperation> operations) {
+    List<PendingOperation> batch = new ArrayList<>(operations.size());
+    List<SearchOperation> accepted = new ArrayList<>(operations.size());
+    for (SearchOperation operation : operations) {
+      if (operation.id() == null) {
+        continue;
+      }
+      SearchDocument document = operation.document();
+      long bytes = document == null ? OPERATION_OVERHEAD_BYTES : estimateBytes(document);
+      batch.add(
+        new PendingOperation(
+          operation.index(),
+          operation.id().toString(),
+          document,
+          bytes,
+          operation.version()
+        )
+      );
+      accepted.add(operation);
+    }
+    if (batch.isEmpty()) {
+      return List.of();
+    }
+    return bulk(batch, false).stream().map(accepted::get).toList();
+  }
+
+  /**
+   * 执行一次 bulk 请求
+   *
+   * @return 需要重试的操作；已有更新版本在缓冲区中的操作不再重试
+   */
+  List<PendingOperation> execute(List<PendingOperation> batch) {
+    return withoutSuperseded(bulk(batch, true).stream().map(batch::get).toList());
+  }
+
+  /**
+   * @param retryableOnly 为 true 时只返回 429/5xx 的失败项，其余失败项记录日志后丢弃
+   * @return 失败操作在 batch 中的下标
+   */
+  private List<Integer> bulk(List<PendingOperation> batch, boolean retryableOnly) {
+    List<BulkOperation> operations = batch
+      .stream()
+      .map(PendingOperation::toBulkOperation)
+      .toList();
+    BulkResponse response;
+    try {
+      response = client.bulk(BulkRequest.of(builder -> builder.operations(operations)));
+    } catch (IOException | OpenSearchException e) {
+      log.warn("Bulk request with {} operations failed", batch.size(), e);
+      return IntStream.range(0, batch.size()).boxed().toList();
+    }
+    if (!response.errors()) {
+      log.debug("Bulk request with {} operations took {} ms", batch.size(), response.took());
+      return List.of();
+    }
+
+    List<Integer> failed = new ArrayList<>();
+    List<BulkResponseItem> items = response.items();
+    for (int i = 0; i < items.size() && i < batch.size(); i++) {
+      BulkResponseItem item = items.get(i);
+      if (item.error() == null) {
+        continue;
+      }
+      if (item.status() == VERSION_CONFLICT && batch.get(i).version() != null) {
+        log.debug("Skipped stale write of {} in {}", batch.get(i).id(), batch.get(i).index());
+        continue;
+      }
+      boolean retryable = RETRYABLE_STATUS.contains(item.status());
+      if (retryable || !retryableOnly) {
+        failed.add(i);
+      }
+      if (!retryable) {
+        PendingOperation operation = batch.get(i);
+        log.warn(
+          "Failed to write document {} in {}: {} {}",
+          operation.id(),
+          operation.index(),
+          item.status(),
+          item.error().reason()
+        );
+      }
+    }
+    return failed;
+  }
+
+  private List<PendingOperation> withoutSuperseded(List<PendingOperation> operations) {
+    synchronized (lock) {
+      return operations
+        .stream()
+        .filter(op -> !buffer.containsKey(op.key()))
+        .toList();
+    }
+  }
+
+  static long estimateBytes(SearchDocument document) {
+    long bytes = OPERATION_OVERHEAD_BYTES;
+    bytes += utf8Length(document.title());
+    bytes += utf8Length(document.content());
+    bytes += utf8Length(document.author());
+    bytes += utf8Length(document.category());
+    if (document.tags() != null) {
+      for (String tag : document.tags()) {
+        bytes += utf8Length(tag) + 3;
+      }
+    }
+    return bytes;
+  }
+
+  private static int utf8Length(String value) {
+    if (value == null) {
+      return 0;
+    }
+    int length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        length += 1;
+      } else if (c < 0x800 || Character.isSurrogate(c)) {
+        // 代理对两个 char 共 4 字节
+        length += 2;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * @param version 外部版本号，为 null 时使用 OpenSearch 的内部版本
+   */
+  record PendingOperation(
+    String index,
+    String id,
+    SearchDocument document,
+    long bytes,
+    Long version
+  ) {
+    String key() {
+      return index + "/" + id;
+    }
+
+    BulkOperation toBulkOperation() {
+      if (document == null) {
+        return BulkOperation.of(b ->
+          b.delete(d -> {
+            d.index(index).id(id);
+            return version == null ? d : d.version(version).versionType(VersionType.External);
+          })
+        );
+      }
+      return BulkOperation.of(b ->
+        b.index(i -> {
+          i.index(index).id(id).document(document);
+          return version == null ? i : i.version(version).versionType(VersionType.External);
+        })
+      );
     }
   }
 }
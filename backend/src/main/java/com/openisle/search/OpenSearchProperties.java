@@ -20,8 +20,17 @@ public class OpenSearchProperties {
   private int highlightFragmentSize = 200;
   private boolean reindexOnStartup = false;
   private int reindexBatchSize = 500;
+  // 每处理多少页记录一次重建进度
+  private int reindexCheckpointPages = 10;
+  // 重建锁的有效期，每次记录进度时续期；持有锁的节点崩溃后由其他节点接手
+  private long reindexLockTimeoutMs = 10 * 60 * 1000;
+  // 各节点缓存正在构建的索引的时间，新建索引后会等待同样长的时间再开始写入
+  private long reindexTargetCacheMs = 5000;
 
   private Indices indices = new Indices();
+  private Bulk bulk = new Bulk();
+  private Outbox outbox = new Outbox();
+  private Fallback fallback = new Fallback();
 
   public String postsIndex() {
     return indexName(indices.posts);
@@ -60,4 +69,56 @@ public class OpenSearchProperties {
     private String categories = "categories";
     private String tags = "tags";
   }
+
+  /**
+   * 批量写入：单个 bulk 请求的条数与字节上限，以及同时在途的请求数
+   */
+  @Getter
+  @Setter
+  public static class Bulk {
+
+    private int actions = 1000;
+    private long sizeBytes = 5 * 1024 * 1024;
+    private int concurrentRequests = 2;
+    private long flushIntervalMs = 1000;
+    private int maxRetries = 3;
+    private long retryBackoffMs = 200;
+    // 批量重建结束后恢复的 refresh_interval
+    private String refreshInterval = "1s";
+  }
+
+  /**
+   * 索引变更发件箱：每轮最多取出的条数、失败后的指数退避，以及放弃前的最大尝试次数
+   */
+  @Getter
+  @Setter
+  public static class Outbox {
+
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 20;
+    private int maxAttempts = 10;
+    private long retryBackoffMs = 1000;
+    private long maxRetryBackoffMs = 5 * 60 * 1000;
+    private long pollIntervalMs = 500;
+  }
+
+  /**
+   * OpenSearch 不可用或无结果时的数据库检索，每种结果类型最多返回 limit 条
+   */
+  @Getter
+  @Setter
+  public static class Fallback {
+
+    private FallbackMode mode = FallbackMode.LIKE;
+    private int limit = 20;
+    // 与 MySQL 的 ngram_token_size 保持一致，更短的关键词按前缀匹配
+    private int minTokenLength = 2;
+  }
+
+  public enum FallbackMode {
+    // 使用 ngram FULLTEXT 索引，按相关度排序；需先手动执行 V18__add_fulltext_search_indexes.sql
+    FULLTEXT,
+    // 默认模式，不依赖全文索引，按 id 倒序
+    LIKE,
+  }
 }
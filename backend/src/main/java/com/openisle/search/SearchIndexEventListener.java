@@ -1,33 +1,60 @@
 package com.openisle.search;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.model.SearchIndexOperation;
+import com.openisle.model.SearchIndexOutboxEntry;
+import com.openisle.repository.SearchIndexOutboxRepository;
 import com.openisle.search.event.DeleteDocumentEvent;
 import com.openisle.search.event.IndexDocumentEvent;
+import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * 在业务事务提交前把索引变更写入发件箱，与实体变更一同提交或回滚，
+ * 由 {@link SearchIndexOutboxWorker} 异步发送到 OpenSearch
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class SearchIndexEventListener {
 
-  private final SearchIndexer searchIndexer;
+  private final SearchIndexOutboxRepository outboxRepository;
+  private final ObjectMapper objectMapper;
 
-  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
   public void handleIndex(IndexDocumentEvent event) {
-    if (event == null || event.document() == null) {
+    if (event == null || event.document() == null || event.document().entityId() == null) {
       return;
     }
-    searchIndexer.indexDocument(event.index(), event.document());
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(event.document());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize search document", e);
+    }
+    save(event.index(), event.document().entityId(), SearchIndexOperation.INDEX, payload);
   }
 
-  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
   public void handleDelete(DeleteDocumentEvent event) {
-    if (event == null) {
+    if (event == null || event.id() == null) {
       return;
     }
-    searchIndexer.deleteDocument(event.index(), event.id());
+    save(event.index(), event.id(), SearchIndexOperation.DELETE, null);
+  }
+
+  private void save(String index, Long entityId, SearchIndexOperation operation, String payload) {
+    SearchIndexOutboxEntry entry = new SearchIndexOutboxEntry();
+    entry.setIndexName(index);
+    entry.setEntityId(entityId);
+    entry.setOperation(operation);
+    entry.setPayload(payload);
+    entry.setNextAttemptAt(LocalDateTime.now());
+    outboxRepository.save(entry);
   }
 }
@@ -2,9 +2,13 @@ package com.openisle.search;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearch.client.json.JsonData;
@@ -12,44 +16,147 @@ import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.mapping.Property;
 import org.opensearch.client.opensearch._types.mapping.TypeMapping;
 import org.opensearch.client.opensearch.indices.IndexSettings;
+import org.opensearch.client.opensearch.indices.update_aliases.Action;
 
+/**
+ * 索引结构管理。
+ * 对外查询和写入使用的名字（如 openisle-posts）是别名，背后是带版本号的物理索引，
+ * 重建时先写入新的物理索引，完成后原子切换别名再删除旧索引。
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class SearchIndexInitializer {
 
+  /**
+   * 映射或分析器配置变化时递增，启动时据此判断是否需要重建索引
+   * 2：文档改为以外部版本号写入，重建后旧的内部版本号不再参与比较
+   */
+  public static final int MAPPING_VERSION = 2;
+
+  private static final DateTimeFormatter BUILD_SUFFIX = DateTimeFormatter.ofPattern(
+    "yyyyMMddHHmmssSSS"
+  );
+
   private final OpenSearchClient client;
   private final OpenSearchProperties properties;
 
+  /**
+   * 别名和同名旧索引都不存在时先建一个空的物理索引挂到别名下，
+   * 保证重建完成前的查询和实时写入不会自动创建出没有映射的同名索引
+   */
   @PostConstruct
   public void initialize() {
     if (!properties.isEnabled() || !properties.isInitialize()) {
       return;
     }
-    ensureIndex(properties.postsIndex(), this::postMapping);
-    ensureIndex(properties.commentsIndex(), this::commentMapping);
-    ensureIndex(properties.usersIndex(), this::userMapping);
-    ensureIndex(properties.categoriesIndex(), this::categoryMapping);
-    ensureIndex(properties.tagsIndex(), this::tagMapping);
+    for (String alias : aliases()) {
+      try {
+        if (exists(alias)) {
+          continue;
+        }
+        String index = createVersionedIndex(alias);
+        client
+          .indices()
+          .updateAliases(builder ->
+            builder.actions(a -> a.add(add -> add.index(index).alias(alias)))
+          );
+      } catch (IOException e) {
+        log.warn("Failed to initialize OpenSearch index {}", alias, e);
+      }
+    }
+  }
+
+  public List<String> aliases() {
+    return List.of(
+      properties.postsIndex(),
+      properties.commentsIndex(),
+      properties.usersIndex(),
+      properties.categoriesIndex(),
+      properties.tagsIndex()
+    );
   }
 
-  private void ensureIndex(String index, java.util.function.Supplier<TypeMapping> mappingSupplier) {
+  /**
+   * 索引或别名是否存在
+   */
+  public boolean exists(String name) throws IOException {
+    return client
+      .indices()
+      .exists(builder -> builder.index(name))
+      .value();
+  }
+
+  /**
+   * 为别名创建一个新的物理索引，名字形如 openisle-posts-v1-20250101120000000
+   */
+  public String createVersionedIndex(String alias) throws IOException {
+    String index = alias + "-v" + MAPPING_VERSION + "-" + LocalDateTime.now().format(BUILD_SUFFIX);
+    Supplier<TypeMapping> mapping = mappingFor(alias);
+    client
+      .indices()
+      .create(builder ->
+        builder.index(index).settings(this::applyPinyinAnalysis).mappings(mapping.get())
+      );
+    log.info("Created OpenSearch index {} for alias {}", index, alias);
+    return index;
+  }
+
+  /**
+   * 原子地把别名切换到新索引，然后删除旧的物理索引。
+   * 旧版本直接以别名为名的物理索引在同一请求中删除。
+   */
+  public void swapAlias(String alias, String index) throws IOException {
+    List<String> previous = new ArrayList<>();
+    boolean legacy = false;
+    if (client.indices().existsAlias(builder -> builder.name(alias)).value()) {
+      previous.addAll(client.indices().getAlias(builder -> builder.name(alias)).result().keySet());
+    } else if (exists(alias)) {
+      legacy = true;
+    }
+    previous.remove(index);
+
+    List<Action> actions = new ArrayList<>();
+    if (legacy) {
+      actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+    }
+    actions.add(Action.of(a -> a.add(add -> add.index(index).alias(alias))));
+    for (String old : previous) {
+      actions.add(Action.of(a -> a.remove(r -> r.index(old).alias(alias))));
+    }
+    client.indices().updateAliases(builder -> builder.actions(actions));
+    log.info("Alias {} now points to {}", alias, index);
+
+    for (String old : previous) {
+      deleteIndex(old);
+    }
+  }
+
+  public void deleteIndex(String index) {
     try {
-      boolean exists = client
-        .indices()
-        .exists(builder -> builder.index(index))
-        .value();
-      if (exists) {
-        return;
-      }
-      client
-        .indices()
-        .create(builder ->
-          builder.index(index).settings(this::applyPinyinAnalysis).mappings(mappingSupplier.get())
-        );
-      log.info("Created OpenSearch index {}", index);
-    } catch (IOException e) {
-      log.warn("Failed to initialize OpenSearch index {}", index, e);
+      client.indices().delete(builder -> builder.index(index));
+      log.info("Deleted OpenSearch index {}", index);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to delete OpenSearch index {}", index, e);
+    }
+  }
+
+  private Supplier<TypeMapping> mappingFor(String alias) {
+    if (alias.equals(properties.postsIndex())) {
+      return this::postMapping;
+    }
+    if (alias.equals(properties.commentsIndex())) {
+      return this::commentMapping;
+    }
+    if (alias.equals(properties.usersIndex())) {
+      return this::userMapping;
+    }
+    if (alias.equals(properties.categoriesIndex())) {
+      return this::categoryMapping;
+    }
+    if (alias.equals(properties.tagsIndex())) {
+      return this::tagMapping;
     }
+    throw new IllegalArgumentException("Unknown search index " + alias);
   }
 
   private TypeMapping postMapping() {
@@ -0,0 +1,236 @@
+package com.openisle.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.model.SearchIndexOperation;
+import com.openisle.model.SearchIndexOutboxEntry;
+import com.openisle.repository.SearchIndexOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 发送索引发件箱中的变更。
+ * 每批按写入顺序加锁取出到期的行，同一文档只发送最新一条；写入成功后删除该文档
+ * 全部更早的变更，失败的行按指数退避重试，达到最大次数后保留在表中等待人工处理。
+ * 多个节点并发取行时先后顺序无法保证，每条变更以行 id 作为外部版本号写入，
+ * 较早的变更晚到时被 OpenSearch 当作版本冲突丢弃，不会覆盖较新的写入或删除。
+ */
+@Slf4j
+@Component
+public class SearchIndexOutboxWorker {
+
+  private final SearchIndexOutboxRepository outboxRepository;
+  private final SearchIndexer searchIndexer;
+  private final SearchReindexService searchReindexService;
+  private final OpenSearchProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  private final Counter sent;
+  private final Counter failed;
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicLong dead = new AtomicLong();
+  private final AtomicLong lagMillis = new AtomicLong();
+
+  public SearchIndexOutboxWorker(
+    SearchIndexOutboxRepository outboxRepository,
+    SearchIndexer searchIndexer,
+    SearchReindexService searchReindexService,
+    OpenSearchProperties properties,
+    TransactionTemplate transactionTemplate,
+    ObjectMapper objectMapper,
+    MeterRegistry meterRegistry
+  ) {
+    this.outboxRepository = outboxRepository;
+    this.searchIndexer = searchIndexer;
+    this.searchReindexService = searchReindexService;
+    this.properties = properties;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.sent = meterRegistry.counter("search.outbox.sent");
+    this.failed = meterRegistry.counter("search.outbox.failed");
+    Gauge.builder("search.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+    Gauge.builder("search.outbox.dead", dead, AtomicLong::get).register(meterRegistry);
+    // 最早一条未发送变更的等待时间
+    Gauge.builder("search.outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0).register(
+      meterRegistry
+    );
+  }
+
+  @Scheduled(
+    fixedDelayString = "${app.search.outbox.poll-interval-ms:500}",
+    initialDelayString = "${app.search.outbox.poll-interval-ms:500}"
+  )
+  public void drain() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    OpenSearchProperties.Outbox settings = properties.getOutbox();
+    int batchSize = Math.max(1, settings.getBatchSize());
+    try {
+      for (int i = 0; i < Math.max(1, settings.getMaxBatchesPerRun()); i++) {
+        Integer fetched = transactionTemplate.execute(status -> drainBatch(batchSize));
+        if (fetched == null || fetched < batchSize) {
+          break;
+        }
+      }
+    } catch (Exception e) {
+      log.warn("Failed to drain search index outbox: {}", e.getMessage());
+    } finally {
+      updateGauges();
+    }
+  }
+
+  /**
+   * @return 本批取出的行数
+   */
+  int drainBatch(int batchSize) {
+    OpenSearchProperties.Outbox settings = properties.getOutbox();
+    LocalDateTime now = LocalDateTime.now();
+    List<SearchIndexOutboxEntry> entries = outboxRepository.findDue(
+      now,
+      settings.getMaxAttempts(),
+      PageRequest.of(0, batchSize)
+    );
+    if (entries.isEmpty()) {
+      return 0;
+    }
+
+    // 同一文档只发送最新的变更，更早的直接删除
+    Map<String, SearchIndexOutboxEntry> latest = new LinkedHashMap<>();
+    List<Long> done = new ArrayList<>();
+    for (SearchIndexOutboxEntry entry : entries) {
+      SearchIndexOutboxEntry previous = latest.put(key(entry), entry);
+      if (previous != null) {
+        done.add(previous.getId());
+      }
+    }
+
+    List<SearchOperation> operations = new ArrayList<>();
+    Map<SearchOperation, SearchIndexOutboxEntry> owners = new IdentityHashMap<>();
+    for (SearchIndexOutboxEntry entry : latest.values()) {
+      SearchDocument document = null;
+      if (entry.getOperation() == SearchIndexOperation.INDEX) {
+        try {
+          document = objectMapper.readValue(entry.getPayload(), SearchDocument.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+          // 无法解析的变更重试也不会成功
+          entry.setAttempts(settings.getMaxAttempts());
+          entry.setLastError(truncate("Invalid payload: " + e.getMessage()));
+          failed.increment();
+          continue;
+        }
+      }
+      // 重建期间同时写入别名和正在构建的新索引
+      for (String index : searchReindexService.writeTargets(entry.getIndexName())) {
+        SearchOperation operation = document == null
+          ? SearchOperation.delete(index, entry.getEntityId(), version(entry))
+          : SearchOperation.index(index, document, version(entry));
+        operations.add(operation);
+        owners.put(operation, entry);
+      }
+    }
+
+    Set<SearchIndexOutboxEntry> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (!operations.isEmpty()) {
+      for (SearchOperation operation : searchIndexer.write(operations)) {
+        SearchIndexOutboxEntry owner = owners.get(operation);
+        if (owner != null) {
+          rejected.add(owner);
+        }
+      }
+    }
+
+    for (SearchIndexOutboxEntry entry : latest.values()) {
+      if (entry.getAttempts() >= settings.getMaxAttempts()) {
+        continue;
+      }
+      if (rejected.contains(entry)) {
+        scheduleRetry(entry, now, settings);
+        failed.increment();
+      } else {
+        done.add(entry.getId());
+        outboxRepository.deleteSuperseded(
+          entry.getIndexName(),
+          entry.getEntityId(),
+          entry.getId()
+        );
+        sent.increment();
+      }
+    }
+    if (!done.isEmpty()) {
+      outboxRepository.deleteAllByIdInBatch(done);
+    }
+    return entries.size();
+  }
+
+  private void scheduleRetry(
+    SearchIndexOutboxEntry entry,
+    LocalDateTime now,
+    OpenSearchProperties.Outbox settings
+  ) {
+    int attempts = entry.getAttempts() + 1;
+    long backoff = Math.min(
+      settings.getMaxRetryBackoffMs(),
+      settings.getRetryBackoffMs() << Math.min(attempts - 1, 20)
+    );
+    entry.setAttempts(attempts);
+    entry.setNextAttemptAt(now.plus(Duration.ofMillis(backoff)));
+    entry.setLastError("Rejected by search cluster");
+    if (attempts >= settings.getMaxAttempts()) {
+      log.error(
+        "Giving up on search index change {} for {}/{} after {} attempts",
+        entry.getId(),
+        entry.getIndexName(),
+        entry.getEntityId(),
+        attempts
+      );
+    }
+  }
+
+  private void updateGauges() {
+    try {
+      int maxAttempts = properties.getOutbox().getMaxAttempts();
+      pending.set(outboxRepository.countByAttemptsLessThan(maxAttempts));
+      dead.set(outboxRepository.countByAttemptsGreaterThanEqual(maxAttempts));
+      LocalDateTime oldest = outboxRepository.findOldestCreatedAt(maxAttempts);
+      lagMillis.set(
+        oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis())
+      );
+    } catch (Exception e) {
+      log.debug("Failed to update search outbox gauges: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * 同一文档的变更在提交时持有实体行锁，行 id 与提交顺序一致；
+   * 加上重建翻页使用的版本号，保证实时写入总是高于翻页数据
+   */
+  static long version(SearchIndexOutboxEntry entry) {
+    return entry.getId() + SearchReindexService.PAGE_LOAD_VERSION;
+  }
+
+  private static String key(SearchIndexOutboxEntry entry) {
+    return entry.getIndexName() + "/" + entry.getEntityId();
+  }
+
+  private static String truncate(String value) {
+    return value.length() <= 500 ? value : value.substring(0, 500);
+  }
+}
@@ -1,6 +1,47 @@
 package com.openisle.search;
 
+import java.util.List;
+
 public interface SearchIndexer {
   void indexDocument(String index, SearchDocument document);
   void deleteDocument(String index, Long id);
+
+  /**
+   * 以外部版本号写入，索引中已有相同或更高版本（包括删除留下的版本）时放弃本次写入
+   */
+  default void indexDocument(String index, SearchDocument document, long version) {
+    indexDocument(index, document);
+  }
+
+  /**
+   * 发送所有缓冲中的写入，并等待在途请求完成
+   */
+  default void flush() {}
+
+  /**
+   * 大批量写入前调用，关闭索引的自动 refresh
+   */
+  default void beginBulkLoad(String index) {}
+
+  /**
+   * 大批量写入后调用，写完缓冲区后恢复自动 refresh 并立即 refresh 一次
+   */
+  default void endBulkLoad(String index) {}
+
+  /**
+   * 绕过缓冲区立即写入一批操作并等待结果，失败时不重试
+   *
+   * @return 写入失败的操作，由调用方决定何时重试
+   */
+  default List<SearchOperation> write(List<SearchOperation> operations) {
+    for (SearchOperation operation : operations) {
+      if (operation.isDelete()) {
+        deleteDocument(operation.index(), operation.id());
+      } else {
+        indexDocument(operation.index(), operation.document());
+      }
+    }
+    flush();
+    return List.of();
+  }
 }
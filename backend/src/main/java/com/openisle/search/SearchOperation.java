@@ -0,0 +1,27 @@
+package com.openisle.search;
+
+/**
+ * 一次索引写入，document 为 null 表示删除
+ * version 为外部版本号，索引中已有相同或更高版本时放弃本次写入；为 null 时使用内部版本
+ */
+public record SearchOperation(String index, Long id, SearchDocument document, Long version) {
+  public static SearchOperation index(String index, SearchDocument document) {
+    return new SearchOperation(index, document.entityId(), document, null);
+  }
+
+  public static SearchOperation index(String index, SearchDocument document, long version) {
+    return new SearchOperation(index, document.entityId(), document, version);
+  }
+
+  public static SearchOperation delete(String index, Long id) {
+    return new SearchOperation(index, id, null, null);
+  }
+
+  public static SearchOperation delete(String index, Long id, long version) {
+    return new SearchOperation(index, id, null, version);
+  }
+
+  public boolean isDelete() {
+    return document == null;
+  }
+}
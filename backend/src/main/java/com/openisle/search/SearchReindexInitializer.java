@@ -25,6 +25,9 @@ public class SearchReindexInitializer implements CommandLineRunner {
       return;
     }
 
-    searchReindexService.reindexAll();
+    // 在后台构建新索引，构建期间查询仍走旧索引
+    Thread thread = new Thread(searchReindexService::rebuildIfNeeded, "search-reindex");
+    thread.setDaemon(true);
+    thread.start();
   }
 }
@@ -1,94 +1,386 @@
 package com.openisle.search;
 
+import com.openisle.model.Category;
+import com.openisle.model.Comment;
 import com.openisle.model.Post;
 import com.openisle.model.PostStatus;
+import com.openisle.model.SearchReindexCheckpoint;
 import com.openisle.model.Tag;
+import com.openisle.model.User;
 import com.openisle.repository.CategoryRepository;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
+import com.openisle.repository.SearchReindexCheckpointRepository;
 import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * 索引重建：写入新的物理索引，完成后切换别名。
+ * 按实体 id 递增翻页，每页同步写入并确认，定期把已写入的最大 id 记入检查点，中断后从检查点继续。
+ * 某页重试后仍有文档写入失败时中止本次重建，检查点不越过该页，重建也不会标记完成。
+ * 检查点行同时充当跨节点的重建锁，并记录正在构建的索引，供所有节点的实时写入使用。
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class SearchReindexService {
 
+  /**
+   * 重建写入的外部版本号。实时写入的版本都更高，已写入的文档和删除留下的版本不会被翻页数据覆盖
+   */
+  static final long PAGE_LOAD_VERSION = 1;
+
   private final SearchIndexer searchIndexer;
   private final OpenSearchProperties properties;
+  private final ObjectProvider<SearchIndexInitializer> indexManager;
+  private final SearchReindexCheckpointRepository checkpointRepository;
+  private final TransactionTemplate transactionTemplate;
   private final PostRepository postRepository;
   private final CommentRepository commentRepository;
   private final UserRepository userRepository;
   private final CategoryRepository categoryRepository;
   private final TagRepository tagRepository;
 
-  @Transactional(readOnly = true)
+  private final String nodeId = UUID.randomUUID().toString();
+
+  // 别名 -> 实时写入目标，短时间缓存，避免每次写入都查询检查点
+  private final Map<String, CachedTargets> targets = new ConcurrentHashMap<>();
+
+  /**
+   * 实时写入的目标索引：重建期间同时写入别名和新索引，避免切换后丢失重建过程中的变更。
+   * 正在构建的索引记录在检查点中，其他节点发起的重建同样生效。
+   */
+  public List<String> writeTargets(String alias) {
+    long now = System.currentTimeMillis();
+    CachedTargets cached = targets.get(alias);
+    if (cached != null && cached.expiresAt() > now) {
+      return cached.indices();
+    }
+    List<String> indices = checkpointRepository
+      .findById(alias)
+      .filter(c -> !c.isCompleted() && c.getTargetIndex() != null)
+      .map(c -> List.of(alias, c.getTargetIndex()))
+      .orElse(List.of(alias));
+    targets.put(alias, new CachedTargets(indices, now + properties.getReindexTargetCacheMs()));
+    return indices;
+  }
+
+  /**
+   * 只重建映射版本变化或上次重建未完成的索引
+   */
+  public void rebuildIfNeeded() {
+    rebuild(false);
+  }
+
+  /**
+   * 忽略检查点，重建全部索引
+   */
   public void reindexAll() {
+    rebuild(true);
+  }
+
+  private synchronized void rebuild(boolean force) {
     if (!properties.isEnabled()) {
       log.info("Search indexing is disabled, skipping reindex operation.");
       return;
     }
+    SearchIndexInitializer manager = indexManager.getIfAvailable();
+    if (manager == null) {
+      log.warn("OpenSearch client is not configured, skipping reindex operation.");
+      return;
+    }
 
-    log.info("Starting full search reindex operation.");
+    for (IndexSource<?> source : sources()) {
+      try {
+        rebuild(manager, source, force);
+      } catch (IOException | RuntimeException e) {
+        log.error("Failed to rebuild search index {}", source.alias(), e);
+      }
+    }
+  }
 
-    reindex(properties.postsIndex(), postRepository::findAll, (Post post) ->
-      post.getStatus() == PostStatus.PUBLISHED ? SearchDocumentFactory.fromPost(post) : null
+  private List<IndexSource<?>> sources() {
+    return List.of(
+      new IndexSource<>(
+        properties.postsIndex(),
+        postRepository::findByIdGreaterThanOrderByIdAsc,
+        Post::getId,
+        (Post post) ->
+          post.getStatus() == PostStatus.PUBLISHED ? SearchDocumentFactory.fromPost(post) : null
+      ),
+      new IndexSource<>(
+        properties.commentsIndex(),
+        commentRepository::findByIdGreaterThanOrderByIdAsc,
+        Comment::getId,
+        SearchDocumentFactory::fromComment
+      ),
+      new IndexSource<>(
+        properties.usersIndex(),
+        userRepository::findByIdGreaterThanOrderByIdAsc,
+        User::getId,
+        SearchDocumentFactory::fromUser
+      ),
+      new IndexSource<>(
+        properties.categoriesIndex(),
+        categoryRepository::findByIdGreaterThanOrderByIdAsc,
+        Category::getId,
+        SearchDocumentFactory::fromCategory
+      ),
+      new IndexSource<>(
+        properties.tagsIndex(),
+        tagRepository::findByIdGreaterThanOrderByIdAsc,
+        Tag::getId,
+        (Tag tag) -> tag.isApproved() ? SearchDocumentFactory.fromTag(tag) : null
+      )
     );
+  }
 
-    reindex(
-      properties.commentsIndex(),
-      commentRepository::findAll,
-      SearchDocumentFactory::fromComment
-    );
+  private <T> void rebuild(
+    SearchIndexInitializer manager,
+    IndexSource<T> source,
+    boolean force
+  ) throws IOException {
+    String alias = source.alias();
+    SearchReindexCheckpoint checkpoint = lock(alias);
+    if (checkpoint == null) {
+      log.info("Search index {} is being rebuilt by another node, skipping.", alias);
+      return;
+    }
+    try {
+      rebuild(manager, source, checkpoint, force);
+    } finally {
+      unlock(alias);
+    }
+  }
 
-    reindex(properties.usersIndex(), userRepository::findAll, SearchDocumentFactory::fromUser);
+  private <T> void rebuild(
+    SearchIndexInitializer manager,
+    IndexSource<T> source,
+    SearchReindexCheckpoint checkpoint,
+    boolean force
+  ) throws IOException {
+    String alias = source.alias();
+    int version = SearchIndexInitializer.MAPPING_VERSION;
+    String previousTarget = checkpoint.getTargetIndex();
+    boolean sameVersion = previousTarget != null && checkpoint.getMappingVersion() == version;
 
-    reindex(
-      properties.categoriesIndex(),
-      categoryRepository::findAll,
-      SearchDocumentFactory::fromCategory
-    );
+    if (!force && sameVersion && checkpoint.isCompleted()) {
+      log.info("Search index {} is up to date with mapping version {}.", alias, version);
+      return;
+    }
+    if (!force && sameVersion && manager.exists(previousTarget)) {
+      log.info(
+        "Resuming rebuild of {} into {} after id {}.",
+        alias,
+        previousTarget,
+        checkpoint.getLastEntityId()
+      );
+    } else {
+      boolean abandoned = previousTarget != null && !checkpoint.isCompleted();
+      checkpoint.setTargetIndex(manager.createVersionedIndex(alias));
+      checkpoint.setMappingVersion(version);
+      checkpoint.setLastEntityId(0);
+      checkpoint.setCompleted(false);
+      checkpoint = saveCheckpoint(checkpoint);
+      targets.remove(alias);
+      // 等其他节点的写入目标缓存过期，所有实时写入都切到新索引后再开始翻页
+      awaitTargetCache();
+      // 未完成的旧构建不在别名下，可以直接丢弃；已完成的是线上索引，切换别名后再删
+      if (abandoned && manager.exists(previousTarget)) {
+        manager.deleteIndex(previousTarget);
+      }
+      log.info("Rebuilding {} into {}.", alias, checkpoint.getTargetIndex());
+    }
 
-    reindex(properties.tagsIndex(), tagRepository::findAll, (Tag tag) ->
-      tag.isApproved() ? SearchDocumentFactory.fromTag(tag) : null
-    );
+    String target = checkpoint.getTargetIndex();
+    int batchSize = Math.max(1, properties.getReindexBatchSize());
+    int checkpointPages = Math.max(1, properties.getReindexCheckpointPages());
+    long lastId = checkpoint.getLastEntityId();
+    long indexed = 0;
+    int pages = 0;
+
+    searchIndexer.beginBulkLoad(target);
+    while (true) {
+      long after = lastId;
+      Batch batch = transactionTemplate.execute(status -> loadBatch(source, after, batchSize));
+      if (batch == null || batch.fetched() == 0) {
+        break;
+      }
+      writePage(target, batch.documents());
+      indexed += batch.documents().size();
+      lastId = batch.lastId();
+      if (++pages % checkpointPages == 0) {
+        checkpoint.setLastEntityId(lastId);
+        checkpoint = saveCheckpoint(checkpoint);
+      }
+      if (batch.fetched() < batchSize) {
+        break;
+      }
+    }
 
-    log.info("Completed full search reindex operation.");
+    searchIndexer.endBulkLoad(target);
+    manager.swapAlias(alias, target);
+    checkpoint.setLastEntityId(lastId);
+    checkpoint.setCompleted(true);
+    saveCheckpoint(checkpoint);
+    targets.remove(alias);
+    log.info("Indexed {} documents into {} and switched alias {}.", indexed, target, alias);
   }
 
-  private <T> void reindex(
-    String index,
-    Function<Pageable, Page<T>> pageSupplier,
-    Function<T, SearchDocument> mapper
-  ) {
-    int batchSize = Math.max(1, properties.getReindexBatchSize());
-    int pageNumber = 0;
-
-    Page<T> page;
-    do {
-      Pageable pageable = PageRequest.of(pageNumber, batchSize);
-      page = pageSupplier.apply(pageable);
-      if (page.isEmpty() && pageNumber == 0) {
-        log.info("No entities found for index {}.", index);
+  /**
+   * 同步写入一页文档，失败项按 bulk 配置退避重试，仍失败时抛出异常中止重建
+   */
+  private void writePage(String target, List<SearchDocument> documents) {
+    List<SearchOperation> pending = documents
+      .stream()
+      .map(document -> SearchOperation.index(target, document, PAGE_LOAD_VERSION))
+      .toList();
+    OpenSearchProperties.Bulk bulk = properties.getBulk();
+    for (int attempt = 1; !pending.isEmpty(); attempt++) {
+      pending = searchIndexer.write(pending);
+      if (pending.isEmpty()) {
+        return;
+      }
+      if (attempt > bulk.getMaxRetries()) {
+        throw new IllegalStateException(
+          "Failed to write " + pending.size() + " documents into " + target
+        );
       }
+      try {
+        Thread.sleep(bulk.getRetryBackoffMs() << (attempt - 1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while writing into " + target, e);
+      }
+    }
+  }
 
-      log.info("Reindexing {} entities for index {}.", page.getTotalElements(), index);
-      for (T entity : page) {
-        SearchDocument document = mapper.apply(entity);
-        if (Objects.nonNull(document)) {
-          searchIndexer.indexDocument(index, document);
+  /**
+   * 锁住检查点行后领取重建锁，其他节点持有未过期的锁时返回 null
+   */
+  private SearchReindexCheckpoint lock(String alias) {
+    try {
+      return transactionTemplate.execute(status -> {
+        SearchReindexCheckpoint checkpoint = checkpointRepository.findForUpdate(alias).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpoint == null) {
+          checkpoint = new SearchReindexCheckpoint();
+          checkpoint.setIndexAlias(alias);
+        } else if (
+          checkpoint.getLockedBy() != null &&
+          !nodeId.equals(checkpoint.getLockedBy()) &&
+          checkpoint.getLockedUntil() != null &&
+          checkpoint.getLockedUntil().isAfter(now)
+        ) {
+          return null;
         }
+        checkpoint.setLockedBy(nodeId);
+        checkpoint.setLockedUntil(now.plus(lockTimeout()));
+        return checkpointRepository.saveAndFlush(checkpoint);
+      });
+    } catch (DataIntegrityViolationException e) {
+      // 两个节点同时插入同一别名的检查点，另一个节点已拿到锁
+      return null;
+    }
+  }
+
+  /**
+   * 保存进度并续期重建锁；锁已过期并被其他节点接手时中止本次重建
+   */
+  private SearchReindexCheckpoint saveCheckpoint(SearchReindexCheckpoint progress) {
+    return transactionTemplate.execute(status -> {
+      SearchReindexCheckpoint checkpoint = checkpointRepository
+        .findForUpdate(progress.getIndexAlias())
+        .orElseThrow(() -> new IllegalStateException("Reindex checkpoint disappeared"));
+      if (!nodeId.equals(checkpoint.getLockedBy())) {
+        throw new IllegalStateException(
+          "Lost reindex lock on " + progress.getIndexAlias() + " to " + checkpoint.getLockedBy()
+        );
+      }
+      checkpoint.setTargetIndex(progress.getTargetIndex());
+      checkpoint.setMappingVersion(progress.getMappingVersion());
+      checkpoint.setLastEntityId(progress.getLastEntityId());
+      checkpoint.setCompleted(progress.isCompleted());
+      checkpoint.setLockedUntil(LocalDateTime.now().plus(lockTimeout()));
+      return checkpointRepository.save(checkpoint);
+    });
+  }
+
+  private void unlock(String alias) {
+    try {
+      transactionTemplate.executeWithoutResult(status ->
+        checkpointRepository
+          .findForUpdate(alias)
+          .filter(c -> nodeId.equals(c.getLockedBy()))
+          .ifPresent(c -> {
+            c.setLockedBy(null);
+            c.setLockedUntil(null);
+            checkpointRepository.save(c);
+          })
+      );
+    } catch (RuntimeException e) {
+      log.warn("Failed to release reindex lock on {}, it expires on its own", alias, e);
+    }
+  }
+
+  private Duration lockTimeout() {
+    return Duration.ofMillis(properties.getReindexLockTimeoutMs());
+  }
+
+  private void awaitTargetCache() {
+    long wait = properties.getReindexTargetCacheMs();
+    if (wait <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(wait);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while publishing reindex target", e);
+    }
+  }
+
+  private <T> Batch loadBatch(IndexSource<T> source, long after, int batchSize) {
+    List<T> entities = source.pageAfter().apply(after, PageRequest.of(0, batchSize));
+    List<SearchDocument> documents = new ArrayList<>(entities.size());
+    long lastId = after;
+    for (T entity : entities) {
+      lastId = Math.max(lastId, source.idOf().apply(entity));
+      SearchDocument document = source.mapper().apply(entity);
+      if (Objects.nonNull(document)) {
+        documents.add(document);
       }
-      pageNumber++;
-    } while (page.hasNext());
+    }
+    return new Batch(documents, entities.size(), lastId);
   }
+
+  private record IndexSource<T>(
+    String alias,
+    BiFunction<Long, Pageable, List<T>> pageAfter,
+    Function<T, Long> idOf,
+    Function<T, SearchDocument> mapper
+  ) {}
+
+  private record Batch(List<SearchDocument> documents, int fetched, long lastId) {}
+
+  private record CachedTargets(List<String> indices, long expiresAt) {}
 }
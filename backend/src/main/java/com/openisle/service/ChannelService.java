@@ -9,9 +9,7 @@ import com.openisle.model.MessageParticipant;
 import com.openisle.model.User;
 import com.openisle.repository.MessageConversationRepository;
 import com.openisle.repository.MessageParticipantRepository;
-import com.openisle.repository.MessageRepository;
 import com.openisle.repository.UserRepository;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -24,7 +22,6 @@ public class ChannelService {
 
   private final MessageConversationRepository conversationRepository;
   private final MessageParticipantRepository participantRepository;
-  private final MessageRepository messageRepository;
   private final UserRepository userRepository;
 
   @Transactional(readOnly = true)
@@ -79,15 +76,7 @@ public class ChannelService {
         .filter(p -> p.getUser().getId().equals(userId))
         .findFirst()
         .orElse(null);
-      LocalDateTime lastRead = participant.getLastReadAt() == null
-        ? LocalDateTime.of(1970, 1, 1, 0, 0)
-        : participant.getLastReadAt();
-      long unread = messageRepository.countByConversationIdAndCreatedAtAfterAndSenderIdNot(
-        channel.getId(),
-        lastRead,
-        userId
-      );
-      dto.setUnreadCount(unread);
+      dto.setUnreadCount(participant.getUnreadCount());
     } else {
       dto.setUnreadCount(0);
     }
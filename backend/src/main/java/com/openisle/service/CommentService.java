@@ -1,6 +1,5 @@
 package com.openisle.service;
 
-import com.openisle.config.CachingConfig;
 import com.openisle.exception.RateLimitException;
 import com.openisle.model.Comment;
 import com.openisle.model.CommentSort;
@@ -24,6 +23,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,8 +31,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -55,8 +53,8 @@ public class CommentService {
   private final PointService pointService;
   private final ImageUploader imageUploader;
   private final SearchIndexEventPublisher searchIndexEventPublisher;
+  private final PostListCacheService postListCacheService;
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public Comment addComment(String username, Long postId, String content) {
     log.debug("addComment called by user {} for post {}", username, postId);
@@ -82,6 +80,7 @@ public class CommentService {
     comment.setPost(post);
     comment.setContent(content);
     comment = commentRepository.save(comment);
+    postListCacheService.evict(comment.getPost());
     log.debug("Comment {} saved for post {}", comment.getId(), postId);
 
     // Update post comment statistics
@@ -139,7 +138,6 @@ public class CommentService {
     return commentRepository.findLastCommentTimeOfUserByUserId(userId);
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public Comment addReply(String username, Long parentId, String content) {
     log.debug("addReply called by user {} for parent comment {}", username, parentId);
@@ -166,6 +164,7 @@ public class CommentService {
     comment.setParent(parent);
     comment.setContent(content);
     comment = commentRepository.save(comment);
+    postListCacheService.evict(comment.getPost());
     log.debug("Reply {} saved for parent {}", comment.getId(), parentId);
 
     // Update post comment statistics
@@ -324,13 +323,29 @@ public class CommentService {
     if (posts == null || posts.isEmpty()) {
       return Map.of();
     }
-    Map<Long, LinkedHashSet<User>> map = new HashMap<>();
-    List<Long> postIds = new ArrayList<>(posts.size());
+    Map<Long, User> postAuthors = new LinkedHashMap<>();
     for (Post post : posts) {
-      postIds.add(post.getId());
+      postAuthors.put(post.getId(), post.getAuthor());
+    }
+    return getParticipantsForPosts(postAuthors, limit);
+  }
+
+  /**
+   * 批量获取文章参与者，作者排在首位
+   * @param postAuthors 文章 id 到作者的映射
+   */
+  public Map<Long, List<User>> getParticipantsForPosts(Map<Long, User> postAuthors, int limit) {
+    if (postAuthors == null || postAuthors.isEmpty()) {
+      return Map.of();
+    }
+    Map<Long, LinkedHashSet<User>> map = new HashMap<>();
+    List<Long> postIds = new ArrayList<>(postAuthors.keySet());
+    for (Map.Entry<Long, User> entry : postAuthors.entrySet()) {
       LinkedHashSet<User> set = new LinkedHashSet<>();
-      set.add(post.getAuthor());
-      map.put(post.getId(), set);
+      if (entry.getValue() != null) {
+        set.add(entry.getValue());
+      }
+      map.put(entry.getKey(), set);
     }
     for (Object[] row : commentRepository.findDistinctAuthorsByPostIds(postIds)) {
       Long postId = (Long) row[0];
@@ -375,7 +390,6 @@ public class CommentService {
     return count;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void deleteComment(String username, Long id) {
     log.debug("deleteComment called by user {} for comment {}", username, id);
@@ -393,10 +407,10 @@ public class CommentService {
     log.debug("deleteComment completed for comment {}", id);
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void deleteCommentCascade(Comment comment) {
     log.debug("deleteCommentCascade called for comment {}", comment.getId());
+    postListCacheService.evict(comment.getPost());
     List<Comment> replies = commentRepository.findByParentOrderByCreatedAtAsc(comment);
     for (Comment c : replies) {
       deleteCommentCascade(c);
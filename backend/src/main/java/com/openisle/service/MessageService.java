@@ -4,27 +4,34 @@ import com.openisle.dto.ConversationDetailDto;
 import com.openisle.dto.ConversationDto;
 import com.openisle.dto.MessageDto;
 import com.openisle.dto.MessageNotificationPayload;
+import com.openisle.dto.NotificationRecipient;
 import com.openisle.dto.ReactionDto;
 import com.openisle.dto.UserSummaryDto;
 import com.openisle.mapper.ReactionMapper;
 import com.openisle.model.Message;
 import com.openisle.model.MessageConversation;
 import com.openisle.model.MessageParticipant;
+import com.openisle.model.MessageUnreadCounter;
 import com.openisle.model.Reaction;
 import com.openisle.model.User;
 import com.openisle.repository.MessageConversationRepository;
 import com.openisle.repository.MessageParticipantRepository;
 import com.openisle.repository.MessageRepository;
+import com.openisle.repository.MessageUnreadCounterRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
+import com.openisle.util.ConversationCursor;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,6 +41,9 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class MessageService {
 
+  private static final int MAX_CONVERSATION_PAGE_SIZE = 100;
+  private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+
   private final MessageRepository messageRepository;
   private final MessageConversationRepository conversationRepository;
   private final MessageParticipantRepository participantRepository;
@@ -41,6 +51,7 @@ public class MessageService {
   private final NotificationProducer notificationProducer;
   private final ReactionRepository reactionRepository;
   private final ReactionMapper reactionMapper;
+  private final MessageUnreadCounterRepository unreadCounterRepository;
 
   @Transactional
   public Message sendMessage(Long senderId, Long recipientId, String content, Long replyToId) {
@@ -72,6 +83,7 @@ public class MessageService {
     }
     message = messageRepository.save(message);
     log.info("Message saved with ID: {}", message.getId());
+    incrementUnread(conversation, senderId);
 
     conversation.setLastMessage(message);
     conversationRepository.save(conversation);
@@ -83,43 +95,22 @@ public class MessageService {
 
     try {
       MessageDto messageDto = toDto(message);
-
       long unreadCount = getUnreadMessageCount(recipientId);
-
-      // 创建包含对话和参与者信息的完整payload
-      Map<String, Object> conversationInfo = new HashMap<>();
-      conversationInfo.put("id", conversation.getId());
-      conversationInfo.put(
-        "participants",
-        conversation
-          .getParticipants()
-          .stream()
-          .map(p -> {
-            Map<String, Object> participantInfo = new HashMap<>();
-            participantInfo.put("userId", p.getUser().getId());
-            participantInfo.put("username", p.getUser().getUsername());
-            return participantInfo;
-          })
-          .collect(Collectors.toList())
+      NotificationRecipient target = new NotificationRecipient(
+        recipientId,
+        recipient.getUsername(),
+        unreadCount,
+        null
       );
-
-      Map<String, Object> combinedPayload = new HashMap<>();
-      combinedPayload.put("message", messageDto);
-      combinedPayload.put("unreadCount", unreadCount);
-      combinedPayload.put("conversation", conversationInfo);
-      combinedPayload.put("senderId", senderId);
-      if (notificationProducer != null) {
-        log.info("NotificationProducer is available");
-      } else {
-        log.info("ERROR: NotificationProducer is NULL!");
-        return message;
-      }
-      log.info("Recipient username: {}", recipient.getUsername());
-
       notificationProducer.sendNotification(
-        new MessageNotificationPayload(recipient.getUsername(), combinedPayload)
+        MessageNotificationPayload.direct(
+          recipient.getUsername(),
+          conversation.getId(),
+          senderId,
+          messageDto,
+          List.of(target)
+        )
       );
-      log.info("=== Notification call completed ===");
     } catch (Exception e) {
       log.error("=== Error in notification process ===", e);
     }
@@ -137,8 +128,9 @@ public class MessageService {
     User sender = userRepository
       .findById(senderId)
       .orElseThrow(() -> new IllegalArgumentException("Sender not found"));
+    // 不预先加载参与者：大频道的成员列表只在需要时按列查询
     MessageConversation conversation = conversationRepository
-      .findByIdWithParticipantsAndUsers(conversationId)
+      .findById(conversationId)
       .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
 
     // Join the conversation if not already a participant (useful for channels)
@@ -162,45 +154,117 @@ public class MessageService {
       message.setReplyTo(replyTo);
     }
     message = messageRepository.save(message);
+    incrementUnread(conversation, senderId);
 
     conversation.setLastMessage(message);
     conversationRepository.save(conversation);
 
     MessageDto messageDto = toDto(message);
+    // Use sender's username for sharding; only one notification is needed
+    notificationProducer.sendNotification(
+      conversation.isChannel()
+        ? buildChannelPayload(conversation, messageDto, sender)
+        : buildConversationPayload(conversation, messageDto, sender)
+    );
+
+    return message;
+  }
+
+  /**
+   * 私信会话的推送内容，附带每个接收者的未读数
+   */
+  private MessageNotificationPayload buildConversationPayload(
+    MessageConversation conversation,
+    MessageDto messageDto,
+    User sender
+  ) {
+    Long senderId = sender.getId();
+    Map<Long, MessageUnreadCounter> counters = unreadCounterRepository
+      .findAllById(
+        conversation
+          .getParticipants()
+          .stream()
+          .map(p -> p.getUser().getId())
+          .filter(id -> !id.equals(senderId))
+          .collect(Collectors.toList())
+      )
+      .stream()
+      .collect(Collectors.toMap(MessageUnreadCounter::getUserId, c -> c));
 
-    // Build participant payloads once to avoid duplicate broadcasts
-    java.util.List<Map<String, Object>> participantInfos = conversation
+    List<NotificationRecipient> recipients = conversation
       .getParticipants()
       .stream()
       .filter(p -> !p.getUser().getId().equals(senderId))
       .map(p -> {
-        Map<String, Object> info = new HashMap<>();
-        info.put("userId", p.getUser().getId());
-        info.put("username", p.getUser().getUsername());
-        info.put("unreadCount", getUnreadMessageCount(p.getUser().getId()));
-        info.put("channelUnread", getUnreadChannelCount(p.getUser().getId()));
-        return info;
+        MessageUnreadCounter counter = counters.get(p.getUser().getId());
+        return new NotificationRecipient(
+          p.getUser().getId(),
+          p.getUser().getUsername(),
+          counter != null ? counter.getMessageUnread() : 0L,
+          counter != null ? counter.getChannelUnread() : 0L
+        );
       })
       .collect(Collectors.toList());
 
-    Map<String, Object> conversationInfo = new HashMap<>();
-    conversationInfo.put("id", conversation.getId());
-    conversationInfo.put("participants", participantInfos);
-
-    Map<String, Object> combinedPayload = new HashMap<>();
-    combinedPayload.put("message", messageDto);
-    combinedPayload.put("conversation", conversationInfo);
-    combinedPayload.put("senderId", senderId);
+    return MessageNotificationPayload.direct(
+      sender.getUsername(),
+      conversation.getId(),
+      senderId,
+      messageDto,
+      recipients
+    );
+  }
 
-    // Use sender's username for sharding; only one notification is needed
-    notificationProducer.sendNotification(
-      new MessageNotificationPayload(sender.getUsername(), combinedPayload)
+  /**
+   * 频道的推送内容：消息只广播到频道 topic 一次，成员只带 id 用于轻量提醒，
+   * 未读频道数只附带本次由无未读变为有未读的成员，其余成员的数值没有变化，由客户端按需拉取
+   */
+  private MessageNotificationPayload buildChannelPayload(
+    MessageConversation conversation,
+    MessageDto messageDto,
+    User sender
+  ) {
+    Long senderId = sender.getId();
+    List<MessageParticipant> newlyUnread = participantRepository.findNewlyUnread(
+      conversation.getId(),
+      senderId
     );
+    Map<Long, MessageUnreadCounter> counters = newlyUnread.isEmpty()
+      ? Map.of()
+      : unreadCounterRepository
+        .findAllById(
+          newlyUnread.stream().map(p -> p.getUser().getId()).collect(Collectors.toList())
+        )
+        .stream()
+        .collect(Collectors.toMap(MessageUnreadCounter::getUserId, c -> c));
+    List<NotificationRecipient> unreadDeltas = newlyUnread
+      .stream()
+      .map(p -> {
+        MessageUnreadCounter counter = counters.get(p.getUser().getId());
+        return new NotificationRecipient(
+          p.getUser().getId(),
+          p.getUser().getUsername(),
+          null,
+          counter != null ? counter.getChannelUnread() : 1L
+        );
+      })
+      .collect(Collectors.toList());
 
-    return message;
+    return MessageNotificationPayload.channel(
+      sender.getUsername(),
+      conversation.getId(),
+      senderId,
+      messageDto,
+      unreadDeltas,
+      participantRepository.findRecipientIds(conversation.getId(), senderId)
+    );
   }
 
   public MessageDto toDto(Message message) {
+    return toDto(message, reactionRepository.findByMessage(message));
+  }
+
+  private MessageDto toDto(Message message, List<Reaction> reactions) {
     MessageDto dto = new MessageDto();
     dto.setId(message.getId());
     dto.setContent(message.getContent());
@@ -228,7 +292,6 @@ public class MessageService {
       dto.setReplyTo(replyDto);
     }
 
-    java.util.List<Reaction> reactions = reactionRepository.findByMessage(message);
     java.util.List<ReactionDto> reactionDtos = reactions
       .stream()
       .map(reactionMapper::toDto)
@@ -288,30 +351,93 @@ public class MessageService {
       });
   }
 
+  /**
+   * 私信会话列表，按最后活跃时间倒序
+   * 整页固定 3 次查询：会话及最后一条消息、参与者及用户、最后一条消息的表态；未读数取参与者计数
+   * @param cursor 上一页返回的游标，为空时从第一页开始
+   * @param size 每页条数，为空时返回全部
+   */
   @Transactional(readOnly = true)
-  public List<ConversationDto> getConversations(Long userId) {
-    List<MessageConversation> conversations =
-      conversationRepository.findConversationsByUserIdOrderByLastMessageDesc(userId);
+  public List<ConversationDto> getConversations(Long userId, String cursor, Integer size) {
+    ConversationCursor after = ConversationCursor.decode(cursor);
+    Pageable pageable = size != null && size > 0
+      ? PageRequest.of(0, Math.min(size, MAX_CONVERSATION_PAGE_SIZE))
+      : Pageable.unpaged();
+    List<MessageConversation> conversations = after == null
+      ? conversationRepository.findDirectConversationsByUserId(userId, pageable)
+      : conversationRepository.findDirectConversationsByUserIdAfter(
+        userId,
+        after.activityAt(),
+        after.id(),
+        pageable
+      );
+    if (conversations.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<Long> conversationIds = conversations
+      .stream()
+      .map(MessageConversation::getId)
+      .collect(Collectors.toList());
+    Map<Long, List<MessageParticipant>> participants = participantRepository
+      .findWithUsersByConversationIdIn(conversationIds)
+      .stream()
+      .collect(Collectors.groupingBy(p -> p.getConversation().getId()));
+    List<Long> lastMessageIds = conversations
+      .stream()
+      .map(MessageConversation::getLastMessage)
+      .filter(Objects::nonNull)
+      .map(Message::getId)
+      .collect(Collectors.toList());
+    Map<Long, List<Reaction>> reactions = lastMessageIds.isEmpty()
+      ? Map.of()
+      : reactionRepository
+        .findWithUsersByMessageIdIn(lastMessageIds)
+        .stream()
+        .collect(Collectors.groupingBy(r -> r.getMessage().getId()));
+
     return conversations
       .stream()
-      .filter(c -> !c.isChannel())
-      .map(c -> toDto(c, userId))
+      .map(c -> toDto(c, userId, participants.getOrDefault(c.getId(), List.of()), reactions))
       .collect(Collectors.toList());
   }
 
-  private ConversationDto toDto(MessageConversation conversation, Long userId) {
+  /**
+   * 根据本页最后一个会话生成下一页游标，没有更多数据时返回 null
+   */
+  public String nextConversationCursor(List<ConversationDto> conversations, Integer size) {
+    if (size == null || size <= 0 || conversations.isEmpty()) {
+      return null;
+    }
+    if (conversations.size() < Math.min(size, MAX_CONVERSATION_PAGE_SIZE)) {
+      return null;
+    }
+    ConversationDto last = conversations.get(conversations.size() - 1);
+    LocalDateTime activityAt = last.getLastMessage() != null
+      ? last.getLastMessage().getCreatedAt()
+      : last.getCreatedAt();
+    return new ConversationCursor(activityAt, last.getId()).encode();
+  }
+
+  private ConversationDto toDto(
+    MessageConversation conversation,
+    Long userId,
+    List<MessageParticipant> participants,
+    Map<Long, List<Reaction>> reactions
+  ) {
     ConversationDto dto = new ConversationDto();
     dto.setId(conversation.getId());
     dto.setChannel(conversation.isChannel());
     dto.setName(conversation.getName());
     dto.setAvatar(conversation.getAvatar());
     dto.setCreatedAt(conversation.getCreatedAt());
-    if (conversation.getLastMessage() != null) {
-      dto.setLastMessage(toDto(conversation.getLastMessage()));
+    Message lastMessage = conversation.getLastMessage();
+    if (lastMessage != null) {
+      List<Reaction> lastReactions = reactions.getOrDefault(lastMessage.getId(), List.of());
+      dto.setLastMessage(toDto(lastMessage, lastReactions));
     }
     dto.setParticipants(
-      conversation
-        .getParticipants()
+      participants
         .stream()
         .map(p -> {
           UserSummaryDto userDto = new UserSummaryDto();
@@ -324,23 +450,12 @@ public class MessageService {
         .collect(Collectors.toList())
     );
 
-    MessageParticipant self = conversation
-      .getParticipants()
+    MessageParticipant self = participants
       .stream()
       .filter(p -> p.getUser().getId().equals(userId))
       .findFirst()
       .orElseThrow(() -> new IllegalStateException("Participant not found in conversation"));
-
-    LocalDateTime lastRead = self.getLastReadAt() == null
-      ? LocalDateTime.of(1970, 1, 1, 0, 0)
-      : self.getLastReadAt();
-    // 只计算别人发送给当前用户的未读消息
-    long unreadCount = messageRepository.countByConversationIdAndCreatedAtAfterAndSenderIdNot(
-      conversation.getId(),
-      lastRead,
-      userId
-    );
-    dto.setUnreadCount(unreadCount);
+    dto.setUnreadCount(self.getUnreadCount());
 
     return dto;
   }
@@ -358,7 +473,10 @@ public class MessageService {
       .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
 
     Page<Message> messagesPage = messageRepository.findByConversationId(conversationId, pageable);
-    Page<MessageDto> messageDtoPage = messagesPage.map(this::toDto);
+    Map<Long, List<Reaction>> reactions = loadReactions(messagesPage.getContent());
+    Page<MessageDto> messageDtoPage = messagesPage.map(m ->
+      toDto(m, reactions.getOrDefault(m.getId(), List.of()))
+    );
 
     List<UserSummaryDto> participants = conversation
       .getParticipants()
@@ -384,52 +502,114 @@ public class MessageService {
     return detailDto;
   }
 
+  /**
+   * 按消息 id 游标翻页，新消息到达不会让已加载的页错位
+   *
+   * @param before 返回 id 小于该值的消息，向上翻看历史
+   * @param after 返回 id 大于该值的消息，用于补齐断线期间的新消息
+   * @return 按 id 倒序排列的消息；before 与 after 都为空时返回最新一页
+   */
+  @Transactional(readOnly = true)
+  public List<MessageDto> getConversationMessages(
+    Long conversationId,
+    Long userId,
+    Long before,
+    Long after,
+    int size
+  ) {
+    if (before != null && after != null) {
+      throw new IllegalArgumentException("Only one of before and after can be specified");
+    }
+    participantRepository
+      .findByConversationIdAndUserId(conversationId, userId)
+      .orElseThrow(() -> new IllegalArgumentException("Participant not found"));
+
+    Pageable limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_MESSAGE_PAGE_SIZE)));
+    List<Message> messages;
+    if (after != null) {
+      messages = new ArrayList<>(
+        messageRepository.findByConversationIdAfter(conversationId, after, limit)
+      );
+      Collections.reverse(messages);
+    } else {
+      messages = messageRepository.findByConversationIdBefore(
+        conversationId,
+        before != null ? before : Long.MAX_VALUE,
+        limit
+      );
+    }
+
+    Map<Long, List<Reaction>> reactions = loadReactions(messages);
+    return messages
+      .stream()
+      .map(m -> toDto(m, reactions.getOrDefault(m.getId(), List.of())))
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * 一次查出本页所有消息的表情回应
+   */
+  private Map<Long, List<Reaction>> loadReactions(List<Message> messages) {
+    if (messages.isEmpty()) {
+      return Map.of();
+    }
+    List<Long> messageIds = messages.stream().map(Message::getId).collect(Collectors.toList());
+    return reactionRepository
+      .findWithUsersByMessageIdIn(messageIds)
+      .stream()
+      .collect(Collectors.groupingBy(r -> r.getMessage().getId()));
+  }
+
   @Transactional
   public void markConversationAsRead(Long conversationId, Long userId) {
     MessageParticipant participant = participantRepository
-      .findByConversationIdAndUserId(conversationId, userId)
+      .findForUpdate(conversationId, userId)
       .orElseThrow(() -> new IllegalArgumentException("Participant not found"));
+    long unread = participant.getUnreadCount();
+    if (unread > 0) {
+      if (participant.getConversation().isChannel()) {
+        unreadCounterRepository.decrementChannelUnread(userId);
+      } else {
+        unreadCounterRepository.decrementMessageUnread(userId, unread);
+      }
+    }
+    participant.setUnreadCount(0);
     participant.setLastReadAt(LocalDateTime.now());
     participantRepository.save(participant);
   }
 
+  /**
+   * 私信未读消息总数
+   */
   @Transactional(readOnly = true)
   public long getUnreadMessageCount(Long userId) {
-    List<MessageParticipant> participations = participantRepository.findByUserId(userId);
-    long totalUnreadCount = 0;
-    for (MessageParticipant p : participations) {
-      if (p.getConversation().isChannel()) continue;
-      LocalDateTime lastRead = p.getLastReadAt() == null
-        ? LocalDateTime.of(1970, 1, 1, 0, 0)
-        : p.getLastReadAt();
-      // 只计算别人发送给当前用户的未读消息
-      totalUnreadCount += messageRepository.countByConversationIdAndCreatedAtAfterAndSenderIdNot(
-        p.getConversation().getId(),
-        lastRead,
-        userId
-      );
-    }
-    return totalUnreadCount;
+    return unreadCounterRepository
+      .findById(userId)
+      .map(MessageUnreadCounter::getMessageUnread)
+      .orElse(0L);
   }
 
+  /**
+   * 有未读消息的频道数
+   */
   @Transactional(readOnly = true)
   public long getUnreadChannelCount(Long userId) {
-    List<MessageParticipant> participations = participantRepository.findByUserId(userId);
-    long unreadChannelCount = 0;
-    for (MessageParticipant p : participations) {
-      if (!p.getConversation().isChannel()) continue;
-      LocalDateTime lastRead = p.getLastReadAt() == null
-        ? LocalDateTime.of(1970, 1, 1, 0, 0)
-        : p.getLastReadAt();
-      long unread = messageRepository.countByConversationIdAndCreatedAtAfterAndSenderIdNot(
-        p.getConversation().getId(),
-        lastRead,
-        userId
-      );
-      if (unread > 0) {
-        unreadChannelCount++;
-      }
+    return unreadCounterRepository
+      .findById(userId)
+      .map(MessageUnreadCounter::getChannelUnread)
+      .orElse(0L);
+  }
+
+  /**
+   * 新消息使会话中其他参与者的未读数 +1，并同步用户维度的汇总
+   * 先更新参与者再更新汇总，与 {@link #markConversationAsRead} 的加锁顺序一致
+   */
+  private void incrementUnread(MessageConversation conversation, Long senderId) {
+    participantRepository.incrementUnreadCount(conversation.getId(), senderId);
+    if (conversation.isChannel()) {
+      unreadCounterRepository.incrementChannelUnread(conversation.getId(), senderId);
+    } else {
+      unreadCounterRepository.incrementMessageUnread(conversation.getId(), senderId);
     }
-    return unreadChannelCount;
   }
 }
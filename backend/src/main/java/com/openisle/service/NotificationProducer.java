@@ -4,56 +4,362 @@ import com.openisle.config.RabbitMQConfig;
 import com.openisle.config.ShardInfo;
 import com.openisle.config.ShardingStrategy;
 import com.openisle.dto.MessageNotificationPayload;
-import lombok.RequiredArgsConstructor;
+import com.openisle.dto.NotificationRecipient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * 通知异步发布
+ * 调用方只把通知放入所属分片的有界缓冲区，后台每个分片一个线程批量发布并等待 publisher confirm；
+ * 失败时按指数退避重试，重试耗尽或缓冲区已满时写入磁盘溢出区，由定时任务回放。
+ * 整批重试可能导致少量重复投递，websocket 推送对此不敏感。
+ * 回放的消息可能晚于更新的未读数送达，因此回放时丢弃比该用户已发布的未读数更旧的未读字段。
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class NotificationProducer {
 
   private final RabbitTemplate rabbitTemplate;
   private final ShardingStrategy shardingStrategy;
+  private final NotificationSpool spool;
+  private final MeterRegistry meterRegistry;
 
   @Value("${rabbitmq.sharding.enabled}")
   private boolean shardingEnabled;
 
-  public void sendNotification(MessageNotificationPayload payload) {
-    String targetUsername = payload.getTargetUsername();
+  @Value("${app.notification.publisher.buffer-capacity:1000}")
+  private int bufferCapacity = 1000;
+
+  @Value("${app.notification.publisher.batch-size:100}")
+  private int batchSize = 100;
+
+  @Value("${app.notification.publisher.confirm-timeout-ms:5000}")
+  private long confirmTimeoutMs = 5000;
+
+  @Value("${app.notification.publisher.max-attempts:5}")
+  private int maxAttempts = 5;
+
+  @Value("${app.notification.publisher.initial-backoff-ms:200}")
+  private long initialBackoffMs = 200;
+
+  @Value("${app.notification.publisher.max-backoff-ms:10000}")
+  private long maxBackoffMs = 10000;
+
+  private final List<ShardBuffer> buffers = new ArrayList<>();
+  private ExecutorService workers;
+  private Timer confirmLatency;
+  private Counter retries;
+  private Counter spooled;
+  private volatile boolean running;
+  // 最近一次发布是否成功，失败期间回放放慢
+  private volatile boolean brokerHealthy = true;
+  // 溢出区非空期间，每个用户已发布的最新未读数对应的消息 id；溢出区清空后重置
+  private final Map<Long, Long> publishedUnread = new ConcurrentHashMap<>();
+
+  private record ShardBuffer(
+    int index,
+    String routingKey,
+    BlockingQueue<MessageNotificationPayload> queue
+  ) {}
+
+  public NotificationProducer(
+    RabbitTemplate rabbitTemplate,
+    ShardingStrategy shardingStrategy,
+    NotificationSpool spool,
+    MeterRegistry meterRegistry
+  ) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.shardingStrategy = shardingStrategy;
+    this.spool = spool;
+    this.meterRegistry = meterRegistry;
+  }
 
+  @PostConstruct
+  public void start() {
+    if (shardingEnabled) {
+      for (ShardInfo shard : shardingStrategy.getAllShards()) {
+        buffers.add(newBuffer(shard.getShardIndex(), shard.getRoutingKey()));
+      }
+    } else {
+      // 使用原始单队列方式发送（向后兼容）
+      buffers.add(newBuffer(0, RabbitMQConfig.ROUTING_KEY));
+    }
+    confirmLatency = Timer.builder("notification.publisher.confirm.latency")
+      .description("Time to publish a batch and receive its publisher confirms")
+      .publishPercentiles(0.5, 0.95, 0.99)
+      .register(meterRegistry);
+    retries = meterRegistry.counter("notification.publisher.retries");
+    spooled = meterRegistry.counter("notification.publisher.spooled");
+    Gauge.builder("notification.publisher.spool.files", spool, NotificationSpool::fileCount)
+      .description("Notification batches waiting on disk")
+      .register(meterRegistry);
+
+    running = true;
+    workers = Executors.newFixedThreadPool(
+      buffers.size(),
+      new CustomizableThreadFactory("notification-publisher-")
+    );
+    for (ShardBuffer buffer : buffers) {
+      workers.execute(() -> publishLoop(buffer));
+    }
+  }
+
+  /**
+   * 停止时先让后台线程发完缓冲区，剩余的写入磁盘，重启后回放
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    workers.shutdown();
     try {
-      if (shardingEnabled) {
-        // 使用分片策略发送消息
-        sendShardedNotification(payload, targetUsername);
-      } else {
-        // 使用原始单队列方式发送（向后兼容）
-        sendLegacyNotification(payload);
+      if (!workers.awaitTermination(confirmTimeoutMs * 2, TimeUnit.MILLISECONDS)) {
+        workers.shutdownNow();
       }
-    } catch (Exception e) {
-      log.error("Failed to send message to RabbitMQ for user: {}", targetUsername, e);
-      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (ShardBuffer buffer : buffers) {
+      List<MessageNotificationPayload> remaining = new ArrayList<>();
+      buffer.queue().drainTo(remaining);
+      spool(remaining);
+    }
+  }
+
+  /**
+   * 放入缓冲区后立即返回，不会因 RabbitMQ 变慢而阻塞调用方
+   */
+  public void sendNotification(MessageNotificationPayload payload) {
+    if (!running || !bufferFor(payload).queue().offer(payload)) {
+      log.warn(
+        "Notification buffer unavailable, spooling message for user {}",
+        payload.targetUsername()
+      );
+      spool(List.of(payload));
     }
   }
 
   /**
-   * 使用分片策略发送消息
+   * 分片缓冲区中等待发布的消息数
    */
-  private void sendShardedNotification(MessageNotificationPayload payload, String targetUsername) {
-    ShardInfo shardInfo = shardingStrategy.getShardInfo(targetUsername);
-    rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, shardInfo.getRoutingKey(), payload);
+  public int getBufferDepth(int shardIndex) {
+    if (shardIndex < 0 || shardIndex >= buffers.size()) {
+      return 0;
+    }
+    return buffers.get(shardIndex).queue().size();
+  }
+
+  /**
+   * 回放磁盘溢出区：RabbitMQ 正常时尽量放回缓冲区，异常期间每次只试探一个文件
+   */
+  @Scheduled(
+    fixedDelayString = "${app.notification.publisher.spool-replay-interval-ms:10000}",
+    initialDelayString = "${app.notification.publisher.spool-replay-interval-ms:10000}"
+  )
+  public void replaySpool() {
+    if (spool.fileCount() == 0) {
+      publishedUnread.clear();
+    }
+    while (running && spool.fileCount() > 0) {
+      NotificationSpool.SpoolFile file = spool.oldest().orElse(null);
+      if (file == null) {
+        return;
+      }
+      List<MessageNotificationPayload> rejected = new ArrayList<>();
+      for (MessageNotificationPayload spooled : file.payloads()) {
+        MessageNotificationPayload payload = withoutStaleUnread(spooled);
+        if (!bufferFor(payload).queue().offer(payload)) {
+          rejected.add(payload);
+        }
+      }
+      spool.delete(file);
+      if (!rejected.isEmpty()) {
+        spool.write(rejected);
+        return;
+      }
+      if (!brokerHealthy) {
+        return;
+      }
+    }
   }
 
   /**
-   * 使用原始单队列方式发送消息（向后兼容）
+   * 去掉已被更新消息的未读数覆盖的未读字段，消息本身照常推送
    */
-  private void sendLegacyNotification(MessageNotificationPayload payload) {
-    rabbitTemplate.convertAndSend(
-      RabbitMQConfig.EXCHANGE_NAME,
-      RabbitMQConfig.ROUTING_KEY,
-      payload
+  MessageNotificationPayload withoutStaleUnread(MessageNotificationPayload payload) {
+    Long messageId = messageId(payload);
+    if (messageId == null || payload.recipients() == null || publishedUnread.isEmpty()) {
+      return payload;
+    }
+    boolean changed = false;
+    List<NotificationRecipient> recipients = new ArrayList<>(payload.recipients().size());
+    for (NotificationRecipient recipient : payload.recipients()) {
+      Long newest = publishedUnread.get(recipient.userId());
+      if (newest != null && newest > messageId && hasUnread(recipient)) {
+        recipients.add(
+          new NotificationRecipient(recipient.userId(), recipient.username(), null, null)
+        );
+        changed = true;
+      } else {
+        recipients.add(recipient);
+      }
+    }
+    if (!changed) {
+      return payload;
+    }
+    return new MessageNotificationPayload(
+      payload.version(),
+      payload.targetUsername(),
+      payload.conversationId(),
+      payload.channel(),
+      payload.senderId(),
+      payload.message(),
+      recipients,
+      payload.recipientIds()
     );
   }
+
+  private void recordPublishedUnread(List<MessageNotificationPayload> batch) {
+    for (MessageNotificationPayload payload : batch) {
+      Long messageId = messageId(payload);
+      if (messageId == null || payload.recipients() == null) {
+        continue;
+      }
+      for (NotificationRecipient recipient : payload.recipients()) {
+        if (recipient.userId() != null && hasUnread(recipient)) {
+          publishedUnread.merge(recipient.userId(), messageId, Math::max);
+        }
+      }
+    }
+  }
+
+  private static boolean hasUnread(NotificationRecipient recipient) {
+    return recipient.unreadCount() != null || recipient.channelUnread() != null;
+  }
+
+  private static Long messageId(MessageNotificationPayload payload) {
+    return payload.message() != null ? payload.message().getId() : null;
+  }
+
+  private ShardBuffer newBuffer(int index, String routingKey) {
+    ShardBuffer buffer = new ShardBuffer(
+      index,
+      routingKey,
+      new ArrayBlockingQueue<>(bufferCapacity)
+    );
+    Gauge.builder("notification.publisher.queue.depth", buffer.queue(), BlockingQueue::size)
+      .description("Notifications buffered for publishing")
+      .tag("shard", String.valueOf(index))
+      .register(meterRegistry);
+    return buffer;
+  }
+
+  private ShardBuffer bufferFor(MessageNotificationPayload payload) {
+    if (!shardingEnabled) {
+      return buffers.get(0);
+    }
+    ShardInfo shard = shardingStrategy.getShardInfo(payload.targetUsername());
+    return buffers.get(shard.getShardIndex());
+  }
+
+  private void publishLoop(ShardBuffer buffer) {
+    List<MessageNotificationPayload> batch = new ArrayList<>(batchSize);
+    while (running || !buffer.queue().isEmpty()) {
+      try {
+        MessageNotificationPayload first = buffer.queue().poll(500, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        buffer.queue().drainTo(batch, batchSize - 1);
+        publishWithRetry(buffer, batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        spool(batch);
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void publishWithRetry(ShardBuffer buffer, List<MessageNotificationPayload> batch)
+    throws InterruptedException {
+    long backoff = initialBackoffMs;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        publishBatch(buffer.routingKey(), batch);
+        brokerHealthy = true;
+        if (spool.fileCount() > 0) {
+          recordPublishedUnread(batch);
+        }
+        return;
+      } catch (Exception e) {
+        if (attempt >= maxAttempts || !running) {
+          brokerHealthy = false;
+          log.error(
+            "Failed to publish {} notifications to shard {} after {} attempts, spooling",
+            batch.size(),
+            buffer.index(),
+            attempt,
+            e
+          );
+          spool(batch);
+          return;
+        }
+        retries.increment();
+        log.warn(
+          "Publishing to shard {} failed (attempt {}): {}",
+          buffer.index(),
+          attempt,
+          e.getMessage()
+        );
+        Thread.sleep(backoff);
+        backoff = Math.min(backoff * 2, maxBackoffMs);
+      }
+    }
+  }
+
+  /**
+   * 在同一个 channel 上连续发布整批消息，再一次性等待 broker 确认；有 nack 或超时则抛出异常
+   */
+  private void publishBatch(String routingKey, List<MessageNotificationPayload> batch) {
+    long start = System.nanoTime();
+    rabbitTemplate.invoke(ops -> {
+      for (MessageNotificationPayload payload : batch) {
+        ops.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, payload);
+      }
+      ops.waitForConfirmsOrDie(confirmTimeoutMs);
+      return null;
+    });
+    confirmLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private void spool(List<MessageNotificationPayload> payloads) {
+    if (payloads.isEmpty()) {
+      return;
+    }
+    spool.write(new ArrayList<>(payloads));
+    if (spooled != null) {
+      spooled.increment(payloads.size());
+    }
+  }
 }
@@ -8,6 +8,7 @@ import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.EmailSender;
 import com.openisle.exception.EmailSendException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -92,9 +93,6 @@ public class NotificationService {
     n.setFromUser(fromUser);
     n.setReactionType(reactionType);
     n.setContent(content);
-    if (type == NotificationType.POST_VIEWED && fromUser != null && post != null) {
-      notificationRepository.deleteByTypeAndFromUserAndPost(type, fromUser, post);
-    }
     n = notificationRepository.save(n);
 
     //        Runnable asyncTask = () -> {
@@ -152,6 +150,22 @@ public class NotificationService {
     return n;
   }
 
+  /**
+   * 每个 (作者, 浏览者, 文章) 只保留一条 POST_VIEWED 通知，已存在时原地刷新时间和未读状态
+   */
+  public void refreshPostViewedNotification(User owner, User viewer, Post post) {
+    int refreshed = notificationRepository.refreshByTypeAndUserAndFromUserAndPost(
+      NotificationType.POST_VIEWED.name(),
+      owner.getId(),
+      viewer.getId(),
+      post.getId(),
+      LocalDateTime.now()
+    );
+    if (refreshed == 0) {
+      createNotification(owner, NotificationType.POST_VIEWED, post, null, null, viewer, null, null);
+    }
+  }
+
   public void deleteReactionNotification(
     User fromUser,
     Post post,
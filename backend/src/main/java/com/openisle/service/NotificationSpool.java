@@ -0,0 +1,140 @@
+package com.openisle.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.dto.MessageNotificationPayload;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知发布失败或缓冲区满时的磁盘溢出区
+ * 每次写入一个文件，每行一条 JSON 编码的通知；文件名按写入时间排序，回放时从最旧的开始
+ * 目录须在重启后保留，生产环境通过 NOTIFICATION_SPOOL_DIR 指定
+ */
+@Slf4j
+@Component
+public class NotificationSpool {
+
+  private static final String SUFFIX = ".jsonl";
+
+  private final ObjectMapper objectMapper = RabbitMQConfig.notificationObjectMapper();
+  private final Path directory;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger fileCount = new AtomicInteger();
+
+  public record SpoolFile(Path path, List<MessageNotificationPayload> payloads) {}
+
+  public NotificationSpool(
+    @Value(
+      "${app.notification.publisher.spool-dir:${java.io.tmpdir}/openisle-notification-spool}"
+    ) String directory
+  ) {
+    this.directory = Paths.get(directory);
+    try {
+      Files.createDirectories(this.directory);
+      try (Stream<Path> files = list()) {
+        fileCount.set((int) files.count());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot prepare notification spool " + directory, e);
+    }
+    if (this.directory.startsWith(Paths.get(System.getProperty("java.io.tmpdir")))) {
+      log.warn(
+        "Notification spool {} is under java.io.tmpdir and may not survive a restart, " +
+          "set NOTIFICATION_SPOOL_DIR to a durable directory",
+        directory
+      );
+    }
+    if (fileCount.get() > 0) {
+      log.info("Notification spool {} has {} pending files", directory, fileCount.get());
+    }
+  }
+
+  /**
+   * 先写临时文件再原子重命名，避免回放时读到写了一半的文件
+   */
+  public void write(List<MessageNotificationPayload> payloads) {
+    if (payloads.isEmpty()) {
+      return;
+    }
+    String name = String.format(
+      "%013d-%06d",
+      System.currentTimeMillis(),
+      sequence.incrementAndGet() % 1_000_000
+    );
+    Path tmp = directory.resolve(name + ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (MessageNotificationPayload payload : payloads) {
+          writer.write(objectMapper.writeValueAsString(payload));
+          writer.newLine();
+        }
+      }
+      Files.move(tmp, directory.resolve(name + SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+      fileCount.incrementAndGet();
+    } catch (IOException e) {
+      log.error("Failed to spool {} notifications, they are lost", payloads.size(), e);
+    }
+  }
+
+  public Optional<SpoolFile> oldest() {
+    try (Stream<Path> files = list()) {
+      Optional<Path> oldest = files.min(Comparator.comparing(p -> p.getFileName().toString()));
+      if (oldest.isEmpty()) {
+        return Optional.empty();
+      }
+      List<MessageNotificationPayload> payloads = new ArrayList<>();
+      try {
+        for (String line : Files.readAllLines(oldest.get(), StandardCharsets.UTF_8)) {
+          if (!line.isBlank()) {
+            payloads.add(objectMapper.readValue(line, MessageNotificationPayload.class));
+          }
+        }
+      } catch (IOException e) {
+        // 损坏的文件移到一边，避免一直卡住后面的回放
+        log.error("Unreadable spool file {}, moving it aside", oldest.get(), e);
+        Files.move(oldest.get(), oldest.get().resolveSibling(oldest.get().getFileName() + ".bad"));
+        fileCount.decrementAndGet();
+        return Optional.empty();
+      }
+      return Optional.of(new SpoolFile(oldest.get(), payloads));
+    } catch (IOException e) {
+      log.error("Failed to read notification spool", e);
+      return Optional.empty();
+    }
+  }
+
+  public void delete(SpoolFile file) {
+    try {
+      if (Files.deleteIfExists(file.path())) {
+        fileCount.decrementAndGet();
+      }
+    } catch (IOException e) {
+      log.error("Failed to delete spool file {}", file.path(), e);
+    }
+  }
+
+  public int fileCount() {
+    return fileCount.get();
+  }
+
+  private Stream<Path> list() throws IOException {
+    return Files.list(directory).filter(p -> p.getFileName().toString().endsWith(SUFFIX));
+  }
+}
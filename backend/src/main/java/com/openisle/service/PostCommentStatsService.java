@@ -0,0 +1,39 @@
+package com.openisle.service;
+
+import com.openisle.repository.PostRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 文章评论统计的一致性检查
+ * posts.last_reply_at 与 comment_count 在评论增删时由 {@link CommentService} 同步维护，
+ * 这里定期与 comments 表比对，修复异常中断或手工改库造成的偏差
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCommentStatsService {
+
+  private static final int REPAIR_BATCH_SIZE = 500;
+
+  private final PostRepository postRepository;
+
+  /**
+   * @return 修复的文章数
+   */
+  public int repairStaleStats() {
+    List<Long> ids = postRepository.findIdsWithStaleCommentStats();
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    log.warn("Found {} posts with stale comment stats, repairing", ids.size());
+    int repaired = 0;
+    for (int i = 0; i < ids.size(); i += REPAIR_BATCH_SIZE) {
+      List<Long> batch = ids.subList(i, Math.min(i + REPAIR_BATCH_SIZE, ids.size()));
+      repaired += postRepository.recalculateCommentStats(batch);
+    }
+    return repaired;
+  }
+}
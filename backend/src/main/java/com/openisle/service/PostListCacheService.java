@@ -0,0 +1,126 @@
+package com.openisle.service;
+
+import com.openisle.config.CachingConfig;
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import com.openisle.model.Tag;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 文章列表缓存的分代失效
+ * 每个作用域（全站、分类、标签）维护一个代数，列表缓存的 key 带上所查询作用域的代数。
+ * 写操作只递增受影响作用域的代数，旧 key 不再命中，由 TTL 自然过期，无需整体清空缓存。
+ */
+@Service("postListCacheService")
+@RequiredArgsConstructor
+public class PostListCacheService {
+
+  private static final String GENERATION_KEY = CachingConfig.POST_CACHE_NAME + ":generations";
+  private static final String ALL_SCOPE = "all";
+
+  private final StringRedisTemplate stringRedisTemplate;
+
+  /**
+   * 生成列表缓存 key，在 @Cacheable 的 SpEL 中通过 @postListCacheService 调用
+   */
+  public String listKey(
+    String type,
+    Long categoryId,
+    List<Long> categoryIds,
+    Long tagId,
+    List<Long> tagIds,
+    Integer page,
+    Integer pageSize
+  ) {
+    TreeSet<Long> cids = merge(categoryId, categoryIds);
+    TreeSet<Long> tids = merge(tagId, tagIds);
+    List<Object> scopes = new ArrayList<>();
+    if (cids.isEmpty() && tids.isEmpty()) {
+      scopes.add(ALL_SCOPE);
+    }
+    cids.forEach(id -> scopes.add(categoryScope(id)));
+    tids.forEach(id -> scopes.add(tagScope(id)));
+    List<Object> generations = stringRedisTemplate.opsForHash().multiGet(GENERATION_KEY, scopes);
+
+    StringBuilder key = new StringBuilder(type)
+      .append(":c")
+      .append(cids)
+      .append(":t")
+      .append(tids)
+      .append(":p")
+      .append(page)
+      .append(":s")
+      .append(pageSize)
+      .append(":g");
+    for (Object generation : generations) {
+      key.append(generation != null ? generation : "0").append('.');
+    }
+    return key.toString();
+  }
+
+  /**
+   * 文章（或其评论）发生变化，使包含该文章的列表缓存失效
+   */
+  public void evict(Post post) {
+    if (post == null) {
+      return;
+    }
+    evict(post.getCategory(), post.getTags());
+  }
+
+  public void evict(Category category, Collection<Tag> tags) {
+    List<String> scopes = new ArrayList<>();
+    scopes.add(ALL_SCOPE);
+    if (category != null) {
+      scopes.add(categoryScope(category.getId()));
+    }
+    if (tags != null) {
+      tags.forEach(tag -> scopes.add(tagScope(tag.getId())));
+    }
+    // 事务提交前递增代数，并发请求可能用新代数缓存提交前的旧数据，因此推迟到提交之后
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            bump(scopes);
+          }
+        }
+      );
+    } else {
+      bump(scopes);
+    }
+  }
+
+  private void bump(List<String> scopes) {
+    for (String scope : scopes) {
+      stringRedisTemplate.opsForHash().increment(GENERATION_KEY, scope, 1);
+    }
+  }
+
+  private static TreeSet<Long> merge(Long id, List<Long> ids) {
+    TreeSet<Long> result = new TreeSet<>();
+    if (id != null) {
+      result.add(id);
+    } else if (ids != null) {
+      result.addAll(ids);
+    }
+    return result;
+  }
+
+  private static String categoryScope(Long id) {
+    return "c:" + id;
+  }
+
+  private static String tagScope(Long id) {
+    return "t:" + id;
+  }
+}
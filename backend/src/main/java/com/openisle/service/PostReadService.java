@@ -4,46 +4,136 @@ import com.openisle.model.Post;
 import com.openisle.model.PostRead;
 import com.openisle.model.User;
 import com.openisle.repository.PostReadRepository;
-import com.openisle.repository.PostRepository;
 import com.openisle.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PostReadService {
 
   private final PostReadRepository postReadRepository;
   private final UserRepository userRepository;
-  private final PostRepository postRepository;
+  private final JdbcTemplate jdbcTemplate;
 
-  public void recordRead(String username, Long postId) {
-    if (username == null) return;
-    User user = userRepository
-      .findByUsername(username)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
-    postReadRepository
-      .findByUserAndPost(user, post)
-      .ifPresentOrElse(
-        pr -> {
-          pr.setLastReadAt(LocalDateTime.now());
-          postReadRepository.save(pr);
-        },
-        () -> {
-          PostRead pr = new PostRead();
-          pr.setUser(user);
-          pr.setPost(post);
-          pr.setLastReadAt(LocalDateTime.now());
-          postReadRepository.save(pr);
-        }
+  private static final int FLUSH_CHUNK_SIZE = 500;
+
+  private final ConcurrentMap<PostReadKey, LocalDateTime> pendingReads = new ConcurrentHashMap<>();
+
+  @Value("${app.post.reads-buffer-size:50000}")
+  private int maxPendingReads = 50000;
+
+  private record PostReadKey(Long userId, Long postId) {}
+
+  /**
+   * 记录阅读，只写入内存缓冲
+   * 同一 (user, post) 在一个窗口内合并为一条，由 {@link #flushPendingReads()} 批量落库
+   */
+  public void recordRead(Long userId, Long postId) {
+    if (userId == null || postId == null) return;
+    PostReadKey key = new PostReadKey(userId, postId);
+    if (pendingReads.size() >= maxPendingReads && !pendingReads.containsKey(key)) {
+      log.warn("Post read buffer is full, dropping read of post {} by user {}", postId, userId);
+      return;
+    }
+    pendingReads.put(key, LocalDateTime.now());
+  }
+
+  /**
+   * 将缓冲中的阅读记录以多行 upsert 的方式批量写入 post_reads
+   */
+  @Scheduled(
+    fixedDelayString = "${app.post.reads-flush-interval-ms:5000}",
+    initialDelayString = "${app.post.reads-flush-interval-ms:5000}"
+  )
+  public void flushPendingReads() {
+    if (pendingReads.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<PostReadKey, LocalDateTime>> batch = new ArrayList<>(pendingReads.entrySet());
+    for (int from = 0; from < batch.size(); from += FLUSH_CHUNK_SIZE) {
+      List<Map.Entry<PostReadKey, LocalDateTime>> chunk = batch.subList(
+        from,
+        Math.min(from + FLUSH_CHUNK_SIZE, batch.size())
       );
+      try {
+        upsertReads(chunk);
+      } catch (DataIntegrityViolationException e) {
+        // 文章或用户已被删除，逐条写入并丢弃违反外键的记录，避免整块一直重试
+        upsertOneByOne(chunk);
+        continue;
+      } catch (Exception e) {
+        log.warn("Failed to flush {} post reads: {}", chunk.size(), e.getMessage());
+        continue;
+      }
+      // 只移除写入后未再次更新的记录
+      for (Map.Entry<PostReadKey, LocalDateTime> entry : chunk) {
+        pendingReads.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * 停止时把缓冲中的阅读记录写完，避免重启丢失
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    flushPendingReads();
+    if (!pendingReads.isEmpty()) {
+      log.warn("Dropping {} post reads that could not be flushed on shutdown", pendingReads.size());
+    }
+  }
+
+  private void upsertOneByOne(List<Map.Entry<PostReadKey, LocalDateTime>> chunk) {
+    for (Map.Entry<PostReadKey, LocalDateTime> entry : chunk) {
+      try {
+        upsertReads(List.of(entry));
+      } catch (DataIntegrityViolationException e) {
+        log.debug(
+          "Dropping read of missing post {} by user {}",
+          entry.getKey().postId(),
+          entry.getKey().userId()
+        );
+      } catch (Exception e) {
+        log.warn("Failed to flush read of post {}: {}", entry.getKey().postId(), e.getMessage());
+        continue;
+      }
+      pendingReads.remove(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private void upsertReads(List<Map.Entry<PostReadKey, LocalDateTime>> entries) {
+    StringBuilder sql = new StringBuilder(
+      "INSERT INTO post_reads (user_id, post_id, last_read_at) VALUES "
+    );
+    List<Object> args = new ArrayList<>(entries.size() * 3);
+    for (int i = 0; i < entries.size(); i++) {
+      Map.Entry<PostReadKey, LocalDateTime> entry = entries.get(i);
+      sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+      args.add(entry.getKey().userId());
+      args.add(entry.getKey().postId());
+      args.add(Timestamp.valueOf(entry.getValue()));
+    }
+    sql.append(
+      " ON DUPLICATE KEY UPDATE last_read_at = GREATEST(last_read_at, VALUES(last_read_at))"
+    );
+    jdbcTemplate.update(sql.toString(), args.toArray());
   }
 
   public List<PostRead> getRecentReadsByUser(String username, int limit) {
@@ -63,6 +153,7 @@ public class PostReadService {
 
   @org.springframework.transaction.annotation.Transactional
   public void deleteByPost(Post post) {
+    pendingReads.keySet().removeIf(key -> key.postId().equals(post.getId()));
     postReadRepository.deleteByPost(post);
   }
 }
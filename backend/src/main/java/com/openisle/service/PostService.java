@@ -12,6 +12,7 @@ import com.openisle.repository.NotificationRepository;
 import com.openisle.repository.PointHistoryRepository;
 import com.openisle.repository.PollPostRepository;
 import com.openisle.repository.PollVoteRepository;
+import com.openisle.repository.PostListRow;
 import com.openisle.repository.PostRepository;
 import com.openisle.repository.PostSubscriptionRepository;
 import com.openisle.repository.ReactionRepository;
@@ -19,6 +20,8 @@ import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.search.SearchIndexEventPublisher;
 import com.openisle.service.EmailSender;
+import com.openisle.util.MarkdownExcerpt;
+import com.openisle.util.PostCursor;
 import com.openisle.exception.EmailSendException;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -32,7 +35,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
@@ -65,6 +67,9 @@ public class PostService {
   private final PostSubscriptionRepository postSubscriptionRepository;
   private final NotificationRepository notificationRepository;
   private final PostReadService postReadService;
+  private final PostViewService postViewService;
+  private final PostViewedNotificationService postViewedNotificationService;
+  private final PostListCacheService postListCacheService;
   private final ImageUploader imageUploader;
   private final TaskScheduler taskScheduler;
   private final EmailSender emailSender;
@@ -82,6 +87,8 @@ public class PostService {
   private static final int DEFAULT_PROPOSAL_QUORUM = 10;
   private static final long DEFAULT_PROPOSAL_DURATION_DAYS = 3;
   private static final List<String> DEFAULT_PROPOSAL_OPTIONS = List.of("同意", "反对");
+  private static final int DEFAULT_CURSOR_PAGE_SIZE = 20;
+  private static final int MAX_CURSOR_PAGE_SIZE = 100;
 
   @Value("${app.website-url:https://www.open-isle.com}")
   private String websiteUrl;
@@ -106,6 +113,9 @@ public class PostService {
     PostSubscriptionRepository postSubscriptionRepository,
     NotificationRepository notificationRepository,
     PostReadService postReadService,
+    PostViewService postViewService,
+    PostViewedNotificationService postViewedNotificationService,
+    PostListCacheService postListCacheService,
     ImageUploader imageUploader,
     TaskScheduler taskScheduler,
     EmailSender emailSender,
@@ -134,6 +144,9 @@ public class PostService {
     this.postSubscriptionRepository = postSubscriptionRepository;
     this.notificationRepository = notificationRepository;
     this.postReadService = postReadService;
+    this.postViewService = postViewService;
+    this.postViewedNotificationService = postViewedNotificationService;
+    this.postListCacheService = postListCacheService;
     this.imageUploader = imageUploader;
     this.taskScheduler = taskScheduler;
     this.emailSender = emailSender;
@@ -246,7 +259,6 @@ public class PostService {
     return saved;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post createPost(
     String username,
     Long categoryId,
@@ -335,11 +347,11 @@ public class PostService {
     post.setType(actualType);
     post.setTitle(title);
     post.setContent(content);
+    post.setExcerpt(MarkdownExcerpt.of(content));
     post.setAuthor(author);
     post.setCategory(category);
     post.setTags(new HashSet<>(tags));
     post.setStatus(publishMode == PublishMode.REVIEW ? PostStatus.PENDING : PostStatus.PUBLISHED);
-    post.setLastReplyAt(LocalDateTime.now());
 
     // 什么都没设置的情况下，默认为ALL
     if (Objects.isNull(postVisibleScopeType)) {
@@ -422,11 +434,11 @@ public class PostService {
     if (post.getStatus() == PostStatus.PUBLISHED) {
       searchIndexEventPublisher.publishPostSaved(post);
     }
+    postListCacheService.evict(post);
     markPostLimit(author.getUsername());
     return post;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void finalizeProposal(Long postId) {
     scheduledFinalizations.remove(postId);
@@ -471,6 +483,7 @@ public class PostService {
             approvePercent
         );
         categoryProposalPostRepository.save(cp);
+        postListCacheService.evict(cp);
         if (approved) {
           categoryService.createCategory(cp.getProposedName(), cp.getDescription(), "star", null);
         }
@@ -528,7 +541,6 @@ public class PostService {
     redisTemplate.opsForValue().set(key, "1", Duration.ofMinutes(5));
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public void joinLottery(Long postId, String username) {
     LotteryPost post = lotteryPostRepository
       .findById(postId)
@@ -539,6 +551,7 @@ public class PostService {
     if (post.getParticipants().add(user)) {
       pointService.processLotteryJoin(user, post);
       lotteryPostRepository.save(post);
+      postListCacheService.evict(post);
     }
   }
 
@@ -548,7 +561,6 @@ public class PostService {
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public PollPost votePoll(Long postId, String username, java.util.List<Integer> optionIndices) {
     PollPost post = pollPostRepository
@@ -582,6 +594,7 @@ public class PostService {
       pollVoteRepository.save(vote);
     }
     PollPost saved = pollPostRepository.save(post);
+    postListCacheService.evict(saved);
     if (post.getAuthor() != null && !post.getAuthor().getId().equals(user.getId())) {
       notificationService.createNotification(
         post.getAuthor(),
@@ -597,7 +610,6 @@ public class PostService {
     return saved;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void finalizePoll(Long postId) {
     scheduledFinalizations.remove(postId);
@@ -612,6 +624,7 @@ public class PostService {
         }
         pp.setResultAnnounced(true);
         pollPostRepository.save(pp);
+        postListCacheService.evict(pp);
         if (pp.getAuthor() != null) {
           notificationService.createNotification(
             pp.getAuthor(),
@@ -640,7 +653,6 @@ public class PostService {
       });
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void finalizeLottery(Long postId) {
     log.info("start to finalizeLottery for {}", postId);
@@ -660,6 +672,7 @@ public class PostService {
         log.info("winner count {}", winnersCount);
         lp.setWinners(winners);
         lotteryPostRepository.save(lp);
+        postListCacheService.evict(lp);
         for (User w : winners) {
           if (
             w.getEmail() != null &&
@@ -738,13 +751,11 @@ public class PostService {
     Post post = postRepository
       .findById(id)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    User viewerUser = viewer != null ? userRepository.findByUsername(viewer).orElse(null) : null;
     if (post.getStatus() != PostStatus.PUBLISHED) {
-      if (viewer == null) {
+      if (viewerUser == null) {
         throw new com.openisle.exception.NotFoundException("User not found");
       }
-      User viewerUser = userRepository
-        .findByUsername(viewer)
-        .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
       if (
         !viewerUser.getRole().equals(com.openisle.model.Role.ADMIN) &&
         !viewerUser.getId().equals(post.getAuthor().getId())
@@ -752,38 +763,16 @@ public class PostService {
         throw new com.openisle.exception.NotFoundException("Post not found");
       }
     }
-    post.setViews(post.getViews() + 1);
-    post = postRepository.save(post);
-    if (viewer != null) {
-      postReadService.recordRead(viewer, id);
+    postViewService.recordView(id);
+    if (viewerUser != null) {
+      postReadService.recordRead(viewerUser.getId(), id);
     }
-    if (viewer != null && !viewer.equals(post.getAuthor().getUsername())) {
-      User viewerUser = userRepository.findByUsername(viewer).orElse(null);
-      if (viewerUser != null) {
-        notificationRepository.deleteByTypeAndFromUserAndPost(
-          NotificationType.POST_VIEWED,
-          viewerUser,
-          post
-        );
-        notificationService.createNotification(
-          post.getAuthor(),
-          NotificationType.POST_VIEWED,
-          post,
-          null,
-          null,
-          viewerUser,
-          null,
-          null
-        );
-      }
+    if (viewerUser != null) {
+      postViewedNotificationService.recordView(post.getAuthor(), viewerUser, post);
     }
     return post;
   }
 
-  public List<Post> listPosts() {
-    return listPostsByCategories(null, null, null);
-  }
-
   public List<Post> listRecentPosts(int minutes) {
     if (minutes <= 0) {
       throw new IllegalArgumentException("Minutes must be positive");
@@ -796,145 +785,6 @@ public class PostService {
     return sortByPinnedAndCreated(posts);
   }
 
-  public List<Post> listPostsByViews(Integer page, Integer pageSize) {
-    return listPostsByViews(null, null, page, pageSize);
-  }
-
-  public List<Post> listPostsByViews(
-    java.util.List<Long> categoryIds,
-    java.util.List<Long> tagIds,
-    Integer page,
-    Integer pageSize
-  ) {
-    boolean hasCategories = categoryIds != null && !categoryIds.isEmpty();
-    boolean hasTags = tagIds != null && !tagIds.isEmpty();
-
-    java.util.List<Post> posts;
-    Pageable pageable = buildPageable(page, pageSize);
-
-    if (!hasCategories && !hasTags) {
-      posts = postRepository.findByStatusOrderByPinnedAtDescViewsDesc(PostStatus.PUBLISHED, pageable);
-    } else if (hasCategories) {
-      java.util.List<Category> categories = categoryRepository.findAllById(categoryIds);
-      if (categories.isEmpty()) {
-        return java.util.List.of();
-      }
-      if (hasTags) {
-        java.util.List<com.openisle.model.Tag> tags = tagRepository.findAllById(tagIds);
-        if (tags.isEmpty()) {
-          return java.util.List.of();
-        }
-        posts = postRepository.findByCategoriesAndAllTagsOrderByPinnedAtDescViewsDesc(
-          categories,
-          tags,
-          PostStatus.PUBLISHED,
-          tags.size(),
-          pageable
-        );
-      } else {
-        posts = postRepository.findByCategoryInAndStatusOrderByPinnedAtDescViewsDesc(
-          categories,
-          PostStatus.PUBLISHED,
-          pageable
-        );
-      }
-    } else {
-      java.util.List<com.openisle.model.Tag> tags = tagRepository.findAllById(tagIds);
-      if (tags.isEmpty()) {
-        return java.util.List.of();
-      }
-      posts = postRepository.findByAllTagsOrderByPinnedAtDescViewsDesc(
-        tags,
-        PostStatus.PUBLISHED,
-        tags.size(),
-        pageable
-      );
-    }
-
-    return posts;
-  }
-
-  public List<Post> listPostsByLatestReply(Integer page, Integer pageSize) {
-    return listPostsByLatestReply(null, null, page, pageSize);
-  }
-
-  public List<Post> listPostsByLatestReply(
-    java.util.List<Long> categoryIds,
-    java.util.List<Long> tagIds,
-    Integer page,
-    Integer pageSize
-  ) {
-    boolean hasCategories = categoryIds != null && !categoryIds.isEmpty();
-    boolean hasTags = tagIds != null && !tagIds.isEmpty();
-
-    java.util.List<Post> posts;
-    Pageable pageable = buildPageable(page, pageSize);
-
-    if (!hasCategories && !hasTags) {
-      posts = postRepository.findByStatusOrderByPinnedAtDescLastReplyAtDesc(
-        PostStatus.PUBLISHED,
-        pageable
-      );
-    } else if (hasCategories) {
-      java.util.List<Category> categories = categoryRepository.findAllById(categoryIds);
-      if (categories.isEmpty()) {
-        return java.util.List.of();
-      }
-      if (hasTags) {
-        java.util.List<com.openisle.model.Tag> tags = tagRepository.findAllById(tagIds);
-        if (tags.isEmpty()) {
-          return java.util.List.of();
-        }
-        posts = postRepository.findByCategoriesAndAllTagsOrderByPinnedAtDescLastReplyAtDesc(
-          categories,
-          tags,
-          PostStatus.PUBLISHED,
-          tags.size(),
-          pageable
-        );
-      } else {
-        posts = postRepository.findByCategoryInAndStatusOrderByPinnedAtDescLastReplyAtDesc(
-          categories,
-          PostStatus.PUBLISHED,
-          pageable
-        );
-      }
-    } else {
-      List<Tag> tags = tagRepository.findAllById(tagIds);
-      if (tags.isEmpty()) {
-        return new ArrayList<>();
-      }
-      posts = postRepository.findByAllTagsOrderByPinnedAtDescLastReplyAtDesc(
-        tags,
-        PostStatus.PUBLISHED,
-        tags.size(),
-        pageable
-      );
-    }
-
-    return posts;
-  }
-
-  public List<Post> listPostsByCategories(
-    java.util.List<Long> categoryIds,
-    Integer page,
-    Integer pageSize
-  ) {
-    if (categoryIds == null || categoryIds.isEmpty()) {
-      java.util.List<Post> posts = postRepository.findByStatusOrderByCreatedAtDesc(
-        PostStatus.PUBLISHED
-      );
-      return paginate(sortByPinnedAndCreated(posts), page, pageSize);
-    }
-
-    java.util.List<Category> categories = categoryRepository.findAllById(categoryIds);
-    java.util.List<Post> posts = postRepository.findByCategoryInAndStatusOrderByCreatedAtDesc(
-      categories,
-      PostStatus.PUBLISHED
-    );
-    return paginate(sortByPinnedAndCreated(posts), page, pageSize);
-  }
-
   public List<Post> getRecentPostsByUser(String username, int limit) {
     User user = userRepository
       .findByUsername(username)
@@ -956,113 +806,99 @@ public class PostService {
     return v != null ? v : 0;
   }
 
-  public List<Post> listPostsByTags(java.util.List<Long> tagIds, Integer page, Integer pageSize) {
-    if (tagIds == null || tagIds.isEmpty()) {
-      return java.util.List.of();
-    }
-
-    java.util.List<com.openisle.model.Tag> tags = tagRepository.findAllById(tagIds);
-    if (tags.isEmpty()) {
-      return java.util.List.of();
-    }
-
-    java.util.List<Post> posts = postRepository.findByAllTagsOrderByCreatedAtDesc(
-      tags,
-      PostStatus.PUBLISHED,
-      tags.size()
-    );
-    return paginate(sortByPinnedAndCreated(posts), page, pageSize);
-  }
-
-  public List<Post> listPostsByCategoriesAndTags(
-    java.util.List<Long> categoryIds,
-    java.util.List<Long> tagIds,
+  /**
+   * 列表页使用的轻量文章行，过滤、排序和分页都在数据库中完成，不加载正文
+   * 排序为 置顶时间、排序字段、id 倒序；page 或 pageSize 为空时不分页
+   */
+  public List<PostListRow> listPostRows(
+    PostSort sort,
+    boolean featuredOnly,
+    List<Long> categoryIds,
+    List<Long> tagIds,
     Integer page,
     Integer pageSize
   ) {
-    if (categoryIds == null || categoryIds.isEmpty() || tagIds == null || tagIds.isEmpty()) {
-      return java.util.List.of();
-    }
-
-    java.util.List<Category> categories = categoryRepository.findAllById(categoryIds);
-    java.util.List<com.openisle.model.Tag> tags = tagRepository.findAllById(tagIds);
-    if (categories.isEmpty() || tags.isEmpty()) {
-      return java.util.List.of();
-    }
-
-    java.util.List<Post> posts = postRepository.findByCategoriesAndAllTagsOrderByCreatedAtDesc(
-      categories,
-      tags,
-      PostStatus.PUBLISHED,
-      tags.size()
+    boolean paged = page != null && pageSize != null;
+    return findPostRows(
+      sort,
+      featuredOnly,
+      categoryIds,
+      tagIds,
+      null,
+      paged ? page * pageSize : null,
+      paged ? pageSize : null
     );
-    return paginate(sortByPinnedAndCreated(posts), page, pageSize);
   }
 
-  public List<Post> listFeaturedPosts(
+  /**
+   * 游标分页的文章列表，按 置顶时间、排序字段、id 倒序
+   * @param cursor 上一页返回的游标，空字符串表示第一页
+   */
+  public List<PostListRow> listPostsByCursor(
+    PostSort sort,
+    boolean featuredOnly,
     List<Long> categoryIds,
     List<Long> tagIds,
-    Integer page,
+    String cursor,
     Integer pageSize
   ) {
-    List<Post> posts;
-    boolean hasCategories = categoryIds != null && !categoryIds.isEmpty();
-    boolean hasTags = tagIds != null && !tagIds.isEmpty();
-
-    if (hasCategories && hasTags) {
-      posts = listPostsByCategoriesAndTags(categoryIds, tagIds, null, null);
-    } else if (hasCategories) {
-      posts = listPostsByCategories(categoryIds, null, null);
-    } else if (hasTags) {
-      posts = listPostsByTags(tagIds, null, null);
-    } else {
-      posts = listPosts();
-    }
-
-    // 仅保留 getRssExcluded 为 0 且不为空
-    // 若字段类型是 Boolean（包装类型），0 等价于 false：
-    posts = posts
-      .stream()
-      .filter(p -> p.getRssExcluded() != null && !p.getRssExcluded())
-      .toList();
-
-    return paginate(sortByPinnedAndCreated(posts), page, pageSize);
+    int limit = pageSize != null && pageSize > 0 ? pageSize : DEFAULT_CURSOR_PAGE_SIZE;
+    return findPostRows(
+      sort,
+      featuredOnly,
+      categoryIds,
+      tagIds,
+      PostCursor.decode(cursor, sort),
+      null,
+      Math.min(limit, MAX_CURSOR_PAGE_SIZE)
+    );
   }
 
   /**
-   * 默认的文章列表
-   * @param ids
-   * @param tids
-   * @param page
-   * @param pageSize
-   * @return
+   * 根据本页最后一条记录生成下一页游标，没有更多数据时返回 null
    */
-  public List<Post> defaultListPosts(
-    List<Long> ids,
-    List<Long> tids,
-    Integer page,
-    Integer pageSize
-  ) {
-    boolean hasCategories = !CollectionUtils.isEmpty(ids);
-    boolean hasTags = !CollectionUtils.isEmpty(tids);
-
-    if (hasCategories && hasTags) {
-      return listPostsByCategoriesAndTags(ids, tids, page, pageSize)
-        .stream()
-        .collect(Collectors.toList());
-    }
-    if (hasTags) {
-      return listPostsByTags(tids, page, pageSize).stream().collect(Collectors.toList());
+  public String nextCursor(List<PostListRow> rows, PostSort sort, Integer pageSize) {
+    int limit = pageSize != null && pageSize > 0 ? pageSize : DEFAULT_CURSOR_PAGE_SIZE;
+    if (rows.isEmpty() || rows.size() < Math.min(limit, MAX_CURSOR_PAGE_SIZE)) {
+      return null;
     }
+    return PostCursor.of(rows.get(rows.size() - 1), sort).encode();
+  }
 
-    return listPostsByCategories(ids, page, pageSize).stream().collect(Collectors.toList());
+  private List<PostListRow> findPostRows(
+    PostSort sort,
+    boolean featuredOnly,
+    List<Long> categoryIds,
+    List<Long> tagIds,
+    PostCursor cursor,
+    Integer offset,
+    Integer limit
+  ) {
+    boolean hasCategories = !CollectionUtils.isEmpty(categoryIds);
+    boolean hasTags = !CollectionUtils.isEmpty(tagIds);
+    List<Category> categories = hasCategories
+      ? categoryRepository.findAllById(categoryIds)
+      : List.of();
+    List<Tag> tags = hasTags ? tagRepository.findAllById(tagIds) : List.of();
+    if ((hasCategories && categories.isEmpty()) || (hasTags && tags.isEmpty())) {
+      return new ArrayList<>();
+    }
+    return postRepository.findListRows(
+      PostStatus.PUBLISHED,
+      sort,
+      featuredOnly,
+      categories,
+      tags,
+      cursor,
+      offset,
+      limit
+    );
   }
 
   public List<Post> listPendingPosts() {
     return postRepository.findByStatus(PostStatus.PENDING);
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post approvePost(Long id) {
     Post post = postRepository
       .findById(id)
@@ -1077,6 +913,7 @@ public class PostService {
     }
     post.setStatus(PostStatus.PUBLISHED);
     post = postRepository.save(post);
+    postListCacheService.evict(post);
     searchIndexEventPublisher.publishPostSaved(post);
     notificationService.createNotification(
       post.getAuthor(),
@@ -1124,7 +961,6 @@ public class PostService {
     return post;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post pinPost(Long id, String username) {
     Post post = postRepository
       .findById(id)
@@ -1135,11 +971,11 @@ public class PostService {
     java.time.LocalDateTime oldPinned = post.getPinnedAt();
     post.setPinnedAt(java.time.LocalDateTime.now());
     Post saved = postRepository.save(post);
+    postListCacheService.evict(saved);
     postChangeLogService.recordPinnedChange(saved, user, oldPinned, saved.getPinnedAt());
     return saved;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post unpinPost(Long id, String username) {
     Post post = postRepository
       .findById(id)
@@ -1150,11 +986,11 @@ public class PostService {
     java.time.LocalDateTime oldPinned = post.getPinnedAt();
     post.setPinnedAt(null);
     Post saved = postRepository.save(post);
+    postListCacheService.evict(saved);
     postChangeLogService.recordPinnedChange(saved, user, oldPinned, null);
     return saved;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post closePost(Long id, String username) {
     Post post = postRepository
       .findById(id)
@@ -1168,11 +1004,11 @@ public class PostService {
     boolean oldClosed = post.isClosed();
     post.setClosed(true);
     Post saved = postRepository.save(post);
+    postListCacheService.evict(saved);
     postChangeLogService.recordClosedChange(saved, user, oldClosed, true);
     return saved;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post reopenPost(Long id, String username) {
     Post post = postRepository
       .findById(id)
@@ -1186,11 +1022,11 @@ public class PostService {
     boolean oldClosed = post.isClosed();
     post.setClosed(false);
     Post saved = postRepository.save(post);
+    postListCacheService.evict(saved);
     postChangeLogService.recordClosedChange(saved, user, oldClosed, false);
     return saved;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public Post updatePost(
     Long id,
@@ -1229,11 +1065,14 @@ public class PostService {
     java.util.Set<com.openisle.model.Tag> oldTags = new java.util.HashSet<>(post.getTags());
     post.setTitle(title);
     post.setContent(content);
+    post.setExcerpt(MarkdownExcerpt.of(content));
     post.setCategory(category);
     post.setTags(new java.util.HashSet<>(tags));
     PostVisibleScopeType oldVisibleScope = post.getVisibleScope();
     post.setVisibleScope(postVisibleScopeType);
     Post updated = postRepository.save(post);
+    postListCacheService.evict(oldCategory, oldTags);
+    postListCacheService.evict(updated);
     imageUploader.adjustReferences(oldContent, content);
     notificationService.notifyMentions(content, user, updated, null);
     if (!java.util.Objects.equals(oldTitle, title)) {
@@ -1268,7 +1107,6 @@ public class PostService {
     return updated;
   }
 
-  @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void deletePost(Long id, String username) {
     Post post = postRepository
@@ -1319,6 +1157,7 @@ public class PostService {
     String title = post.getTitle();
     Long postId = post.getId();
     postChangeLogService.deleteLogsForPost(post);
+    postListCacheService.evict(post);
     postRepository.delete(post);
     searchIndexEventPublisher.publishPostDeleted(postId);
     if (adminDeleting) {
@@ -1379,55 +1218,4 @@ public class PostService {
       )
       .toList();
   }
-
-  private java.util.List<Post> sortByPinnedAndViews(java.util.List<Post> posts) {
-    return posts
-      .stream()
-      .sorted(
-        java.util.Comparator.comparing(
-          Post::getPinnedAt,
-          java.util.Comparator.nullsLast(java.util.Comparator.reverseOrder())
-        ).thenComparing(Post::getViews, java.util.Comparator.reverseOrder())
-      )
-      .toList();
-  }
-
-  private java.util.List<Post> sortByPinnedAndLastReply(java.util.List<Post> posts) {
-    return posts
-      .stream()
-      .sorted(
-        java.util.Comparator.comparing(
-          Post::getPinnedAt,
-          java.util.Comparator.nullsLast(java.util.Comparator.reverseOrder())
-        ).thenComparing(
-          p -> {
-            java.time.LocalDateTime t = commentRepository.findLastCommentTime(p);
-            return t != null ? t : p.getCreatedAt();
-          },
-          java.util.Comparator.nullsLast(java.util.Comparator.reverseOrder())
-        )
-      )
-      .toList();
-  }
-
-  private Pageable buildPageable(Integer page, Integer pageSize) {
-    if (page == null || pageSize == null) {
-      return Pageable.unpaged();
-    }
-    return PageRequest.of(page, pageSize);
-  }
-
-  private List<Post> paginate(List<Post> posts, Integer page, Integer pageSize) {
-    if (page == null || pageSize == null) {
-      return posts;
-    }
-    int from = page * pageSize;
-    if (from >= posts.size()) {
-      return new ArrayList<>();
-    }
-    int to = Math.min(from + pageSize, posts.size());
-    // 这里必须将list包装为arrayList类型，否则序列化会有问题
-    // list.sublist返回的是内部类
-    return new ArrayList<>(posts.subList(from, to));
-  }
 }
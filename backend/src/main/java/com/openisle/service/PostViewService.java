@@ -0,0 +1,190 @@
+package com.openisle.service;
+
+import com.openisle.config.CachingConfig;
+import com.openisle.repository.PostRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * 文章浏览量写缓冲
+ * 浏览时只在 Redis 中累加增量，由 {@link com.openisle.scheduler.PostViewFlushScheduler}
+ * 定时批量合并到 posts.views，读取时返回 数据库值 + 未落库增量
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostViewService {
+
+  static final String PENDING_KEY = CachingConfig.VIEW_CACHE_NAME + ":pending";
+  static final String FLUSHING_KEY_PREFIX = CachingConfig.VIEW_CACHE_NAME + ":flushing:";
+  // 超过这个时间仍未删除的落库中 key 视为进程中途退出留下的
+  static final long ORPHAN_FLUSH_AGE_MS = 10 * 60 * 1000;
+  private static final long SCAN_COUNT = 500;
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final PostRepository postRepository;
+
+  /**
+   * 记录一次浏览，Redis 不可用时直接落库
+   */
+  public void recordView(Long postId) {
+    try {
+      stringRedisTemplate.opsForHash().increment(PENDING_KEY, postId.toString(), 1);
+    } catch (Exception e) {
+      log.warn("Failed to buffer view for post {}: {}", postId, e.getMessage());
+      postRepository.incrementViews(postId, 1);
+    }
+  }
+
+  public long getPendingViews(Long postId) {
+    if (postId == null) {
+      return 0;
+    }
+    return getPendingViews(List.of(postId)).getOrDefault(postId, 0L);
+  }
+
+  public Map<Long, Long> getPendingViews(Collection<Long> postIds) {
+    Map<Long, Long> result = new HashMap<>();
+    if (postIds == null || postIds.isEmpty()) {
+      return result;
+    }
+    List<Object> fields = new ArrayList<>(postIds.size());
+    for (Long id : postIds) {
+      fields.add(id.toString());
+    }
+    List<Object> values;
+    try {
+      values = stringRedisTemplate.opsForHash().multiGet(PENDING_KEY, fields);
+    } catch (Exception e) {
+      log.warn("Failed to read pending views: {}", e.getMessage());
+      return result;
+    }
+    int i = 0;
+    for (Long id : postIds) {
+      Object value = values.get(i++);
+      if (value != null) {
+        result.put(id, Long.parseLong(value.toString()));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 将累计的浏览增量批量写回数据库
+   * 先把待写入的 hash 原子地 rename 成本次专用的 key，多实例同时执行时也不会重复累加
+   * 每写入一篇就从该 key 中删除对应字段，写库失败的增量重新放回待写入的 hash；
+   * 放回也失败时保留该 key，由启动时的 {@link #requeueOrphanedFlushes()} 找回
+   * @return 本次写入的文章数
+   */
+  public int flushPendingViews() {
+    if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(PENDING_KEY))) {
+      return 0;
+    }
+    String flushingKey = FLUSHING_KEY_PREFIX + System.currentTimeMillis() + ":" + UUID.randomUUID();
+    try {
+      if (!Boolean.TRUE.equals(stringRedisTemplate.renameIfAbsent(PENDING_KEY, flushingKey))) {
+        return 0;
+      }
+    } catch (DataAccessException e) {
+      // 其他实例已经抢先 rename
+      return 0;
+    }
+    Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(flushingKey);
+    int flushed = 0;
+    try {
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        long delta = Long.parseLong(entry.getValue().toString());
+        if (delta > 0) {
+          postRepository.incrementViews(Long.parseLong(entry.getKey().toString()), delta);
+          flushed++;
+        }
+        stringRedisTemplate.opsForHash().delete(flushingKey, entry.getKey());
+      }
+    } catch (Exception e) {
+      log.error("Failed to flush post views, requeueing the rest of {}", flushingKey, e);
+      if (!requeue(flushingKey)) {
+        return flushed;
+      }
+    }
+    stringRedisTemplate.delete(flushingKey);
+    return flushed;
+  }
+
+  /**
+   * 把进程中途退出时遗留的落库中增量放回待写入的 hash，启动时调用
+   * @return 找回的 key 数
+   */
+  public int requeueOrphanedFlushes() {
+    List<String> keys = new ArrayList<>();
+    // SCAN 分批遍历，不像 KEYS 那样阻塞 Redis
+    ScanOptions options = ScanOptions.scanOptions()
+      .match(FLUSHING_KEY_PREFIX + "*")
+      .count(SCAN_COUNT)
+      .build();
+    try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+      cursor.forEachRemaining(keys::add);
+    }
+    if (keys.isEmpty()) {
+      return 0;
+    }
+    long now = System.currentTimeMillis();
+    int requeued = 0;
+    for (String key : keys) {
+      // 其他实例正在落库的 key 不动
+      if (now - flushStartedAt(key) < ORPHAN_FLUSH_AGE_MS) {
+        continue;
+      }
+      if (requeue(key)) {
+        stringRedisTemplate.delete(key);
+        requeued++;
+      }
+    }
+    if (requeued > 0) {
+      log.warn("Requeued {} orphaned post view flushes", requeued);
+    }
+    return requeued;
+  }
+
+  /**
+   * 将落库中 key 剩余的增量逐条放回待写入的 hash，放回一条删除一条
+   */
+  private boolean requeue(String flushingKey) {
+    try {
+      Map<Object, Object> remaining = stringRedisTemplate.opsForHash().entries(flushingKey);
+      for (Map.Entry<Object, Object> entry : remaining.entrySet()) {
+        stringRedisTemplate
+          .opsForHash()
+          .increment(PENDING_KEY, entry.getKey(), Long.parseLong(entry.getValue().toString()));
+        stringRedisTemplate.opsForHash().delete(flushingKey, entry.getKey());
+      }
+      return true;
+    } catch (Exception e) {
+      log.error("Failed to requeue post views, keeping {} for the next startup", flushingKey, e);
+      return false;
+    }
+  }
+
+  /**
+   * key 形如 前缀 + 开始时间毫秒 + ":" + uuid；旧格式没有时间，视为早已开始
+   */
+  private static long flushStartedAt(String key) {
+    String rest = key.substring(FLUSHING_KEY_PREFIX.length());
+    int separator = rest.indexOf(':');
+    try {
+      return separator > 0 ? Long.parseLong(rest.substring(0, separator)) : 0;
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
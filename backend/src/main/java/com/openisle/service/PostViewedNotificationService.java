@@ -0,0 +1,123 @@
+package com.openisle.service;
+
+import com.openisle.config.CachingConfig;
+import com.openisle.model.Post;
+import com.openisle.model.User;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 文章被浏览通知的防抖与批量写入
+ * 同一浏览者在刷新间隔内重复浏览同一篇文章只会刷新一次通知，写库由后台定时任务完成
+ * 缓冲中只保存 id，写库时在事务内重新加载实体，避免持有请求线程中已脱离会话的实体
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostViewedNotificationService {
+
+  private static final String DEBOUNCE_KEY_PREFIX =
+    CachingConfig.LIMIT_CACHE_NAME + ":post_viewed:";
+
+  private final NotificationService notificationService;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final UserRepository userRepository;
+  private final PostRepository postRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  private final Set<PendingKey> pending = ConcurrentHashMap.newKeySet();
+
+  @Value("${app.notification.post-viewed-interval-minutes:10}")
+  private long refreshIntervalMinutes = 10;
+
+  @Value("${app.notification.post-viewed-buffer-size:10000}")
+  private int maxPending = 10000;
+
+  private record PendingKey(Long ownerId, Long viewerId, Long postId) {}
+
+  public void recordView(User owner, User viewer, Post post) {
+    if (owner == null || viewer == null || post == null) {
+      return;
+    }
+    if (owner.getId().equals(viewer.getId()) || !acquire(viewer.getId(), post.getId())) {
+      return;
+    }
+    PendingKey key = new PendingKey(owner.getId(), viewer.getId(), post.getId());
+    if (pending.size() >= maxPending && !pending.contains(key)) {
+      log.warn("Post viewed notification buffer is full, dropping view of post {}", post.getId());
+      return;
+    }
+    pending.add(key);
+  }
+
+  @Scheduled(
+    fixedDelayString = "${app.notification.post-viewed-flush-interval-ms:5000}",
+    initialDelayString = "${app.notification.post-viewed-flush-interval-ms:5000}"
+  )
+  public void flushPending() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<PendingKey> batch = new ArrayList<>(pending);
+    for (PendingKey key : batch) {
+      pending.remove(key);
+      try {
+        transactionTemplate.execute(status -> {
+          refresh(key);
+          return null;
+        });
+      } catch (Exception e) {
+        log.warn(
+          "Failed to refresh viewed notification for post {}: {}",
+          key.postId(),
+          e.getMessage()
+        );
+      }
+    }
+  }
+
+  /**
+   * 停止时写完缓冲中的通知
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    flushPending();
+  }
+
+  private void refresh(PendingKey key) {
+    User owner = userRepository.findById(key.ownerId()).orElse(null);
+    User viewer = userRepository.findById(key.viewerId()).orElse(null);
+    Post post = postRepository.findById(key.postId()).orElse(null);
+    // 文章或用户已被删除
+    if (owner == null || viewer == null || post == null) {
+      return;
+    }
+    notificationService.refreshPostViewedNotification(owner, viewer, post);
+  }
+
+  private boolean acquire(Long viewerId, Long postId) {
+    String key = DEBOUNCE_KEY_PREFIX + postId + ":" + viewerId;
+    try {
+      Boolean acquired = stringRedisTemplate
+        .opsForValue()
+        .setIfAbsent(key, "1", Duration.ofMinutes(refreshIntervalMinutes));
+      return !Boolean.FALSE.equals(acquired);
+    } catch (Exception e) {
+      log.warn("Failed to debounce viewed notification: {}", e.getMessage());
+      return true;
+    }
+  }
+}
@@ -13,23 +13,42 @@ import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.search.OpenSearchProperties;
 import com.openisle.search.SearchDocument;
+import com.openisle.util.SearchCursor;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonData;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.aggregations.StringTermsBucket;
+import org.opensearch.client.opensearch._types.mapping.FieldType;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
 import org.opensearch.client.opensearch._types.query_dsl.TextQueryType;
 import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Highlight;
 import org.opensearch.client.opensearch.core.search.Hit;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
@@ -50,37 +69,156 @@ public class SearchService {
   private int snippetLength;
 
   private static final int DEFAULT_OPEN_SEARCH_LIMIT = 50;
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 50;
+  private static final String TYPE_AGGREGATION = "types";
+  // 索引中的 type 取值
+  private static final List<String> SEARCH_TYPES = List.of(
+    "post",
+    "comment",
+    "user",
+    "category",
+    "tag"
+  );
+  private static final Pattern FULLTEXT_OPERATORS = Pattern.compile("[+\\-<>()~*\"@]");
 
   public List<User> searchUsers(String keyword) {
-    return userRepository.findByUsernameContainingIgnoreCase(keyword);
+    return databaseSearch(
+      keyword,
+      userRepository::searchIdsByFulltext,
+      userRepository::findAllById,
+      User::getId,
+      userRepository::findByUsernameContainingIgnoreCase
+    );
   }
 
   public List<Post> searchPosts(String keyword) {
-    return postRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
-      keyword,
+    return databaseSearch(
       keyword,
-      PostStatus.PUBLISHED
+      (query, limit) ->
+        postRepository.searchIdsByFulltext(query, PostStatus.PUBLISHED.name(), limit),
+      postRepository::findAllById,
+      Post::getId,
+      (kw, page) -> postRepository.searchByKeyword(kw, PostStatus.PUBLISHED, page)
     );
   }
 
   public List<Post> searchPostsByContent(String keyword) {
-    return postRepository.findByContentContainingIgnoreCaseAndStatus(keyword, PostStatus.PUBLISHED);
+    // 正文没有单独的全文索引，使用标题+正文索引
+    return databaseSearch(
+      keyword,
+      (query, limit) ->
+        postRepository.searchIdsByFulltext(query, PostStatus.PUBLISHED.name(), limit),
+      postRepository::findAllById,
+      Post::getId,
+      (kw, page) ->
+        postRepository.findByContentContainingIgnoreCaseAndStatus(kw, PostStatus.PUBLISHED, page)
+    );
   }
 
   public List<Post> searchPostsByTitle(String keyword) {
-    return postRepository.findByTitleContainingIgnoreCaseAndStatus(keyword, PostStatus.PUBLISHED);
+    return databaseSearch(
+      keyword,
+      (query, limit) ->
+        postRepository.searchIdsByTitleFulltext(query, PostStatus.PUBLISHED.name(), limit),
+      postRepository::findAllById,
+      Post::getId,
+      (kw, page) ->
+        postRepository.findByTitleContainingIgnoreCaseAndStatus(kw, PostStatus.PUBLISHED, page)
+    );
   }
 
   public List<Comment> searchComments(String keyword) {
-    return commentRepository.findByContentContainingIgnoreCase(keyword);
+    return databaseSearch(
+      keyword,
+      commentRepository::searchIdsByFulltext,
+      commentRepository::findAllById,
+      Comment::getId,
+      commentRepository::findByContentContainingIgnoreCase
+    );
   }
 
   public List<Category> searchCategories(String keyword) {
-    return categoryRepository.findByNameContainingIgnoreCase(keyword);
+    return databaseSearch(
+      keyword,
+      categoryRepository::searchIdsByFulltext,
+      categoryRepository::findAllById,
+      Category::getId,
+      categoryRepository::findByNameContainingIgnoreCase
+    );
   }
 
   public List<Tag> searchTags(String keyword) {
-    return tagRepository.findByNameContainingIgnoreCaseAndApprovedTrue(keyword);
+    return databaseSearch(
+      keyword,
+      tagRepository::searchIdsByFulltext,
+      tagRepository::findAllById,
+      Tag::getId,
+      tagRepository::findByNameContainingIgnoreCaseAndApprovedTrue
+    );
+  }
+
+  /**
+   * 数据库检索：FULLTEXT 模式先按相关度取出 id 再批量加载实体，LIKE 模式按 id 倒序；
+   * 两种模式都只返回前 limit 条。全文索引缺失（未执行 V18）导致查询失败时退回 LIKE
+   */
+  private <T> List<T> databaseSearch(
+    String keyword,
+    BiFunction<String, Integer, List<Long>> fulltext,
+    Function<List<Long>, List<T>> loader,
+    Function<T, Long> idOf,
+    BiFunction<String, Pageable, List<T>> like
+  ) {
+    String trimmed = keyword == null ? "" : keyword.trim();
+    if (trimmed.isEmpty()) {
+      return List.of();
+    }
+    OpenSearchProperties.Fallback fallback = openSearchProperties.getFallback();
+    int limit = Math.max(1, fallback.getLimit());
+    Pageable likePage = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "id"));
+    if (fallback.getMode() == OpenSearchProperties.FallbackMode.LIKE) {
+      return like.apply(trimmed, likePage);
+    }
+    String query = fulltextQuery(trimmed, fallback.getMinTokenLength());
+    if (query == null) {
+      return List.of();
+    }
+    List<Long> ids;
+    try {
+      ids = fulltext.apply(query, limit);
+    } catch (DataAccessException e) {
+      log.warn("Fulltext search failed, falling back to LIKE: {}", e.getMessage());
+      return like.apply(trimmed, likePage);
+    }
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, T> loaded = loader
+      .apply(ids)
+      .stream()
+      .collect(Collectors.toMap(idOf, entity -> entity, (a, b) -> a));
+    return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+  }
+
+  /**
+   * 构造 BOOLEAN MODE 查询：去掉运算符后整体作为短语匹配；
+   * 短于 ngram 长度的关键词无法切分，改用前缀匹配
+   */
+  static String fulltextQuery(String keyword, int minTokenLength) {
+    String cleaned = FULLTEXT_OPERATORS.matcher(keyword)
+      .replaceAll(" ")
+      .trim()
+      .replaceAll("\\s+", " ");
+    if (cleaned.isEmpty()) {
+      return null;
+    }
+    if (
+      cleaned.codePointCount(0, cleaned.length()) < minTokenLength &&
+      cleaned.chars().noneMatch(Character::isWhitespace)
+    ) {
+      return cleaned + "*";
+    }
+    return "\"" + cleaned + "\"";
   }
 
   public List<SearchResult> globalSearch(String keyword) {
@@ -93,13 +231,214 @@ public class SearchService {
         if (!results.isEmpty()) {
           return results;
         }
-      } catch (IOException e) {
+      } catch (IOException | OpenSearchException e) {
         log.warn("OpenSearch global search failed, falling back to database query", e);
       }
     }
     return fallbackGlobalSearch(keyword);
   }
 
+  /**
+   * 分页搜索：按 (得分, 类型, id) 排序，通过 search_after 游标翻页，每页开销与页码无关。
+   * 第一页查询全部索引并用 post_filter 过滤类型，同时聚合出各类型的命中数；
+   * 之后的页只查询所选类型的索引，不再聚合。精确总数只在请求时计算。
+   */
+  public SearchPage searchPage(SearchQuery query) {
+    String keyword = query.keyword() == null ? "" : query.keyword().trim();
+    Set<String> types = normalizeTypes(query.types());
+    SearchCursor cursor = SearchCursor.decode(query.cursor());
+    int size = query.size() == null || query.size() <= 0
+      ? DEFAULT_PAGE_SIZE
+      : Math.min(query.size(), MAX_PAGE_SIZE);
+    if (keyword.isEmpty()) {
+      return new SearchPage(List.of(), null, Map.of(), query.trackTotal() ? 0L : null, false);
+    }
+    if (isOpenSearchEnabled()) {
+      try {
+        return searchPageWithOpenSearch(keyword, types, query, cursor, size);
+      } catch (IOException | OpenSearchException e) {
+        log.warn("OpenSearch paged search failed, falling back to database query", e);
+      }
+    }
+    return fallbackSearchPage(keyword, types, query, cursor, size);
+  }
+
+  private SearchPage searchPageWithOpenSearch(
+    String keyword,
+    Set<String> types,
+    SearchQuery query,
+    SearchCursor cursor,
+    int size
+  ) throws IOException {
+    OpenSearchClient client = openSearchClient.orElseThrow();
+    boolean firstPage = cursor == null;
+    List<String> indices = firstPage || types.isEmpty() ? searchIndices() : searchIndices(types);
+
+    SearchResponse<SearchDocument> resp = client.search(
+      b -> {
+        b
+          .index(indices)
+          // 多取一条判断是否还有下一页
+          .size(size + 1)
+          .trackScores(true)
+          .trackTotalHits(t -> t.enabled(query.trackTotal()))
+          .query(qb -> qb.bool(bool -> applyFilters(keywordQuery(bool, keyword), query)))
+          .sort(so -> so.score(sc -> sc.order(SortOrder.Desc)))
+          .sort(so -> so.field(f -> f.field("type").order(SortOrder.Asc)))
+          .sort(so ->
+            so.field(f -> f.field("entityId").order(SortOrder.Asc).unmappedType(FieldType.Long))
+          )
+          .highlight(this::highlight);
+        if (!types.isEmpty()) {
+          List<FieldValue> values = types.stream().map(FieldValue::of).toList();
+          b.postFilter(pf -> pf.terms(t -> t.field("type").terms(v -> v.value(values))));
+        }
+        if (firstPage) {
+          b.aggregations(TYPE_AGGREGATION, a ->
+            a.terms(t -> t.field("type").size(SEARCH_TYPES.size()))
+          );
+        } else {
+          b.searchAfter(cursor.sortValues());
+        }
+        return b;
+      },
+      SearchDocument.class
+    );
+
+    List<Hit<SearchDocument>> hits = resp.hits().hits();
+    boolean hasMore = hits.size() > size;
+    List<Hit<SearchDocument>> page = hasMore ? hits.subList(0, size) : hits;
+    String nextCursor = null;
+    if (hasMore) {
+      Hit<SearchDocument> last = page.get(page.size() - 1);
+      SearchDocument document = last.source();
+      nextCursor = new SearchCursor(
+        last.score() != null ? last.score() : 0,
+        document != null ? document.type() : "",
+        document != null ? document.entityId() : 0L
+      ).encode();
+    }
+
+    Map<String, Long> typeCounts = Map.of();
+    if (firstPage && resp.aggregations().containsKey(TYPE_AGGREGATION)) {
+      Map<String, Long> counts = new LinkedHashMap<>();
+      SEARCH_TYPES.forEach(type -> counts.put(type, 0L));
+      List<StringTermsBucket> buckets = resp
+        .aggregations()
+        .get(TYPE_AGGREGATION)
+        .sterms()
+        .buckets()
+        .array();
+      for (StringTermsBucket bucket : buckets) {
+        counts.put(bucket.key(), bucket.docCount());
+      }
+      typeCounts = counts;
+    }
+
+    Long total = null;
+    if (query.trackTotal() && resp.hits().total() != null) {
+      total = resp.hits().total().value();
+    }
+    return new SearchPage(mapHits(page, keyword), nextCursor, typeCounts, total, false);
+  }
+
+  private BoolQuery.Builder applyFilters(BoolQuery.Builder bool, SearchQuery query) {
+    if (query.category() != null && !query.category().isBlank()) {
+      String category = query.category().trim();
+      bool.filter(f -> f.term(t -> t.field("category.raw").value(v -> v.stringValue(category))));
+    }
+    if (query.tags() != null) {
+      // 多个标签需同时命中
+      for (String tag : query.tags()) {
+        if (tag != null && !tag.isBlank()) {
+          String value = tag.trim();
+          bool.filter(f -> f.term(t -> t.field("tags.raw").value(v -> v.stringValue(value))));
+        }
+      }
+    }
+    if (query.from() != null || query.to() != null) {
+      bool.filter(f ->
+        f.range(r -> {
+          r.field("createdAt");
+          if (query.from() != null) {
+            r.gte(JsonData.of(startOfDayMillis(query.from())));
+          }
+          if (query.to() != null) {
+            // to 为闭区间的日期，取次日零点之前
+            r.lt(JsonData.of(startOfDayMillis(query.to().plusDays(1))));
+          }
+          return r;
+        })
+      );
+    }
+    return bool;
+  }
+
+  private static long startOfDayMillis(LocalDate date) {
+    return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  /**
+   * 数据库兜底不支持游标和分类/标签/日期过滤，只返回按类型过滤后的第一页；
+   * 带有这些过滤条件时返回空页，避免返回不符合条件的结果。兜底结果均标记为 degraded
+   */
+  private SearchPage fallbackSearchPage(
+    String keyword,
+    Set<String> types,
+    SearchQuery query,
+    SearchCursor cursor,
+    int size
+  ) {
+    if (cursor != null || hasUnsupportedFilters(query)) {
+      return new SearchPage(List.of(), null, Map.of(), query.trackTotal() ? 0L : null, true);
+    }
+    List<SearchResult> results = fallbackGlobalSearch(keyword);
+    Map<String, Long> counts = new LinkedHashMap<>();
+    SEARCH_TYPES.forEach(type -> counts.put(type, 0L));
+    List<SearchResult> matched = new ArrayList<>();
+    for (SearchResult result : results) {
+      String type = baseType(result.type());
+      counts.merge(type, 1L, Long::sum);
+      if (types.isEmpty() || types.contains(type)) {
+        matched.add(result);
+      }
+    }
+    List<SearchResult> page = matched.size() > size ? matched.subList(0, size) : matched;
+    Long total = query.trackTotal() ? (long) matched.size() : null;
+    return new SearchPage(List.copyOf(page), null, counts, total, true);
+  }
+
+  private static boolean hasUnsupportedFilters(SearchQuery query) {
+    return (
+      (query.category() != null && !query.category().isBlank()) ||
+      (query.tags() != null && query.tags().stream().anyMatch(t -> t != null && !t.isBlank())) ||
+      query.from() != null ||
+      query.to() != null
+    );
+  }
+
+  private static Set<String> normalizeTypes(List<String> types) {
+    if (types == null || types.isEmpty()) {
+      return Set.of();
+    }
+    Set<String> normalized = new LinkedHashSet<>();
+    for (String type : types) {
+      if (type == null || type.isBlank()) {
+        continue;
+      }
+      String value = baseType(type.trim().toLowerCase());
+      if (!SEARCH_TYPES.contains(value)) {
+        throw new IllegalArgumentException("Unknown search type: " + type);
+      }
+      normalized.add(value);
+    }
+    return normalized;
+  }
+
+  private static String baseType(String type) {
+    return "post_title".equals(type) ? "post" : type;
+  }
+
   private List<SearchResult> fallbackGlobalSearch(String keyword) {
     final String effectiveKeyword = keyword == null ? "" : keyword.trim();
     Stream<SearchResult> users = searchUsers(keyword)
@@ -246,130 +585,14 @@ public class SearchService {
     final String qRaw = keyword == null ? "" : keyword.trim();
     if (qRaw.isEmpty()) return List.of();
 
-    final boolean hasHan = containsHan(qRaw);
-
     SearchResponse<SearchDocument> resp = client.search(
       b ->
         b
           .index(searchIndices())
-          .trackTotalHits(t -> t.enabled(true))
-          .query(qb ->
-            qb.bool(bool -> {
-              // ---------- 严格层 ----------
-              // 中文/任意短语（轻微符号/空白扰动）
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("title").query(qRaw).slop(2).boost(6.0f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("content").query(qRaw).slop(2).boost(2.5f))
-              );
-
-              // 结构化等值（.raw）
-              bool.should(s ->
-                s.term(t ->
-                  t
-                    .field("author.raw")
-                    .value(v -> v.stringValue(qRaw))
-                    .boost(4.0f)
-                )
-              );
-              bool.should(s ->
-                s.term(t ->
-                  t
-                    .field("category.raw")
-                    .value(v -> v.stringValue(qRaw))
-                    .boost(3.0f)
-                )
-              );
-              bool.should(s ->
-                s.term(t ->
-                  t
-                    .field("tags.raw")
-                    .value(v -> v.stringValue(qRaw))
-                    .boost(3.0f)
-                )
-              );
-
-              // 拼音短语（严格）
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("title.py").query(qRaw).slop(1).boost(4.0f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("content.py").query(qRaw).slop(1).boost(1.8f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("author.py").query(qRaw).slop(1).boost(2.2f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("category.py").query(qRaw).slop(1).boost(2.0f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("tags.py").query(qRaw).slop(1).boost(2.0f))
-              );
-
-              // ---------- 放宽层（仅当包含中文时启用） ----------
-              if (hasHan) {
-                // title.zh
-                bool.should(s ->
-                  s.match(m ->
-                    m
-                      .field("title.zh")
-                      .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
-                      .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
-                      .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
-                      .boost(3.0f)
-                  )
-                );
-                // content.zh
-                bool.should(s ->
-                  s.match(m ->
-                    m
-                      .field("content.zh")
-                      .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
-                      .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
-                      .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
-                      .boost(1.6f)
-                  )
-                );
-              }
-
-              return bool.minimumShouldMatch("1");
-            })
-          )
-          // ---------- 高亮：允许跨子字段回填 + 匹配字段组 ----------
-          .highlight(h -> {
-            var hb = h
-              .preTags("<mark>")
-              .postTags("</mark>")
-              .requireFieldMatch(false)
-              .fields("title", f ->
-                f
-                  .fragmentSize(highlightFragmentSize())
-                  .numberOfFragments(1)
-                  .matchedFields(List.of("title", "title.zh", "title.py"))
-              )
-              .fields("content", f ->
-                f
-                  .fragmentSize(highlightFragmentSize())
-                  .numberOfFragments(1)
-                  .matchedFields(List.of("content", "content.zh", "content.py"))
-              )
-              .fields("title.zh", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
-              .fields("content.zh", f ->
-                f.fragmentSize(highlightFragmentSize()).numberOfFragments(1)
-              )
-              .fields("title.py", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
-              .fields("content.py", f ->
-                f.fragmentSize(highlightFragmentSize()).numberOfFragments(1)
-              )
-              .fields("author", f -> f.numberOfFragments(0))
-              .fields("author.py", f -> f.numberOfFragments(0))
-              .fields("category", f -> f.numberOfFragments(0))
-              .fields("category.py", f -> f.numberOfFragments(0))
-              .fields("tags", f -> f.numberOfFragments(0))
-              .fields("tags.py", f -> f.numberOfFragments(0));
-            return hb;
-          })
+          // 只取前 N 条，不需要精确总数
+          .trackTotalHits(t -> t.enabled(false))
+          .query(qb -> qb.bool(bool -> keywordQuery(bool, qRaw)))
+          .highlight(this::highlight)
           .size(DEFAULT_OPEN_SEARCH_LIMIT > 0 ? DEFAULT_OPEN_SEARCH_LIMIT : 10),
       SearchDocument.class
     );
@@ -377,6 +600,90 @@ public class SearchService {
     return mapHits(resp.hits().hits(), qRaw);
   }
 
+  private BoolQuery.Builder keywordQuery(BoolQuery.Builder bool, String qRaw) {
+    final boolean hasHan = containsHan(qRaw);
+
+    // ---------- 严格层 ----------
+    // 中文/任意短语（轻微符号/空白扰动）
+    bool.should(s -> s.matchPhrase(mp -> mp.field("title").query(qRaw).slop(2).boost(6.0f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("content").query(qRaw).slop(2).boost(2.5f)));
+
+    // 结构化等值（.raw）
+    bool.should(s ->
+      s.term(t -> t.field("author.raw").value(v -> v.stringValue(qRaw)).boost(4.0f))
+    );
+    bool.should(s ->
+      s.term(t -> t.field("category.raw").value(v -> v.stringValue(qRaw)).boost(3.0f))
+    );
+    bool.should(s -> s.term(t -> t.field("tags.raw").value(v -> v.stringValue(qRaw)).boost(3.0f)));
+
+    // 拼音短语（严格）
+    bool.should(s -> s.matchPhrase(mp -> mp.field("title.py").query(qRaw).slop(1).boost(4.0f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("content.py").query(qRaw).slop(1).boost(1.8f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("author.py").query(qRaw).slop(1).boost(2.2f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("category.py").query(qRaw).slop(1).boost(2.0f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("tags.py").query(qRaw).slop(1).boost(2.0f)));
+
+    // ---------- 放宽层（仅当包含中文时启用） ----------
+    if (hasHan) {
+      // title.zh
+      bool.should(s ->
+        s.match(m ->
+          m
+            .field("title.zh")
+            .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
+            .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
+            .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
+            .boost(3.0f)
+        )
+      );
+      // content.zh
+      bool.should(s ->
+        s.match(m ->
+          m
+            .field("content.zh")
+            .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
+            .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
+            .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
+            .boost(1.6f)
+        )
+      );
+    }
+
+    return bool.minimumShouldMatch("1");
+  }
+
+  // ---------- 高亮：允许跨子字段回填 + 匹配字段组 ----------
+  private Highlight.Builder highlight(Highlight.Builder h) {
+    var hb = h
+      .preTags("<mark>")
+      .postTags("</mark>")
+      .requireFieldMatch(false)
+      .fields("title", f ->
+        f
+          .fragmentSize(highlightFragmentSize())
+          .numberOfFragments(1)
+          .matchedFields(List.of("title", "title.zh", "title.py"))
+      )
+      .fields("content", f ->
+        f
+          .fragmentSize(highlightFragmentSize())
+          .numberOfFragments(1)
+          .matchedFields(List.of("content", "content.zh", "content.py"))
+      )
+      .fields("title.zh", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("content.zh", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("title.py", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("content.py", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("author", f -> f.numberOfFragments(0))
+      .fields("author.py", f -> f.numberOfFragments(0))
+      .fields("category", f -> f.numberOfFragments(0))
+      .fields("category.py", f -> f.numberOfFragments(0))
+      .fields("tags", f -> f.numberOfFragments(0))
+      .fields("tags.py", f -> f.numberOfFragments(0));
+    return hb;
+  }
+
   /** Lucene query_string 安全转义（保留 * 由我们自己追加） */
   private static String escapeForQueryString(String s) {
     if (s == null || s.isEmpty()) return "";
@@ -423,6 +730,16 @@ public class SearchService {
     return 200;
   }
 
+  private List<String> searchIndices(Set<String> types) {
+    List<String> indices = new ArrayList<>();
+    if (types.contains("post")) indices.add(openSearchProperties.postsIndex());
+    if (types.contains("comment")) indices.add(openSearchProperties.commentsIndex());
+    if (types.contains("user")) indices.add(openSearchProperties.usersIndex());
+    if (types.contains("category")) indices.add(openSearchProperties.categoriesIndex());
+    if (types.contains("tag")) indices.add(openSearchProperties.tagsIndex());
+    return indices;
+  }
+
   private List<String> searchIndices() {
     return List.of(
       openSearchProperties.postsIndex(),
@@ -634,4 +951,27 @@ public class SearchService {
     String highlightedSubText,
     String highlightedExtra
   ) {}
+
+  public record SearchQuery(
+    String keyword,
+    List<String> types,
+    String category,
+    List<String> tags,
+    LocalDate from,
+    LocalDate to,
+    String cursor,
+    Integer size,
+    boolean trackTotal
+  ) {}
+
+  /**
+   * @param degraded 数据库兜底结果：命中数只是前 limit 条的计数，带过滤条件时为空页
+   */
+  public record SearchPage(
+    List<SearchResult> items,
+    String nextCursor,
+    Map<String, Long> typeCounts,
+    Long total,
+    boolean degraded
+  ) {}
 }
@@ -0,0 +1,19 @@
+package com.openisle.util;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话列表的游标，编码最后一条记录的 (最后活跃时间, id)
+ * 最后活跃时间为最后一条消息的时间，没有消息时为会话创建时间
+ */
+public record ConversationCursor(LocalDateTime activityAt, Long id) {
+  public String encode() {
+    return CursorCodec.encode(activityAt, id);
+  }
+
+  public static ConversationCursor decode(String cursor) {
+    return CursorCodec.decode(cursor, 2, fields ->
+      new ConversationCursor(LocalDateTime.parse(fields[0]), Long.parseLong(fields[1]))
+    );
+  }
+}
@@ -0,0 +1,50 @@
+package com.openisle.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+/**
+ * 分页游标的编解码：各字段以 "|" 连接后做 URL 安全的 base64，对外是不透明字符串
+ * 字段本身不能包含 "|"，null 编码为空字符串
+ */
+public final class CursorCodec {
+
+  private static final String SEPARATOR = "|";
+
+  private CursorCodec() {}
+
+  public static String encode(Object... fields) {
+    StringJoiner raw = new StringJoiner(SEPARATOR);
+    for (Object field : fields) {
+      raw.add(field != null ? field.toString() : "");
+    }
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解析游标，空字符串表示从第一页开始，返回 null；格式不符时抛出 IllegalArgumentException
+   */
+  public static <T> T decode(String cursor, int fieldCount, Parser<T> parser) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] fields = raw.split("\\|", -1);
+      if (fields.length != fieldCount) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return parser.parse(fields);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+
+  @FunctionalInterface
+  public interface Parser<T> {
+    T parse(String[] fields);
+  }
+}
@@ -0,0 +1,45 @@
+package com.openisle.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * 由 markdown 正文生成列表页使用的纯文本摘要
+ * 去掉代码块、图片、链接地址、HTML 标签和常见的 markdown 标记，合并空白后截断
+ */
+public final class MarkdownExcerpt {
+
+  /** 摘要最大字符数，与前端列表展示的长度一致 */
+  public static final int MAX_LENGTH = 500;
+
+  private static final Pattern CODE_BLOCK = Pattern.compile("```[\\s\\S]*?(```|$)");
+  private static final Pattern IMAGE = Pattern.compile("!\\[([^\\]]*)]\\([^)]*\\)");
+  private static final Pattern LINK = Pattern.compile("\\[([^\\]]*)]\\([^)]*\\)");
+  private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+  private static final Pattern LINE_MARKER = Pattern.compile(
+    "(?m)^\\s{0,3}(#{1,6}\\s+|>\\s?|[-*+]\\s+|\\d+\\.\\s+)"
+  );
+  private static final Pattern EMPHASIS = Pattern.compile("(\\*{1,3}|_{2,3}|~~|`)");
+  private static final Pattern SPACES = Pattern.compile("[ \\t]+");
+  private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+
+  private MarkdownExcerpt() {}
+
+  public static String of(String markdown) {
+    if (markdown == null || markdown.isEmpty()) {
+      return "";
+    }
+    String text = markdown.replace("\r\n", "\n").replace('\r', '\n');
+    text = CODE_BLOCK.matcher(text).replaceAll(" ");
+    text = IMAGE.matcher(text).replaceAll("$1");
+    text = LINK.matcher(text).replaceAll("$1");
+    text = HTML_TAG.matcher(text).replaceAll("");
+    text = LINE_MARKER.matcher(text).replaceAll("");
+    text = EMPHASIS.matcher(text).replaceAll("");
+    text = SPACES.matcher(text).replaceAll(" ");
+    text = BLANK_LINES.matcher(text).replaceAll("\n\n").trim();
+    if (text.codePointCount(0, text.length()) <= MAX_LENGTH) {
+      return text;
+    }
+    return text.substring(0, text.offsetByCodePoints(0, MAX_LENGTH)) + "...";
+  }
+}
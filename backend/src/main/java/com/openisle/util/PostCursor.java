@@ -0,0 +1,37 @@
+package com.openisle.util;
+
+import com.openisle.model.PostSort;
+import com.openisle.repository.PostListRow;
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表的游标，编码最后一条记录的 (pinnedAt, 排序字段, id)
+ * 排序字段的类型由 {@link PostSort} 决定
+ */
+public record PostCursor(LocalDateTime pinnedAt, Object sortKey, Long id) {
+  public static PostCursor of(PostListRow row, PostSort sort) {
+    return new PostCursor(row.pinnedAt(), sortValue(row, sort), row.id());
+  }
+
+  public static Object sortValue(PostListRow row, PostSort sort) {
+    return switch (sort) {
+      case VIEWS -> row.views();
+      case LAST_REPLY_AT -> row.lastReplyAt();
+      case CREATED_AT -> row.createdAt();
+    };
+  }
+
+  public String encode() {
+    return CursorCodec.encode(pinnedAt, sortKey, id);
+  }
+
+  public static PostCursor decode(String cursor, PostSort sort) {
+    return CursorCodec.decode(cursor, 3, fields -> {
+      LocalDateTime pinnedAt = fields[0].isEmpty() ? null : LocalDateTime.parse(fields[0]);
+      Object sortKey = sort == PostSort.VIEWS
+        ? (Object) Long.parseLong(fields[1])
+        : LocalDateTime.parse(fields[1]);
+      return new PostCursor(pinnedAt, sortKey, Long.parseLong(fields[2]));
+    });
+  }
+}
@@ -0,0 +1,23 @@
+package com.openisle.util;
+
+import java.util.List;
+import org.opensearch.client.opensearch._types.FieldValue;
+
+/**
+ * 搜索结果的 search_after 游标，编码最后一条结果的排序值 (得分, 类型, 实体 id)
+ */
+public record SearchCursor(double score, String type, Long entityId) {
+  public String encode() {
+    return CursorCodec.encode(score, type, entityId);
+  }
+
+  public List<FieldValue> sortValues() {
+    return List.of(FieldValue.of(score), FieldValue.of(type), FieldValue.of(entityId));
+  }
+
+  public static SearchCursor decode(String cursor) {
+    return CursorCodec.decode(cursor, 3, fields ->
+      new SearchCursor(Double.parseDouble(fields[0]), fields[1], Long.parseLong(fields[2]))
+    );
+  }
+}
@@ -0,0 +1,2 @@
+-- Index for featured post listings (rss_excluded = 0) ordered by pinned time and creation time
+CREATE INDEX idx_posts_featured ON posts(rss_excluded, status, pinned_at, created_at);
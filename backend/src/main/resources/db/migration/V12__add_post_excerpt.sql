@@ -0,0 +1,3 @@
+-- Stored plain-text excerpt used by post listings instead of the LONGTEXT content
+-- Existing posts are backfilled at startup by PostExcerptInitializer
+ALTER TABLE posts ADD COLUMN excerpt VARCHAR(512) NULL;
@@ -0,0 +1,24 @@
+-- Recalculate comment_count and last_reply_at from live comments; posts without comments use created_at
+UPDATE posts p SET
+    comment_count = (
+        SELECT COUNT(*)
+        FROM comments c
+        WHERE c.post_id = p.id AND c.deleted_at IS NULL
+    ),
+    last_reply_at = COALESCE(
+        (
+            SELECT MAX(c.created_at)
+            FROM comments c
+            WHERE c.post_id = p.id AND c.deleted_at IS NULL
+        ),
+        p.created_at
+    );
+
+-- last_reply_at is now the authoritative sort key for latest-reply listings
+ALTER TABLE posts MODIFY COLUMN last_reply_at DATETIME(6) NOT NULL;
+
+-- Latest-reply listings filter by status and order by pinned time then last reply time
+CREATE INDEX idx_posts_latest_reply ON posts(status, pinned_at, last_reply_at);
+
+-- Comment stats and drift checks aggregate live comments per post
+CREATE INDEX idx_comments_post_created ON comments(post_id, deleted_at, created_at);
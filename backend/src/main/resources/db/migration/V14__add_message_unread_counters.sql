@@ -0,0 +1,26 @@
+-- Per-participant unread counter maintained on send and reset on read
+ALTER TABLE message_participants ADD COLUMN unread_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE message_participants p SET
+    unread_count = (
+        SELECT COUNT(*)
+        FROM messages m
+        WHERE m.conversation_id = p.conversation_id
+          AND m.sender_id <> p.user_id
+          AND m.created_at > COALESCE(p.last_read_at, '1970-01-01 00:00:00')
+    );
+
+-- Per-user totals: unread direct messages and channels with unread messages
+CREATE TABLE message_unread_counters (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    message_unread BIGINT NOT NULL DEFAULT 0,
+    channel_unread BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO message_unread_counters (user_id, message_unread, channel_unread)
+SELECT p.user_id,
+       SUM(CASE WHEN c.channel = 0 THEN p.unread_count ELSE 0 END),
+       SUM(CASE WHEN c.channel = 1 AND p.unread_count > 0 THEN 1 ELSE 0 END)
+FROM message_participants p
+JOIN message_conversations c ON c.id = p.conversation_id
+GROUP BY p.user_id;
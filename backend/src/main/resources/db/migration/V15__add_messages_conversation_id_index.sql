@@ -0,0 +1,2 @@
+-- Cursor-based message history: WHERE conversation_id = ? AND id < ? ORDER BY id DESC
+CREATE INDEX idx_messages_conversation_id_id ON messages(conversation_id, id);
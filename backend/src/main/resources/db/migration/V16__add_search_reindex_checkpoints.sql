@@ -0,0 +1,13 @@
+-- Progress of search index rebuilds, one row per index alias
+-- target_index stays empty until the first build starts; locked_by/locked_until form the
+-- rebuild lease shared by all nodes
+CREATE TABLE search_reindex_checkpoints (
+    index_alias VARCHAR(128) NOT NULL PRIMARY KEY,
+    target_index VARCHAR(190) NULL,
+    mapping_version INT NOT NULL,
+    last_entity_id BIGINT NOT NULL DEFAULT 0,
+    completed BIT(1) NOT NULL DEFAULT b'0',
+    updated_at DATETIME(6),
+    locked_by VARCHAR(64) NULL,
+    locked_until DATETIME(6) NULL
+);
@@ -0,0 +1,14 @@
+-- Search index changes written in the same transaction as the entity, drained by a background worker
+CREATE TABLE search_index_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    index_name VARCHAR(128) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation VARCHAR(16) NOT NULL,
+    payload LONGTEXT,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_search_index_outbox_due (next_attempt_at, id),
+    INDEX idx_search_index_outbox_entity (index_name, entity_id)
+);
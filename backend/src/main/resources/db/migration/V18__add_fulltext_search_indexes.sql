@@ -0,0 +1,14 @@
+-- Database fallback search when OpenSearch is unavailable.
+-- The ngram parser splits CJK text into ngram_token_size (default 2) character tokens.
+-- Stopwords are disabled while building the indexes: with ngram, any token containing
+-- a stopword character such as "a" would otherwise be dropped.
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_title (title) WITH PARSER ngram;
+ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_title_content (title, content) WITH PARSER ngram;
+ALTER TABLE comments ADD FULLTEXT INDEX ft_comments_content (content) WITH PARSER ngram;
+ALTER TABLE users ADD FULLTEXT INDEX ft_users_username (username) WITH PARSER ngram;
+ALTER TABLE categories ADD FULLTEXT INDEX ft_categories_name (name) WITH PARSER ngram;
+ALTER TABLE tags ADD FULLTEXT INDEX ft_tags_name (name) WITH PARSER ngram;
+
+SET SESSION innodb_ft_enable_stopword = ON;
@@ -0,0 +1,141 @@
+package com.openisle.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.dto.AuthorDto;
+import com.openisle.dto.CategoryDto;
+import com.openisle.dto.PostSummaryDto;
+import com.openisle.dto.TagDto;
+import com.openisle.model.PostStatus;
+import com.openisle.model.PostType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 对比 JSON 与紧凑二进制序列化器在文章列表缓存上的体积和耗时
+ */
+@Slf4j
+class CacheSerializerBenchmarkTest {
+
+  private static final int ITERATIONS = 200;
+
+  private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer(
+    CachingConfig.cacheObjectMapper()
+  );
+  private final RedisSerializer<Object> compact = new CompactRedisSerializer(
+    CachingConfig.cacheObjectMapper(),
+    1024
+  );
+
+  @Test
+  void compactRoundTripsPostList() {
+    List<PostSummaryDto> posts = samplePosts(20);
+
+    Object restored = compact.deserialize(compact.serialize(posts));
+
+    assertEquals(posts, restored);
+  }
+
+  @Test
+  void compactRejectsLegacyJsonEntries() {
+    byte[] legacy = json.serialize(samplePosts(1));
+
+    assertNull(compact.deserialize(legacy));
+  }
+
+  @Test
+  void compactIsLessThanHalfOfJson() {
+    List<PostSummaryDto> posts = samplePosts(20);
+    byte[] jsonBytes = json.serialize(posts);
+    byte[] compactBytes = compact.serialize(posts);
+
+    assertTrue(compactBytes.length < jsonBytes.length / 2);
+    assertEquals(posts, compact.deserialize(compactBytes));
+  }
+
+  /**
+   * 耗时对比，默认构建不运行，使用 mvn test -Pload 执行
+   */
+  @Test
+  @Tag("load")
+  void timingAgainstJson() {
+    List<PostSummaryDto> posts = samplePosts(20);
+
+    long[] jsonNanos = measure(json, posts);
+    long[] compactNanos = measure(compact, posts);
+
+    log.info(
+      "json: ser {} us, deser {} us; compact: ser {} us, deser {} us",
+      jsonNanos[0] / ITERATIONS / 1000,
+      jsonNanos[1] / ITERATIONS / 1000,
+      compactNanos[0] / ITERATIONS / 1000,
+      compactNanos[1] / ITERATIONS / 1000
+    );
+    assertEquals(posts, compact.deserialize(compact.serialize(posts)));
+  }
+
+  private static long[] measure(RedisSerializer<Object> serializer, Object value) {
+    // 预热
+    for (int i = 0; i < ITERATIONS; i++) {
+      serializer.deserialize(serializer.serialize(value));
+    }
+    byte[] bytes = null;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      bytes = serializer.serialize(value);
+    }
+    long ser = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      serializer.deserialize(bytes);
+    }
+    long deser = System.nanoTime() - start;
+    return new long[] { ser, deser };
+  }
+
+  private static List<PostSummaryDto> samplePosts(int count) {
+    AuthorDto author = new AuthorDto();
+    author.setId(1L);
+    author.setUsername("alice");
+    author.setAvatar("https://example.com/avatar/alice.png");
+
+    CategoryDto category = new CategoryDto();
+    category.setId(2L);
+    category.setName("技术");
+    category.setDescription("技术讨论");
+    category.setIcon("code");
+
+    TagDto tag = new TagDto();
+    tag.setId(3L);
+    tag.setName("java");
+    tag.setDescription("Java 相关");
+    tag.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+    String content = "## 标题\n\n这是一段用于测试缓存体积的 markdown 正文，包含 `code` 和链接。\n"
+      .repeat(40);
+    List<PostSummaryDto> posts = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      PostSummaryDto post = new PostSummaryDto();
+      post.setId((long) i);
+      post.setTitle("Post " + i);
+      post.setContent(content + i);
+      post.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i));
+      post.setAuthor(author);
+      post.setCategory(category);
+      post.setTags(new ArrayList<>(List.of(tag)));
+      post.setViews(i * 10L);
+      post.setStatus(PostStatus.PUBLISHED);
+      post.setType(PostType.NORMAL);
+      post.setReactions(new ArrayList<>());
+      post.setParticipants(new ArrayList<>(List.of(author)));
+      posts.add(post);
+    }
+    return posts;
+  }
+}
@@ -0,0 +1,49 @@
+package com.openisle.config;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.repository.PostRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PostExcerptInitializerTest {
+
+  private final PostRepository postRepository = mock(PostRepository.class);
+  private final PostExcerptInitializer initializer = new PostExcerptInitializer(postRepository);
+
+  @Test
+  void backfillsExcerptWithStrippedMarkdown() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[] { 3L, "# Title\n\n**bold** [link](http://a.b)" });
+    when(postRepository.findContentWithoutExcerpt(eq(0L), any())).thenReturn(rows);
+    when(postRepository.updateExcerpt(anyLong(), anyString())).thenReturn(1);
+
+    initializer.run();
+
+    verify(postRepository).updateExcerpt(3L, "Title\n\nbold link");
+    verify(postRepository, times(1)).findContentWithoutExcerpt(anyLong(), any());
+  }
+
+  @Test
+  void pagesByIdUntilShortBatch() {
+    List<Object[]> full = new ArrayList<>();
+    for (long id = 1; id <= PostExcerptInitializer.BATCH_SIZE; id++) {
+      full.add(new Object[] { id, "text" });
+    }
+    when(postRepository.findContentWithoutExcerpt(eq(0L), any())).thenReturn(full);
+    when(postRepository.findContentWithoutExcerpt(
+      eq((long) PostExcerptInitializer.BATCH_SIZE),
+      any()
+    )).thenReturn(List.of());
+
+    initializer.run();
+
+    verify(postRepository, times(PostExcerptInitializer.BATCH_SIZE)).updateExcerpt(
+      anyLong(),
+      eq("text")
+    );
+    verify(postRepository, times(2)).findContentWithoutExcerpt(anyLong(), any());
+  }
+}
@@ -0,0 +1,71 @@
+package com.openisle.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ShardingStrategyTest {
+
+  private static final int USERS = 100_000;
+
+  @Test
+  void usernamesSpreadEvenlyAcrossShards() {
+    ShardingStrategy strategy = new ShardingStrategy(16, 512);
+
+    for (int i = 0; i < USERS; i++) {
+      strategy.getShardInfo("user" + i);
+    }
+
+    double expected = (double) USERS / 16;
+    for (int shard = 0; shard < 16; shard++) {
+      long count = strategy.getRoutedCount(shard);
+      assertTrue(
+        Math.abs(count - expected) < expected * 0.15,
+        "shard " + shard + " got " + count + " of " + USERS
+      );
+    }
+  }
+
+  @Test
+  void routingIsStableAndUsesHexQueueNames() {
+    ShardingStrategy a = new ShardingStrategy(16, 512);
+    ShardingStrategy b = new ShardingStrategy(16, 512);
+
+    ShardInfo info = a.getShardInfo("alice");
+
+    assertEquals(info, b.getShardInfo("alice"));
+    String key = Integer.toHexString(info.getShardIndex());
+    assertEquals("notifications-queue-" + key, info.getQueueName());
+    assertEquals("notifications.shard." + key, info.getRoutingKey());
+  }
+
+  @Test
+  void addingShardMovesOnlyAFewUsers() {
+    ShardingStrategy before = new ShardingStrategy(16, 512);
+    ShardingStrategy after = new ShardingStrategy(17, 512);
+
+    int moved = 0;
+    for (int i = 0; i < USERS; i++) {
+      String username = "user" + i;
+      int from = before.getShardInfo(username).getShardIndex();
+      int to = after.getShardInfo(username).getShardIndex();
+      if (from != to) {
+        assertEquals(16, to);
+        moved++;
+      }
+    }
+    // 理想情况下约 1/17 的用户迁移到新分片
+    assertTrue(moved < USERS / 10, "moved " + moved);
+  }
+
+  @Test
+  void ringSharesSumToOne() {
+    double[] shares = new ShardingStrategy(8, 512).getRingShares();
+
+    double total = 0;
+    for (double share : shares) {
+      total += share;
+    }
+    assertEquals(1.0, total, 1e-9);
+  }
+}
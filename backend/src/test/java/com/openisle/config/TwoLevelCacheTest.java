@@ -0,0 +1,82 @@
+package com.openisle.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openisle.dto.TagDto;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class TwoLevelCacheTest {
+
+  private final ConcurrentMapCache remote = new ConcurrentMapCache("openisle_tags");
+  private final TwoLevelCache cache = new TwoLevelCache(
+    remote,
+    Caffeine.newBuilder().maximumSize(10).build(),
+    new CompactRedisSerializer(CachingConfig.cacheObjectMapper(), 1024),
+    key -> {}
+  );
+  private final TwoLevelCache shared = new TwoLevelCache(
+    remote,
+    Caffeine.newBuilder().maximumSize(10).build(),
+    null,
+    key -> {}
+  );
+
+  @Test
+  void sharedLocalHitReturnsSameObjectWithoutRemoteLookup() {
+    remote.put("one", tag("spring"));
+
+    TagDto first = shared.get("one", TagDto.class);
+    remote.evict("one");
+    TagDto second = shared.get("one", TagDto.class);
+
+    assertSame(first, second);
+  }
+
+  @Test
+  void sharedLocalCachesNull() {
+    remote.put("none", null);
+
+    assertNotNull(shared.get("none"));
+    remote.evict("none");
+    assertNull(shared.get("none").get());
+  }
+
+  @Test
+  void localHitReturnsIndependentCopy() {
+    cache.put("all", new ArrayList<>(List.of(tag("java"))));
+
+    @SuppressWarnings("unchecked")
+    List<TagDto> first = (List<TagDto>) cache.get("all").get();
+    first.get(0).setName("mutated");
+    first.add(tag("extra"));
+
+    @SuppressWarnings("unchecked")
+    List<TagDto> second = (List<TagDto>) cache.get("all").get();
+    assertNotSame(first, second);
+    assertEquals(1, second.size());
+    assertEquals("java", second.get(0).getName());
+  }
+
+  @Test
+  void localCopyIsFilledFromRemote() {
+    remote.put("one", tag("spring"));
+
+    TagDto first = cache.get("one", TagDto.class);
+    remote.evict("one");
+    TagDto second = cache.get("one", TagDto.class);
+
+    assertNotSame(first, second);
+    assertEquals("spring", second.getName());
+  }
+
+  private static TagDto tag(String name) {
+    TagDto tag = new TagDto();
+    tag.setId(1L);
+    tag.setName(name);
+    return tag;
+  }
+}
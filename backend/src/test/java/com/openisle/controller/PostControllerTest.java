@@ -12,9 +12,14 @@ import com.openisle.mapper.ReactionMapper;
 import com.openisle.mapper.TagMapper;
 import com.openisle.mapper.UserMapper;
 import com.openisle.model.*;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.PostListRow;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.UserRepository;
 import com.openisle.service.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -73,6 +78,9 @@ class PostControllerTest {
   @MockBean
   private PostReadService postReadService;
 
+  @MockBean
+  private PostViewService postViewService;
+
   @MockBean
   private MedalService medalService;
 
@@ -88,6 +96,15 @@ class PostControllerTest {
   @MockBean
   private com.openisle.repository.PollVoteRepository pollVoteRepository;
 
+  @MockBean
+  private PostRepository postRepository;
+
+  @MockBean
+  private UserRepository userRepository;
+
+  @MockBean
+  private CategoryRepository categoryRepository;
+
   @Test
   void createAndGetPost() throws Exception {
     User user = new User();
@@ -213,6 +230,7 @@ class PostControllerTest {
   @Test
   void listPosts() throws Exception {
     User user = new User();
+    user.setId(3L);
     user.setUsername("bob");
     Category cat = new Category();
     cat.setId(1L);
@@ -224,31 +242,77 @@ class PostControllerTest {
     tag.setName("java");
     tag.setDescription("Java programming language");
     tag.setIcon("java-icon");
-    Post post = new Post();
-    post.setId(2L);
-    post.setTitle("hello");
-    post.setContent("world");
-    post.setCreatedAt(LocalDateTime.now());
-    post.setAuthor(user);
-    post.setCategory(cat);
-    post.setTags(Set.of(tag));
+    PostListRow row = listRow(2L, "hello", "world", 3L, 1L);
 
-    when(postService.listPostsByCategories(null, null, null)).thenReturn(List.of(post));
-    when(commentService.getParticipants(anyLong(), anyInt())).thenReturn(List.of());
-    when(reactionService.getReactionsForPost(anyLong())).thenReturn(List.of());
-    when(commentService.getLastCommentTime(anyLong())).thenReturn(null);
+    when(postService.listPostRows(PostSort.CREATED_AT, false, null, null, null, null)).thenReturn(
+      List.of(row)
+    );
+    when(userRepository.findAllById(Set.of(3L))).thenReturn(List.of(user));
+    when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(cat));
+    when(postRepository.findTagsByPostIds(List.of(2L))).thenReturn(
+      List.<Object[]>of(new Object[] { 2L, tag })
+    );
+    when(commentService.getParticipantsForPosts(anyMap(), anyInt())).thenReturn(
+      Map.of(2L, List.of(user))
+    );
 
     mockMvc
       .perform(get("/api/posts"))
       .andExpect(status().isOk())
       .andExpect(jsonPath("$[0].title").value("hello"))
+      .andExpect(jsonPath("$[0].content").value("world"))
       .andExpect(jsonPath("$[0].comments").doesNotExist())
       .andExpect(jsonPath("$[0].author.username").value("bob"))
       .andExpect(jsonPath("$[0].category.name").value("tech"))
       .andExpect(jsonPath("$[0].tags[0].name").value("java"))
+      .andExpect(jsonPath("$[0].participants[0].username").value("bob"))
       .andExpect(jsonPath("$[0].subscribed").value(false));
   }
 
+  @Test
+  void listPostsWithCursorReturnsNextCursorHeader() throws Exception {
+    PostListRow row = listRow(2L, "hello", "world", 3L, 1L);
+
+    when(
+      postService.listPostsByCursor(eq(PostSort.VIEWS), eq(false), any(), any(), eq("abc"), eq(1))
+    ).thenReturn(List.of(row));
+    when(postService.nextCursor(List.of(row), PostSort.VIEWS, 1)).thenReturn("next");
+
+    mockMvc
+      .perform(get("/api/posts/ranking").param("cursor", "abc").param("pageSize", "1"))
+      .andExpect(status().isOk())
+      .andExpect(header().string("X-Next-Cursor", "next"))
+      .andExpect(jsonPath("$[0].title").value("hello"));
+
+    verify(postService, never()).listPostRows(any(), anyBoolean(), any(), any(), any(), any());
+  }
+
+  private static PostListRow listRow(
+    Long id,
+    String title,
+    String excerpt,
+    Long authorId,
+    Long categoryId
+  ) {
+    return new PostListRow(
+      id,
+      title,
+      excerpt,
+      LocalDateTime.now(),
+      authorId,
+      categoryId,
+      0,
+      0,
+      PostStatus.PUBLISHED,
+      null,
+      null,
+      true,
+      false,
+      PostVisibleScopeType.ALL,
+      PostType.NORMAL
+    );
+  }
+
   @Test
   void createPostRejectsInvalidCaptcha() throws Exception {
     ReflectionTestUtils.setField(postController, "captchaEnabled", true);
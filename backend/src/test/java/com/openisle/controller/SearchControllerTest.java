@@ -91,7 +91,7 @@ class SearchControllerTest {
     PostSummaryDto summaryDto1 = new PostSummaryDto();
     summaryDto1.setId(2L);
     summaryDto1.setTitle("spring");
-    Mockito.when(postMapper.toSummaryDto(p)).thenReturn(summaryDto1);
+    Mockito.when(postMapper.toSummaryDtos(List.of(p))).thenReturn(List.of(summaryDto1));
 
     mockMvc
       .perform(get("/api/search/posts/title").param("keyword", "spr"))
@@ -108,7 +108,7 @@ class SearchControllerTest {
     PostSummaryDto summaryDto2 = new PostSummaryDto();
     summaryDto2.setId(5L);
     summaryDto2.setTitle("hello");
-    Mockito.when(postMapper.toSummaryDto(p)).thenReturn(summaryDto2);
+    Mockito.when(postMapper.toSummaryDtos(List.of(p))).thenReturn(List.of(summaryDto2));
 
     mockMvc
       .perform(get("/api/search/posts").param("keyword", "he"))
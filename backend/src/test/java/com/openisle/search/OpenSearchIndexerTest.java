@@ -0,0 +1,177 @@
+package com.openisle.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.ErrorCause;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+
+class OpenSearchIndexerTest {
+
+  private final OpenSearchClient client = mock(OpenSearchClient.class);
+  private OpenSearchIndexer indexer;
+
+  @AfterEach
+  void tearDown() {
+    indexer.stop();
+  }
+
+  @Test
+  void coalescesUpdatesAndSendsOneBulkPerBatch() throws Exception {
+    BulkResponse ok = response(false);
+    when(client.bulk(any(BulkRequest.class))).thenReturn(ok);
+    start(3);
+
+    indexer.indexDocument("posts", document(1L, "v1"));
+    indexer.indexDocument("posts", document(1L, "v2"));
+    indexer.indexDocument("posts", document(2L, "a"));
+    indexer.deleteDocument("posts", 3L);
+    indexer.flush();
+
+    ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+    verify(client, times(1)).bulk(captor.capture());
+    BulkRequest request = captor.getValue();
+    assertEquals(3, request.operations().size());
+    assertEquals("1", request.operations().get(0).index().id());
+    assertTrue(request.operations().get(2).isDelete());
+  }
+
+  @Test
+  void retriesOnlyRejectedItems() throws Exception {
+    BulkResponseItem accepted = item(200, null);
+    BulkResponseItem throttled = item(429, mock(ErrorCause.class));
+    BulkResponseItem rejected = item(400, mock(ErrorCause.class));
+    BulkResponse partial = response(true, accepted, throttled, rejected);
+    BulkResponse ok = response(false);
+    when(client.bulk(any(BulkRequest.class))).thenReturn(partial, ok);
+    start(100);
+
+    indexer.indexDocument("posts", document(1L, "a"));
+    indexer.indexDocument("posts", document(2L, "b"));
+    indexer.indexDocument("posts", document(3L, "c"));
+    indexer.flush();
+
+    ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+    verify(client, times(2)).bulk(captor.capture());
+    List<BulkRequest> requests = captor.getAllValues();
+    assertEquals(3, requests.get(0).operations().size());
+    assertEquals(1, requests.get(1).operations().size());
+    assertEquals("2", requests.get(1).operations().get(0).index().id());
+  }
+
+  @Test
+  void holdsBackNewerWriteWhileSameDocumentIsInFlight() throws Exception {
+    CountDownLatch firstSent = new CountDownLatch(1);
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    BulkResponse ok = response(false);
+    when(client.bulk(any(BulkRequest.class))).thenAnswer(inv -> {
+      if (calls.incrementAndGet() == 1) {
+        firstSent.countDown();
+        assertTrue(releaseFirst.await(5, TimeUnit.SECONDS));
+      }
+      return ok;
+    });
+    start(1);
+
+    indexer.indexDocument("posts", document(1L, "v1"));
+    assertTrue(firstSent.await(5, TimeUnit.SECONDS));
+    indexer.indexDocument("posts", document(1L, "v2"));
+    indexer.indexDocument("posts", document(2L, "a"));
+
+    // 文档 1 仍在途，只有文档 2 被发送
+    ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+    verify(client, timeout(5000).times(2)).bulk(captor.capture());
+    assertEquals("2", captor.getAllValues().get(1).operations().get(0).index().id());
+
+    releaseFirst.countDown();
+    indexer.flush();
+
+    verify(client, times(3)).bulk(captor.capture());
+    BulkRequest last = captor.getAllValues().get(captor.getAllValues().size() - 1);
+    assertEquals(1, last.operations().size());
+    assertEquals("1", last.operations().get(0).index().id());
+    assertEquals("v2", ((SearchDocument) last.operations().get(0).index().document()).content());
+  }
+
+  @Test
+  void writeReturnsEveryFailedOperationWithoutRetrying() throws Exception {
+    BulkResponseItem accepted = item(200, null);
+    BulkResponseItem rejected = item(400, mock(ErrorCause.class));
+    BulkResponse partial = response(true, accepted, rejected);
+    when(client.bulk(any(BulkRequest.class))).thenReturn(partial);
+    start(100);
+    SearchOperation index = SearchOperation.index("posts", document(1L, "a"));
+    SearchOperation delete = SearchOperation.delete("posts", 2L);
+
+    List<SearchOperation> failed = indexer.write(List.of(index, delete));
+
+    assertEquals(1, failed.size());
+    assertSame(delete, failed.get(0));
+    verify(client, times(1)).bulk(any(BulkRequest.class));
+  }
+
+  @Test
+  void versionConflictOnVersionedWriteCountsAsDone() throws Exception {
+    BulkResponseItem conflict = item(409, mock(ErrorCause.class));
+    BulkResponseItem unversioned = item(409, mock(ErrorCause.class));
+    when(client.bulk(any(BulkRequest.class))).thenReturn(response(true, conflict, unversioned));
+    start(100);
+    SearchOperation stale = SearchOperation.index("posts", document(1L, "old"), 5L);
+    SearchOperation plain = SearchOperation.index("posts", document(2L, "a"));
+
+    List<SearchOperation> failed = indexer.write(List.of(stale, plain));
+
+    assertEquals(List.of(plain), failed);
+    ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+    verify(client).bulk(captor.capture());
+    assertEquals(5L, captor.getValue().operations().get(0).index().version());
+    assertNull(captor.getValue().operations().get(1).index().version());
+  }
+
+  @Test
+  void estimatesUtf8Size() {
+    long ascii = OpenSearchIndexer.estimateBytes(document(1L, "abc"));
+    long chinese = OpenSearchIndexer.estimateBytes(document(1L, "中文字"));
+    assertEquals(6, chinese - ascii);
+  }
+
+  private void start(int actions) {
+    OpenSearchProperties.Bulk settings = new OpenSearchProperties.Bulk();
+    settings.setActions(actions);
+    settings.setConcurrentRequests(2);
+    settings.setFlushIntervalMs(60_000);
+    settings.setRetryBackoffMs(1);
+    indexer = new OpenSearchIndexer(client, settings);
+    indexer.start();
+  }
+
+  private static SearchDocument document(Long id, String content) {
+    return new SearchDocument("post", id, "title", content, "alice", null, List.of(), id, 0L);
+  }
+
+  private static BulkResponse response(boolean errors, BulkResponseItem... items) {
+    BulkResponse response = mock(BulkResponse.class);
+    when(response.errors()).thenReturn(errors);
+    when(response.items()).thenReturn(List.of(items));
+    return response;
+  }
+
+  private static BulkResponseItem item(int status, ErrorCause error) {
+    BulkResponseItem item = mock(BulkResponseItem.class);
+    when(item.status()).thenReturn(status);
+    when(item.error()).thenReturn(error);
+    return item;
+  }
+}
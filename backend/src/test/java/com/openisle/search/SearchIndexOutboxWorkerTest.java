@@ -0,0 +1,121 @@
+package com.openisle.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.model.SearchIndexOperation;
+import com.openisle.model.SearchIndexOutboxEntry;
+import com.openisle.repository.SearchIndexOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class SearchIndexOutboxWorkerTest {
+
+  private final SearchIndexOutboxRepository outboxRepo = mock(SearchIndexOutboxRepository.class);
+  private final SearchIndexer indexer = mock(SearchIndexer.class);
+  private final SearchReindexService reindexService = mock(SearchReindexService.class);
+  private final OpenSearchProperties properties = new OpenSearchProperties();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private SearchIndexOutboxWorker worker;
+
+  @BeforeEach
+  void setUp() {
+    properties.setEnabled(true);
+    when(reindexService.writeTargets(anyString())).thenAnswer(inv ->
+      List.of((String) inv.getArgument(0))
+    );
+    worker = new SearchIndexOutboxWorker(
+      outboxRepo,
+      indexer,
+      reindexService,
+      properties,
+      null,
+      objectMapper,
+      meterRegistry
+    );
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void sendsLatestChangePerDocumentAndDeletesSentRows() throws Exception {
+    SearchIndexOutboxEntry first = entry(1L, 7L, SearchIndexOperation.INDEX, document(7L, "v1"));
+    SearchIndexOutboxEntry second = entry(2L, 7L, SearchIndexOperation.INDEX, document(7L, "v2"));
+    SearchIndexOutboxEntry removed = entry(3L, 8L, SearchIndexOperation.DELETE, null);
+    when(outboxRepo.findDue(any(), anyInt(), any())).thenReturn(List.of(first, second, removed));
+    when(indexer.write(anyList())).thenReturn(List.of());
+
+    assertEquals(3, worker.drainBatch(10));
+
+    ArgumentCaptor<List<SearchOperation>> captor = ArgumentCaptor.forClass(List.class);
+    verify(indexer).write(captor.capture());
+    List<SearchOperation> operations = captor.getValue();
+    assertEquals(2, operations.size());
+    assertEquals("v2", operations.get(0).document().content());
+    assertTrue(operations.get(1).isDelete());
+    // 以行 id 作为外部版本号，晚到的旧变更不会覆盖新写入
+    assertEquals(2L + SearchReindexService.PAGE_LOAD_VERSION, operations.get(0).version());
+    assertEquals(3L + SearchReindexService.PAGE_LOAD_VERSION, operations.get(1).version());
+    verify(outboxRepo).deleteSuperseded("posts", 7L, 2L);
+    verify(outboxRepo).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+    assertEquals(2.0, meterRegistry.counter("search.outbox.sent").count());
+  }
+
+  @Test
+  void rejectedChangesBackOffAndStayInOutbox() throws Exception {
+    properties.getOutbox().setRetryBackoffMs(1000);
+    SearchIndexOutboxEntry ok = entry(1L, 1L, SearchIndexOperation.INDEX, document(1L, "a"));
+    SearchIndexOutboxEntry bad = entry(2L, 2L, SearchIndexOperation.INDEX, document(2L, "b"));
+    bad.setAttempts(2);
+    when(outboxRepo.findDue(any(), anyInt(), any())).thenReturn(List.of(ok, bad));
+    when(indexer.write(anyList())).thenAnswer(inv -> {
+      List<SearchOperation> operations = inv.getArgument(0);
+      return List.of(operations.get(1));
+    });
+    LocalDateTime before = LocalDateTime.now();
+
+    worker.drainBatch(10);
+
+    assertEquals(3, bad.getAttempts());
+    // 第三次失败后等待 1000 << 2 毫秒
+    assertFalse(bad.getNextAttemptAt().isBefore(before.plusSeconds(4)));
+    assertNotNull(bad.getLastError());
+    verify(outboxRepo).deleteAllByIdInBatch(List.of(1L));
+    verify(outboxRepo, never()).deleteSuperseded(eq("posts"), eq(2L), anyLong());
+  }
+
+  @Test
+  void skipsWhenSearchDisabled() {
+    properties.setEnabled(false);
+
+    worker.drain();
+
+    verifyNoInteractions(outboxRepo, indexer);
+  }
+
+  private SearchIndexOutboxEntry entry(
+    Long id,
+    Long entityId,
+    SearchIndexOperation operation,
+    SearchDocument document
+  ) throws Exception {
+    SearchIndexOutboxEntry entry = new SearchIndexOutboxEntry();
+    entry.setId(id);
+    entry.setIndexName("posts");
+    entry.setEntityId(entityId);
+    entry.setOperation(operation);
+    entry.setPayload(document == null ? null : objectMapper.writeValueAsString(document));
+    entry.setNextAttemptAt(LocalDateTime.now());
+    return entry;
+  }
+
+  private static SearchDocument document(Long id, String content) {
+    return new SearchDocument("post", id, "title", content, "alice", null, List.of(), id, 0L);
+  }
+}
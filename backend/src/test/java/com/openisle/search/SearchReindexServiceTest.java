@@ -0,0 +1,210 @@
+package com.openisle.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Post;
+import com.openisle.model.PostStatus;
+import com.openisle.model.SearchReindexCheckpoint;
+import com.openisle.repository.*;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class SearchReindexServiceTest {
+
+  private final SearchIndexer indexer = mock(SearchIndexer.class);
+  private final SearchIndexInitializer manager = mock(SearchIndexInitializer.class);
+  private final SearchReindexCheckpointRepository checkpointRepo = mock(
+    SearchReindexCheckpointRepository.class
+  );
+  private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+  private final PostRepository postRepo = mock(PostRepository.class);
+  private final OpenSearchProperties properties = new OpenSearchProperties();
+  private SearchReindexService service;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    properties.setEnabled(true);
+    properties.setReindexTargetCacheMs(0);
+    ObjectProvider<SearchIndexInitializer> provider = mock(ObjectProvider.class);
+    when(provider.getIfAvailable()).thenReturn(manager);
+    when(transactionTemplate.execute(any())).thenAnswer(inv ->
+      ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null)
+    );
+    when(checkpointRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    when(checkpointRepo.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+    // 默认其他索引都已是最新版本
+    when(checkpointRepo.findForUpdate(anyString())).thenAnswer(inv ->
+      Optional.of(checkpoint(inv.getArgument(0), "ignored", 0, true))
+    );
+    when(checkpointRepo.findById(anyString())).thenAnswer(inv ->
+      Optional.of(checkpoint(inv.getArgument(0), "ignored", 0, true))
+    );
+    service = new SearchReindexService(
+      indexer,
+      properties,
+      provider,
+      checkpointRepo,
+      transactionTemplate,
+      postRepo,
+      mock(CommentRepository.class),
+      mock(UserRepository.class),
+      mock(CategoryRepository.class),
+      mock(TagRepository.class)
+    );
+  }
+
+  @Test
+  void skipsIndicesAlreadyBuiltWithCurrentMapping() throws Exception {
+    service.rebuildIfNeeded();
+
+    verify(manager, never()).createVersionedIndex(anyString());
+    verify(manager, never()).swapAlias(anyString(), anyString());
+    verifyNoInteractions(indexer);
+  }
+
+  @Test
+  void resumesFromCheckpointAndSwapsAlias() throws Exception {
+    String alias = properties.postsIndex();
+    SearchReindexCheckpoint checkpoint = checkpoint(alias, "openisle-posts-v1-1", 10, false);
+    when(checkpointRepo.findForUpdate(alias)).thenReturn(Optional.of(checkpoint));
+    when(checkpointRepo.findById(alias)).thenReturn(Optional.of(checkpoint));
+    when(manager.exists("openisle-posts-v1-1")).thenReturn(true);
+    when(postRepo.findByIdGreaterThanOrderByIdAsc(eq(10L), any())).thenReturn(
+      List.of(post(11L, PostStatus.PUBLISHED), post(12L, PostStatus.PENDING))
+    );
+
+    service.rebuildIfNeeded();
+
+    verify(manager, never()).createVersionedIndex(anyString());
+    verify(indexer).beginBulkLoad("openisle-posts-v1-1");
+    verify(indexer).write(
+      argThat(
+        ops ->
+          ops.size() == 1 &&
+          ops.get(0).index().equals("openisle-posts-v1-1") &&
+          ops.get(0).id() == 11L &&
+          ops.get(0).version() == SearchReindexService.PAGE_LOAD_VERSION
+      )
+    );
+    verify(indexer, times(1)).write(any());
+    verify(indexer).endBulkLoad("openisle-posts-v1-1");
+    verify(manager).swapAlias(alias, "openisle-posts-v1-1");
+    assertTrue(checkpoint.isCompleted());
+    assertEquals(12L, checkpoint.getLastEntityId());
+    assertEquals(List.of(alias), service.writeTargets(alias));
+  }
+
+  @Test
+  void mappingVersionChangeBuildsNewIndexFromScratch() throws Exception {
+    String alias = properties.postsIndex();
+    SearchReindexCheckpoint checkpoint = checkpoint(alias, "openisle-posts-v0-1", 99, true);
+    checkpoint.setMappingVersion(SearchIndexInitializer.MAPPING_VERSION - 1);
+    when(checkpointRepo.findForUpdate(alias)).thenReturn(Optional.of(checkpoint));
+    when(manager.createVersionedIndex(alias)).thenReturn("openisle-posts-v1-2");
+    when(postRepo.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of());
+
+    service.rebuildIfNeeded();
+
+    // 旧索引仍在别名下，只能在切换后删除
+    verify(manager, never()).deleteIndex("openisle-posts-v0-1");
+    verify(manager).swapAlias(alias, "openisle-posts-v1-2");
+    assertEquals(SearchIndexInitializer.MAPPING_VERSION, checkpoint.getMappingVersion());
+    assertTrue(checkpoint.isCompleted());
+  }
+
+  @Test
+  void failedPageStopsRebuildWithoutAdvancingCheckpoint() throws Exception {
+    properties.getBulk().setMaxRetries(1);
+    properties.getBulk().setRetryBackoffMs(0);
+    String alias = properties.postsIndex();
+    SearchReindexCheckpoint checkpoint = checkpoint(alias, "openisle-posts-v1-1", 10, false);
+    when(checkpointRepo.findForUpdate(alias)).thenReturn(Optional.of(checkpoint));
+    when(manager.exists("openisle-posts-v1-1")).thenReturn(true);
+    when(postRepo.findByIdGreaterThanOrderByIdAsc(eq(10L), any())).thenReturn(
+      List.of(post(11L, PostStatus.PUBLISHED))
+    );
+    when(indexer.write(any())).thenAnswer(inv -> inv.getArgument(0));
+
+    service.rebuildIfNeeded();
+
+    verify(indexer, times(2)).write(any());
+    verify(manager, never()).swapAlias(anyString(), anyString());
+    assertFalse(checkpoint.isCompleted());
+    assertEquals(10L, checkpoint.getLastEntityId());
+  }
+
+  @Test
+  void skipsAliasLockedByAnotherNode() throws Exception {
+    String alias = properties.postsIndex();
+    SearchReindexCheckpoint checkpoint = checkpoint(alias, "openisle-posts-v1-1", 10, false);
+    checkpoint.setLockedBy("other-node");
+    checkpoint.setLockedUntil(LocalDateTime.now().plusMinutes(5));
+    when(checkpointRepo.findForUpdate(alias)).thenReturn(Optional.of(checkpoint));
+
+    service.rebuildIfNeeded();
+
+    verify(manager, never()).swapAlias(anyString(), anyString());
+    verifyNoInteractions(indexer);
+    assertEquals("other-node", checkpoint.getLockedBy());
+  }
+
+  @Test
+  void takesOverExpiredLock() throws Exception {
+    String alias = properties.postsIndex();
+    SearchReindexCheckpoint checkpoint = checkpoint(alias, "openisle-posts-v1-1", 10, false);
+    checkpoint.setLockedBy("crashed-node");
+    checkpoint.setLockedUntil(LocalDateTime.now().minusMinutes(1));
+    when(checkpointRepo.findForUpdate(alias)).thenReturn(Optional.of(checkpoint));
+    when(manager.exists("openisle-posts-v1-1")).thenReturn(true);
+    when(postRepo.findByIdGreaterThanOrderByIdAsc(eq(10L), any())).thenReturn(List.of());
+
+    service.rebuildIfNeeded();
+
+    verify(manager).swapAlias(alias, "openisle-posts-v1-1");
+    assertTrue(checkpoint.isCompleted());
+  }
+
+  @Test
+  void writeTargetsFollowBuildRecordedInCheckpoint() {
+    String alias = properties.postsIndex();
+    when(checkpointRepo.findById(alias)).thenReturn(
+      Optional.of(checkpoint(alias, "openisle-posts-v1-3", 0, false))
+    );
+
+    // 其他节点正在构建的索引也要同时写入
+    assertEquals(List.of(alias, "openisle-posts-v1-3"), service.writeTargets(alias));
+  }
+
+  private static SearchReindexCheckpoint checkpoint(
+    String alias,
+    String target,
+    long lastId,
+    boolean completed
+  ) {
+    SearchReindexCheckpoint checkpoint = new SearchReindexCheckpoint();
+    checkpoint.setIndexAlias(alias);
+    checkpoint.setTargetIndex(target);
+    checkpoint.setMappingVersion(SearchIndexInitializer.MAPPING_VERSION);
+    checkpoint.setLastEntityId(lastId);
+    checkpoint.setCompleted(completed);
+    return checkpoint;
+  }
+
+  private static Post post(Long id, PostStatus status) {
+    Post post = new Post();
+    post.setId(id);
+    post.setTitle("title " + id);
+    post.setContent("content");
+    post.setStatus(status);
+    return post;
+  }
+}
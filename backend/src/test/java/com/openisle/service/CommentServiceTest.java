@@ -31,6 +31,7 @@ class CommentServiceTest {
     PointService pointService = mock(PointService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    PostListCacheService postListCacheService = mock(PostListCacheService.class);
 
     CommentService service = new CommentService(
       commentRepo,
@@ -44,7 +45,8 @@ class CommentServiceTest {
       pointHistoryRepo,
       pointService,
       imageUploader,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      postListCacheService
     );
 
     when(commentRepo.countByAuthorAfter(eq("alice"), any())).thenReturn(3L);
@@ -0,0 +1,249 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.dto.ConversationDto;
+import com.openisle.dto.MessageDto;
+import com.openisle.dto.MessageNotificationPayload;
+import com.openisle.dto.NotificationRecipient;
+import com.openisle.mapper.ReactionMapper;
+import com.openisle.model.*;
+import com.openisle.repository.*;
+import com.openisle.util.ConversationCursor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class MessageServiceTest {
+
+  private final MessageRepository messageRepo = mock(MessageRepository.class);
+  private final MessageConversationRepository conversationRepo = mock(
+    MessageConversationRepository.class
+  );
+  private final MessageParticipantRepository participantRepo = mock(
+    MessageParticipantRepository.class
+  );
+  private final MessageUnreadCounterRepository counterRepo = mock(
+    MessageUnreadCounterRepository.class
+  );
+  private final ReactionRepository reactionRepo = mock(ReactionRepository.class);
+  private final UserRepository userRepo = mock(UserRepository.class);
+  private final NotificationProducer notificationProducer = mock(NotificationProducer.class);
+  private final MessageService service = new MessageService(
+    messageRepo,
+    conversationRepo,
+    participantRepo,
+    userRepo,
+    notificationProducer,
+    reactionRepo,
+    new ReactionMapper(),
+    counterRepo
+  );
+
+  @Test
+  void markConversationAsReadResetsDirectMessageUnread() {
+    MessageParticipant participant = participant(false, 3);
+    when(participantRepo.findForUpdate(10L, 1L)).thenReturn(Optional.of(participant));
+
+    service.markConversationAsRead(10L, 1L);
+
+    verify(counterRepo).decrementMessageUnread(1L, 3);
+    verify(counterRepo, never()).decrementChannelUnread(anyLong());
+    assertEquals(0, participant.getUnreadCount());
+    assertNotNull(participant.getLastReadAt());
+  }
+
+  @Test
+  void markConversationAsReadDecrementsUnreadChannels() {
+    MessageParticipant participant = participant(true, 5);
+    when(participantRepo.findForUpdate(10L, 1L)).thenReturn(Optional.of(participant));
+
+    service.markConversationAsRead(10L, 1L);
+
+    verify(counterRepo).decrementChannelUnread(1L);
+    verify(counterRepo, never()).decrementMessageUnread(anyLong(), anyLong());
+  }
+
+  @Test
+  void markConversationAsReadSkipsCountersWhenNothingUnread() {
+    when(participantRepo.findForUpdate(10L, 1L)).thenReturn(Optional.of(participant(false, 0)));
+
+    service.markConversationAsRead(10L, 1L);
+
+    verifyNoInteractions(counterRepo);
+  }
+
+  @Test
+  void unreadCountsComeFromCounters() {
+    MessageUnreadCounter counter = new MessageUnreadCounter();
+    counter.setUserId(1L);
+    counter.setMessageUnread(7);
+    counter.setChannelUnread(2);
+    when(counterRepo.findById(1L)).thenReturn(Optional.of(counter));
+
+    assertEquals(7, service.getUnreadMessageCount(1L));
+    assertEquals(2, service.getUnreadChannelCount(1L));
+    assertEquals(0, service.getUnreadMessageCount(2L));
+    verifyNoInteractions(messageRepo);
+  }
+
+  @Test
+  void getConversationsLoadsPageInBatches() {
+    User alice = user(1L, "alice");
+    User bob = user(2L, "bob");
+    MessageConversation conversation = new MessageConversation();
+    conversation.setId(10L);
+    conversation.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+    Message last = new Message();
+    last.setId(100L);
+    last.setConversation(conversation);
+    last.setSender(bob);
+    last.setContent("hi");
+    last.setCreatedAt(LocalDateTime.of(2025, 1, 2, 0, 0));
+    conversation.setLastMessage(last);
+    MessageParticipant self = participant(conversation, alice, 4);
+    MessageParticipant other = participant(conversation, bob, 0);
+    Reaction reaction = new Reaction();
+    reaction.setId(5L);
+    reaction.setUser(alice);
+    reaction.setMessage(last);
+    reaction.setType(ReactionType.LIKE);
+
+    when(conversationRepo.findDirectConversationsByUserId(eq(1L), any())).thenReturn(
+      List.of(conversation)
+    );
+    when(participantRepo.findWithUsersByConversationIdIn(List.of(10L))).thenReturn(
+      List.of(self, other)
+    );
+    when(reactionRepo.findWithUsersByMessageIdIn(List.of(100L))).thenReturn(List.of(reaction));
+
+    List<ConversationDto> result = service.getConversations(1L, null, 1);
+
+    assertEquals(1, result.size());
+    assertEquals(4, result.get(0).getUnreadCount());
+    assertEquals(2, result.get(0).getParticipants().size());
+    assertEquals(1, result.get(0).getLastMessage().getReactions().size());
+    verify(reactionRepo, never()).findByMessage(any());
+    verifyNoInteractions(messageRepo);
+
+    String next = service.nextConversationCursor(result, 1);
+    assertEquals(new ConversationCursor(last.getCreatedAt(), 10L), ConversationCursor.decode(next));
+  }
+
+  @Test
+  void channelMessageCarriesRecipientIdsAndUnreadDeltasOnly() {
+    User alice = user(1L, "alice");
+    User bob = user(2L, "bob");
+    MessageConversation channel = new MessageConversation();
+    channel.setId(10L);
+    channel.setChannel(true);
+    when(userRepo.findById(1L)).thenReturn(Optional.of(alice));
+    when(conversationRepo.findById(10L)).thenReturn(Optional.of(channel));
+    when(participantRepo.findByConversationIdAndUserId(10L, 1L)).thenReturn(
+      Optional.of(participant(channel, alice, 0))
+    );
+    when(messageRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    when(participantRepo.findNewlyUnread(10L, 1L)).thenReturn(
+      List.of(participant(channel, bob, 1))
+    );
+    MessageUnreadCounter counter = new MessageUnreadCounter();
+    counter.setUserId(2L);
+    counter.setChannelUnread(3);
+    when(counterRepo.findAllById(List.of(2L))).thenReturn(List.of(counter));
+    when(participantRepo.findRecipientIds(10L, 1L)).thenReturn(List.of(2L, 3L, 4L));
+
+    service.sendMessageToConversation(1L, 10L, "hi", null);
+
+    ArgumentCaptor<MessageNotificationPayload> captor = ArgumentCaptor.forClass(
+      MessageNotificationPayload.class
+    );
+    verify(notificationProducer).sendNotification(captor.capture());
+    MessageNotificationPayload payload = captor.getValue();
+    assertEquals(MessageNotificationPayload.CURRENT_VERSION, payload.version());
+    assertTrue(payload.channel());
+    assertEquals("alice", payload.targetUsername());
+    assertEquals(List.of(2L, 3L, 4L), payload.recipientIds());
+    assertEquals(List.of(new NotificationRecipient(2L, "bob", null, 3L)), payload.recipients());
+  }
+
+  @Test
+  void getConversationMessagesPagesByIdAndBatchesReactions() {
+    User alice = user(1L, "alice");
+    MessageConversation conversation = new MessageConversation();
+    conversation.setId(10L);
+    Message older = message(conversation, alice, 101L);
+    Message newer = message(conversation, alice, 102L);
+    newer.setReplyTo(older);
+    Reaction reaction = new Reaction();
+    reaction.setId(5L);
+    reaction.setUser(alice);
+    reaction.setMessage(older);
+    reaction.setType(ReactionType.LIKE);
+
+    when(participantRepo.findByConversationIdAndUserId(10L, 1L)).thenReturn(
+      Optional.of(participant(conversation, alice, 0))
+    );
+    when(messageRepo.findByConversationIdAfter(eq(10L), eq(100L), any())).thenReturn(
+      List.of(older, newer)
+    );
+    when(reactionRepo.findWithUsersByMessageIdIn(List.of(102L, 101L))).thenReturn(
+      List.of(reaction)
+    );
+
+    List<MessageDto> result = service.getConversationMessages(10L, 1L, null, 100L, 20);
+
+    assertEquals(List.of(102L, 101L), result.stream().map(MessageDto::getId).toList());
+    assertEquals(101L, result.get(0).getReplyTo().getId());
+    assertEquals(1, result.get(1).getReactions().size());
+    verify(reactionRepo, never()).findByMessage(any());
+  }
+
+  @Test
+  void getConversationMessagesRejectsBothCursors() {
+    assertThrows(IllegalArgumentException.class, () ->
+      service.getConversationMessages(10L, 1L, 5L, 1L, 20)
+    );
+  }
+
+  private static Message message(MessageConversation conversation, User sender, Long id) {
+    Message message = new Message();
+    message.setId(id);
+    message.setConversation(conversation);
+    message.setSender(sender);
+    message.setContent("m" + id);
+    return message;
+  }
+
+  private static User user(Long id, String username) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername(username);
+    return user;
+  }
+
+  private static MessageParticipant participant(
+    MessageConversation conversation,
+    User user,
+    long unread
+  ) {
+    MessageParticipant participant = new MessageParticipant();
+    participant.setConversation(conversation);
+    participant.setUser(user);
+    participant.setUnreadCount(unread);
+    return participant;
+  }
+
+  private static MessageParticipant participant(boolean channel, long unread) {
+    MessageConversation conversation = new MessageConversation();
+    conversation.setId(10L);
+    conversation.setChannel(channel);
+    MessageParticipant participant = new MessageParticipant();
+    participant.setConversation(conversation);
+    participant.setUnreadCount(unread);
+    return participant;
+  }
+}
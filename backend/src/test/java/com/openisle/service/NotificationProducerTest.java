@@ -0,0 +1,166 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.dto.MessageDto;
+import com.openisle.dto.MessageNotificationPayload;
+import com.openisle.dto.NotificationRecipient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class NotificationProducerTest {
+
+  @TempDir
+  Path spoolDir;
+
+  private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+  private final RabbitOperations ops = mock(RabbitOperations.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private NotificationSpool spool;
+  private NotificationProducer producer;
+
+  @AfterEach
+  void tearDown() {
+    producer.stop();
+  }
+
+  @Test
+  void publishesBatchAndWaitsForConfirms() {
+    brokerUp();
+    start();
+
+    producer.sendNotification(payload(1));
+
+    verify(ops, timeout(2000)).convertAndSend(
+      eq(RabbitMQConfig.EXCHANGE_NAME),
+      startsWith("notifications.shard."),
+      any(MessageNotificationPayload.class)
+    );
+    verify(ops, timeout(2000)).waitForConfirmsOrDie(anyLong());
+    assertEquals(0, spool.fileCount());
+  }
+
+  @Test
+  void spoolsAfterRetriesAndReplaysWhenBrokerRecovers() throws Exception {
+    when(rabbitTemplate.invoke(any())).thenThrow(new AmqpException("broker down"));
+    start();
+
+    producer.sendNotification(payload(1));
+
+    verify(rabbitTemplate, timeout(2000).times(3)).invoke(any());
+    waitFor(() -> spool.fileCount() == 1);
+    assertEquals(2.0, meterRegistry.counter("notification.publisher.retries").count());
+
+    reset(rabbitTemplate);
+    brokerUp();
+    producer.replaySpool();
+
+    verify(ops, timeout(2000)).waitForConfirmsOrDie(anyLong());
+    assertEquals(0, spool.fileCount());
+  }
+
+  @Test
+  void replayDropsUnreadCountsOlderThanPublishedOnes() throws Exception {
+    when(rabbitTemplate.invoke(any())).thenThrow(new AmqpException("broker down"));
+    start();
+
+    producer.sendNotification(unreadPayload(1L, 1L));
+    waitFor(() -> spool.fileCount() == 1);
+
+    reset(rabbitTemplate);
+    brokerUp();
+    producer.sendNotification(unreadPayload(2L, 2L));
+    verify(ops, timeout(2000)).waitForConfirmsOrDie(anyLong());
+
+    producer.replaySpool();
+
+    ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+    verify(ops, timeout(2000).times(2)).convertAndSend(anyString(), anyString(), sent.capture());
+    MessageNotificationPayload replayed = (MessageNotificationPayload) sent.getAllValues().get(1);
+    assertEquals(1L, replayed.message().getId());
+    assertNull(replayed.recipients().get(0).unreadCount());
+    assertEquals(0, spool.fileCount());
+  }
+
+  @Test
+  void spoolsWhenBufferIsFull() {
+    // 发布一直阻塞，缓冲区很快被占满
+    when(rabbitTemplate.invoke(any())).thenAnswer(inv -> {
+      Thread.sleep(5000);
+      return null;
+    });
+    start();
+
+    for (int i = 0; i < 10; i++) {
+      producer.sendNotification(payload(i));
+    }
+
+    assertTrue(spool.fileCount() > 0);
+  }
+
+  private void start() {
+    spool = new NotificationSpool(spoolDir.toString());
+    producer = new NotificationProducer(
+      rabbitTemplate,
+      new ShardingStrategy(4, 64),
+      spool,
+      meterRegistry
+    );
+    ReflectionTestUtils.setField(producer, "shardingEnabled", true);
+    ReflectionTestUtils.setField(producer, "bufferCapacity", 2);
+    ReflectionTestUtils.setField(producer, "maxAttempts", 3);
+    ReflectionTestUtils.setField(producer, "initialBackoffMs", 10L);
+    ReflectionTestUtils.setField(producer, "confirmTimeoutMs", 100L);
+    producer.start();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void brokerUp() {
+    when(rabbitTemplate.invoke(any())).thenAnswer(inv ->
+      ((RabbitOperations.OperationsCallback<Object>) inv.getArgument(0)).doInRabbit(ops)
+    );
+  }
+
+  private static MessageNotificationPayload payload(long conversationId) {
+    return MessageNotificationPayload.direct(
+      "alice",
+      conversationId,
+      1L,
+      new MessageDto(),
+      List.of()
+    );
+  }
+
+  private static MessageNotificationPayload unreadPayload(long messageId, long unreadCount) {
+    MessageDto message = new MessageDto();
+    message.setId(messageId);
+    return MessageNotificationPayload.direct(
+      "alice",
+      1L,
+      1L,
+      message,
+      List.of(new NotificationRecipient(2L, "bob", unreadCount, null))
+    );
+  }
+
+  private static void waitFor(java.util.function.BooleanSupplier condition) throws Exception {
+    long deadline = System.currentTimeMillis() + 2000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+}
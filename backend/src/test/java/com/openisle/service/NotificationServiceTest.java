@@ -376,7 +376,7 @@ class NotificationServiceTest {
   }
 
   @Test
-  void postViewedNotificationDeletesOldOnes() {
+  void postViewedNotificationRefreshesExistingOne() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
@@ -391,30 +391,65 @@ class NotificationServiceTest {
       rRepo,
       executor
     );
-    org.springframework.test.util.ReflectionTestUtils.setField(
-      service,
-      "websiteUrl",
-      "https://ex.com"
+
+    User owner = new User();
+    owner.setId(1L);
+    User viewer = new User();
+    viewer.setId(2L);
+    Post post = new Post();
+    post.setId(3L);
+
+    when(
+      nRepo.refreshByTypeAndUserAndFromUserAndPost(
+        eq("POST_VIEWED"),
+        eq(1L),
+        eq(2L),
+        eq(3L),
+        any()
+      )
+    ).thenReturn(1);
+
+    service.refreshPostViewedNotification(owner, viewer, post);
+
+    verify(nRepo, never()).deleteByTypeAndFromUserAndPost(any(), any(), any());
+    verify(nRepo, never()).save(any(Notification.class));
+  }
+
+  @Test
+  void postViewedNotificationCreatedWhenMissing() {
+    NotificationRepository nRepo = mock(NotificationRepository.class);
+    UserRepository uRepo = mock(UserRepository.class);
+    ReactionRepository rRepo = mock(ReactionRepository.class);
+    EmailSender email = mock(EmailSender.class);
+    PushNotificationService push = mock(PushNotificationService.class);
+    Executor executor = Runnable::run;
+    NotificationService service = new NotificationService(
+      nRepo,
+      uRepo,
+      email,
+      push,
+      rRepo,
+      executor
     );
 
     User owner = new User();
+    owner.setId(1L);
     User viewer = new User();
+    viewer.setId(2L);
     Post post = new Post();
+    post.setId(3L);
 
     when(nRepo.save(any(Notification.class))).thenAnswer(i -> i.getArgument(0));
 
-    service.createNotification(
-      owner,
-      NotificationType.POST_VIEWED,
-      post,
-      null,
-      null,
-      viewer,
-      null,
-      null
-    );
+    service.refreshPostViewedNotification(owner, viewer, post);
 
-    verify(nRepo).deleteByTypeAndFromUserAndPost(NotificationType.POST_VIEWED, viewer, post);
+    verify(nRepo).refreshByTypeAndUserAndFromUserAndPost(
+      eq("POST_VIEWED"),
+      eq(1L),
+      eq(2L),
+      eq(3L),
+      any()
+    );
     verify(nRepo).save(any(Notification.class));
   }
 }
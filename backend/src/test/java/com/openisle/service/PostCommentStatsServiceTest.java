@@ -0,0 +1,38 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.openisle.repository.PostRepository;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class PostCommentStatsServiceTest {
+
+  @Test
+  void repairStaleStatsDoesNothingWhenConsistent() {
+    PostRepository postRepo = mock(PostRepository.class);
+    when(postRepo.findIdsWithStaleCommentStats()).thenReturn(List.of());
+    PostCommentStatsService service = new PostCommentStatsService(postRepo);
+
+    assertEquals(0, service.repairStaleStats());
+    verify(postRepo, never()).recalculateCommentStats(any());
+  }
+
+  @Test
+  void repairStaleStatsRecalculatesInBatches() {
+    PostRepository postRepo = mock(PostRepository.class);
+    List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+    when(postRepo.findIdsWithStaleCommentStats()).thenReturn(ids);
+    when(postRepo.recalculateCommentStats(any())).thenAnswer(inv ->
+      ((List<?>) inv.getArgument(0)).size()
+    );
+    PostCommentStatsService service = new PostCommentStatsService(postRepo);
+
+    assertEquals(501, service.repairStaleStats());
+    verify(postRepo).recalculateCommentStats(ids.subList(0, 500));
+    verify(postRepo).recalculateCommentStats(ids.subList(500, 501));
+  }
+}
@@ -64,9 +64,9 @@ public class PostCommentStatsTest {
     post.setCommentCount(0L);
     post = postRepository.save(post);
 
-    // Verify initial state
+    // Verify initial state: without comments the last reply time is the creation time
     assertEquals(0L, post.getCommentCount());
-    assertNull(post.getLastReplyAt());
+    assertNotNull(post.getLastReplyAt());
 
     // Add a comment
     commentService.addComment("testuser", post.getId(), "Test comment");
@@ -87,4 +87,32 @@ public class PostCommentStatsTest {
     // Verify comment count is updated
     assertEquals(2L, post.getCommentCount());
   }
+
+  @Test
+  public void freshPostWithoutCommentsIsNotStale() {
+    User user = new User();
+    user.setUsername("freshuser");
+    user.setEmail("fresh@example.com");
+    user.setPassword("hash");
+    user = userRepository.save(user);
+
+    Category category = new Category();
+    category.setName("Fresh Category");
+    category.setDescription("Fresh Category Description");
+    category.setIcon("fresh-icon");
+    category = categoryRepository.save(category);
+
+    Post post = new Post();
+    post.setTitle("Fresh Post");
+    post.setContent("Fresh content");
+    post.setAuthor(user);
+    post.setCategory(category);
+    post.setStatus(PostStatus.PUBLISHED);
+    post.setCommentCount(0L);
+    post = postRepository.saveAndFlush(post);
+
+    // lastReplyAt 与 createdAt 分别取当前时间，不应被当作不一致
+    assertNotNull(post.getLastReplyAt());
+    assertFalse(postRepository.findIdsWithStaleCommentStats().contains(post.getId()));
+  }
 }
@@ -0,0 +1,72 @@
+package com.openisle.service;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class PostListCacheServiceTest {
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+  @SuppressWarnings("unchecked")
+  private final HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+
+  private final PostListCacheService service = new PostListCacheService(redis);
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void generationIsNotBumpedWhenTransactionRollsBack() {
+    when(redis.opsForHash()).thenReturn(hashOps);
+    TransactionSynchronizationManager.initSynchronization();
+
+    service.evict(post());
+    synchronizations().forEach(sync ->
+      sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK)
+    );
+
+    verify(hashOps, never()).increment(anyString(), any(), anyLong());
+  }
+
+  @Test
+  void generationIsBumpedAfterCommit() {
+    when(redis.opsForHash()).thenReturn(hashOps);
+    TransactionSynchronizationManager.initSynchronization();
+
+    service.evict(post());
+    verify(hashOps, never()).increment(anyString(), any(), anyLong());
+    synchronizations().forEach(TransactionSynchronization::afterCommit);
+
+    verify(hashOps).increment(anyString(), eq("all"), eq(1L));
+    verify(hashOps).increment(anyString(), eq("c:3"), eq(1L));
+  }
+
+  private static List<TransactionSynchronization> synchronizations() {
+    return TransactionSynchronizationManager.getSynchronizations();
+  }
+
+  private static Post post() {
+    Category category = new Category();
+    category.setId(3L);
+    Post post = new Post();
+    post.setId(1L);
+    post.setCategory(category);
+    post.setTags(Set.of());
+    return post;
+  }
+}
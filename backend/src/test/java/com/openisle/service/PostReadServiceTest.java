@@ -0,0 +1,53 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.repository.PostReadRepository;
+import com.openisle.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PostReadServiceTest {
+
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  private final PostReadService service = new PostReadService(
+    mock(PostReadRepository.class),
+    mock(UserRepository.class),
+    jdbcTemplate
+  );
+
+  @Test
+  void shutdownFlushesBufferedReadsWithPlainUpsert() {
+    service.recordRead(1L, 2L);
+
+    service.flushOnShutdown();
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(jdbcTemplate).update(sql.capture(), any(Object[].class));
+    assertTrue(sql.getValue().startsWith("INSERT INTO post_reads"));
+    assertTrue(sql.getValue().contains("ON DUPLICATE KEY UPDATE"));
+  }
+
+  @Test
+  void readOfDeletedPostDoesNotBlockTheRestOfTheChunk() {
+    service.recordRead(1L, 2L);
+    service.recordRead(1L, 3L);
+    when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(inv -> {
+      Object[] args = (Object[]) inv.getRawArguments()[1];
+      if (args.length > 3 || Long.valueOf(3L).equals(args[1])) {
+        throw new DataIntegrityViolationException("fk");
+      }
+      return 1;
+    });
+
+    service.flushPendingReads();
+    service.flushPendingReads();
+
+    // 整块一次 + 逐条两次，第二次调度时缓冲已清空
+    verify(jdbcTemplate, times(3)).update(anyString(), any(Object[].class));
+  }
+}
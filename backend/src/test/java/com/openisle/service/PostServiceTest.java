@@ -36,6 +36,11 @@ class PostServiceTest {
     PostSubscriptionRepository subRepo = mock(PostSubscriptionRepository.class);
     NotificationRepository notificationRepo = mock(NotificationRepository.class);
     PostReadService postReadService = mock(PostReadService.class);
+    PostViewService postViewService = mock(PostViewService.class);
+    PostViewedNotificationService postViewedNotificationService = mock(
+      PostViewedNotificationService.class
+    );
+    PostListCacheService postListCacheService = mock(PostListCacheService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     TaskScheduler taskScheduler = mock(TaskScheduler.class);
     EmailSender emailSender = mock(EmailSender.class);
@@ -45,6 +50,7 @@ class PostServiceTest {
     PointHistoryRepository pointHistoryRepository = mock(PointHistoryRepository.class);
     RedisTemplate redisTemplate = mock(RedisTemplate.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    CategoryService categoryService = mock(CategoryService.class);
 
     PostService service = new PostService(
       postRepo,
@@ -63,6 +69,9 @@ class PostServiceTest {
       subRepo,
       notificationRepo,
       postReadService,
+      postViewService,
+      postViewedNotificationService,
+      postListCacheService,
       imageUploader,
       taskScheduler,
       emailSender,
@@ -72,7 +81,8 @@ class PostServiceTest {
       pointHistoryRepository,
       PublishMode.DIRECT,
       redisTemplate,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      categoryService
     );
     when(context.getBean(PostService.class)).thenReturn(service);
 
@@ -116,6 +126,11 @@ class PostServiceTest {
     PostSubscriptionRepository subRepo = mock(PostSubscriptionRepository.class);
     NotificationRepository notificationRepo = mock(NotificationRepository.class);
     PostReadService postReadService = mock(PostReadService.class);
+    PostViewService postViewService = mock(PostViewService.class);
+    PostViewedNotificationService postViewedNotificationService = mock(
+      PostViewedNotificationService.class
+    );
+    PostListCacheService postListCacheService = mock(PostListCacheService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     TaskScheduler taskScheduler = mock(TaskScheduler.class);
     EmailSender emailSender = mock(EmailSender.class);
@@ -125,6 +140,7 @@ class PostServiceTest {
     PointHistoryRepository pointHistoryRepository = mock(PointHistoryRepository.class);
     RedisTemplate redisTemplate = mock(RedisTemplate.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    CategoryService categoryService = mock(CategoryService.class);
 
     PostService service = new PostService(
       postRepo,
@@ -143,6 +159,9 @@ class PostServiceTest {
       subRepo,
       notificationRepo,
       postReadService,
+      postViewService,
+      postViewedNotificationService,
+      postListCacheService,
       imageUploader,
       taskScheduler,
       emailSender,
@@ -152,7 +171,8 @@ class PostServiceTest {
       pointHistoryRepository,
       PublishMode.DIRECT,
       redisTemplate,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      categoryService
     );
     when(context.getBean(PostService.class)).thenReturn(service);
 
@@ -209,6 +229,11 @@ class PostServiceTest {
     PostSubscriptionRepository subRepo = mock(PostSubscriptionRepository.class);
     NotificationRepository notificationRepo = mock(NotificationRepository.class);
     PostReadService postReadService = mock(PostReadService.class);
+    PostViewService postViewService = mock(PostViewService.class);
+    PostViewedNotificationService postViewedNotificationService = mock(
+      PostViewedNotificationService.class
+    );
+    PostListCacheService postListCacheService = mock(PostListCacheService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     TaskScheduler taskScheduler = mock(TaskScheduler.class);
     EmailSender emailSender = mock(EmailSender.class);
@@ -218,6 +243,7 @@ class PostServiceTest {
     PointHistoryRepository pointHistoryRepository = mock(PointHistoryRepository.class);
     RedisTemplate redisTemplate = mock(RedisTemplate.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    CategoryService categoryService = mock(CategoryService.class);
 
     PostService service = new PostService(
       postRepo,
@@ -236,6 +262,9 @@ class PostServiceTest {
       subRepo,
       notificationRepo,
       postReadService,
+      postViewService,
+      postViewedNotificationService,
+      postListCacheService,
       imageUploader,
       taskScheduler,
       emailSender,
@@ -245,7 +274,8 @@ class PostServiceTest {
       pointHistoryRepository,
       PublishMode.DIRECT,
       redisTemplate,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      categoryService
     );
     when(context.getBean(PostService.class)).thenReturn(service);
 
@@ -294,6 +324,11 @@ class PostServiceTest {
     PostSubscriptionRepository subRepo = mock(PostSubscriptionRepository.class);
     NotificationRepository notificationRepo = mock(NotificationRepository.class);
     PostReadService postReadService = mock(PostReadService.class);
+    PostViewService postViewService = mock(PostViewService.class);
+    PostViewedNotificationService postViewedNotificationService = mock(
+      PostViewedNotificationService.class
+    );
+    PostListCacheService postListCacheService = mock(PostListCacheService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     TaskScheduler taskScheduler = mock(TaskScheduler.class);
     EmailSender emailSender = mock(EmailSender.class);
@@ -303,6 +338,7 @@ class PostServiceTest {
     PointHistoryRepository pointHistoryRepository = mock(PointHistoryRepository.class);
     RedisTemplate redisTemplate = mock(RedisTemplate.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    CategoryService categoryService = mock(CategoryService.class);
 
     PostService service = new PostService(
       postRepo,
@@ -321,6 +357,9 @@ class PostServiceTest {
       subRepo,
       notificationRepo,
       postReadService,
+      postViewService,
+      postViewedNotificationService,
+      postListCacheService,
       imageUploader,
       taskScheduler,
       emailSender,
@@ -330,7 +369,8 @@ class PostServiceTest {
       pointHistoryRepository,
       PublishMode.DIRECT,
       redisTemplate,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      categoryService
     );
     when(context.getBean(PostService.class)).thenReturn(service);
 
@@ -390,6 +430,11 @@ class PostServiceTest {
     PostSubscriptionRepository subRepo = mock(PostSubscriptionRepository.class);
     NotificationRepository notificationRepo = mock(NotificationRepository.class);
     PostReadService postReadService = mock(PostReadService.class);
+    PostViewService postViewService = mock(PostViewService.class);
+    PostViewedNotificationService postViewedNotificationService = mock(
+      PostViewedNotificationService.class
+    );
+    PostListCacheService postListCacheService = mock(PostListCacheService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     TaskScheduler taskScheduler = mock(TaskScheduler.class);
     EmailSender emailSender = mock(EmailSender.class);
@@ -399,6 +444,7 @@ class PostServiceTest {
     PointHistoryRepository pointHistoryRepository = mock(PointHistoryRepository.class);
     RedisTemplate redisTemplate = mock(RedisTemplate.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    CategoryService categoryService = mock(CategoryService.class);
 
     PostService service = new PostService(
       postRepo,
@@ -417,6 +463,9 @@ class PostServiceTest {
       subRepo,
       notificationRepo,
       postReadService,
+      postViewService,
+      postViewedNotificationService,
+      postListCacheService,
       imageUploader,
       taskScheduler,
       emailSender,
@@ -426,7 +475,8 @@ class PostServiceTest {
       pointHistoryRepository,
       PublishMode.DIRECT,
       redisTemplate,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      categoryService
     );
     when(context.getBean(PostService.class)).thenReturn(service);
 
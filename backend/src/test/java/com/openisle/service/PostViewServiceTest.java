@@ -0,0 +1,92 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.repository.PostRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class PostViewServiceTest {
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+  @SuppressWarnings("unchecked")
+  private final HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+
+  private final PostRepository postRepository = mock(PostRepository.class);
+  private final PostViewService service = new PostViewService(redis, postRepository);
+
+  @BeforeEach
+  void setUp() {
+    when(redis.opsForHash()).thenReturn(hashOps);
+  }
+
+  @Test
+  void flushingKeyIsDeletedOnlyAfterDatabaseWrite() {
+    when(redis.hasKey(PostViewService.PENDING_KEY)).thenReturn(true);
+    when(redis.renameIfAbsent(eq(PostViewService.PENDING_KEY), anyString())).thenReturn(true);
+    when(hashOps.entries(anyString())).thenReturn(Map.of("7", "3"));
+
+    assertEquals(1, service.flushPendingViews());
+
+    var order = inOrder(postRepository, hashOps, redis);
+    order.verify(postRepository).incrementViews(7L, 3L);
+    order.verify(hashOps).delete(startsWith(PostViewService.FLUSHING_KEY_PREFIX), eq("7"));
+    order.verify(redis).delete(startsWith(PostViewService.FLUSHING_KEY_PREFIX));
+  }
+
+  @Test
+  void flushingKeyIsKeptWhenRequeueFails() {
+    when(redis.hasKey(PostViewService.PENDING_KEY)).thenReturn(true);
+    when(redis.renameIfAbsent(eq(PostViewService.PENDING_KEY), anyString())).thenReturn(true);
+    when(hashOps.entries(anyString())).thenReturn(Map.of("7", "3"));
+    doThrow(new RuntimeException("db down")).when(postRepository).incrementViews(7L, 3L);
+    when(hashOps.increment(eq(PostViewService.PENDING_KEY), any(), anyLong())).thenThrow(
+      new RedisConnectionFailureException("redis down")
+    );
+
+    assertEquals(0, service.flushPendingViews());
+
+    verify(redis, never()).delete(anyString());
+  }
+
+  @Test
+  void requeuesOrphanedFlushesButLeavesRecentOnes() {
+    String orphan = PostViewService.FLUSHING_KEY_PREFIX + "1:dead";
+    String legacy = PostViewService.FLUSHING_KEY_PREFIX + "0b7c6a7e-legacy";
+    String running = PostViewService.FLUSHING_KEY_PREFIX + System.currentTimeMillis() + ":alive";
+    @SuppressWarnings("unchecked")
+    Cursor<String> cursor = mock(Cursor.class);
+    List<String> keys = List.of(orphan, legacy, running);
+    doAnswer(inv -> {
+      keys.forEach(inv.<Consumer<String>>getArgument(0));
+      return null;
+    })
+      .when(cursor)
+      .forEachRemaining(any());
+    when(redis.scan(any(ScanOptions.class))).thenReturn(cursor);
+    when(hashOps.entries(orphan)).thenReturn(Map.of("7", "3"));
+    when(hashOps.entries(legacy)).thenReturn(Map.of("8", "1"));
+
+    assertEquals(2, service.requeueOrphanedFlushes());
+
+    verify(hashOps).increment(PostViewService.PENDING_KEY, "7", 3L);
+    verify(hashOps).increment(PostViewService.PENDING_KEY, "8", 1L);
+    verify(redis).delete(orphan);
+    verify(redis).delete(legacy);
+    verify(redis, never()).delete(running);
+    verify(hashOps, never()).entries(running);
+    verify(redis, never()).keys(anyString());
+    verify(cursor).close();
+  }
+}
@@ -0,0 +1,93 @@
+package com.openisle.service;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Post;
+import com.openisle.model.User;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.UserRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class PostViewedNotificationServiceTest {
+
+  private final NotificationService notificationService = mock(NotificationService.class);
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final PostRepository postRepository = mock(PostRepository.class);
+  private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+  private final PostViewedNotificationService service = new PostViewedNotificationService(
+    notificationService,
+    redis,
+    userRepository,
+    postRepository,
+    transactionTemplate
+  );
+
+  @BeforeEach
+  void setUp() {
+    when(redis.opsForValue()).thenReturn(valueOps);
+    when(valueOps.setIfAbsent(anyString(), anyString(), any())).thenReturn(true);
+    when(transactionTemplate.execute(any())).thenAnswer(inv ->
+      ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null)
+    );
+  }
+
+  @Test
+  void flushReloadsEntitiesInsideTransaction() {
+    User owner = user(1L);
+    User viewer = user(2L);
+    Post post = post(3L);
+    User freshOwner = user(1L);
+    User freshViewer = user(2L);
+    Post freshPost = post(3L);
+    when(userRepository.findById(1L)).thenReturn(Optional.of(freshOwner));
+    when(userRepository.findById(2L)).thenReturn(Optional.of(freshViewer));
+    when(postRepository.findById(3L)).thenReturn(Optional.of(freshPost));
+
+    service.recordView(owner, viewer, post);
+    service.flushOnShutdown();
+
+    verify(transactionTemplate).execute(any());
+    verify(notificationService).refreshPostViewedNotification(
+      same(freshOwner),
+      same(freshViewer),
+      same(freshPost)
+    );
+  }
+
+  @Test
+  void deletedPostIsSkipped() {
+    when(userRepository.findById(anyLong())).thenAnswer(inv ->
+      Optional.of(user(inv.getArgument(0)))
+    );
+    when(postRepository.findById(3L)).thenReturn(Optional.empty());
+
+    service.recordView(user(1L), user(2L), post(3L));
+    service.flushPending();
+
+    verifyNoInteractions(notificationService);
+  }
+
+  private static User user(Long id) {
+    User user = new User();
+    user.setId(id);
+    return user;
+  }
+
+  private static Post post(Long id) {
+    Post post = new Post();
+    post.setId(id);
+    return post;
+  }
+}
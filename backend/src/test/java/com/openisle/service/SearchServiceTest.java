@@ -3,17 +3,21 @@ package com.openisle.service;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.openisle.model.Post;
-import com.openisle.model.PostStatus;
+import com.openisle.model.User;
 import com.openisle.repository.CategoryRepository;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
 import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.search.OpenSearchProperties;
+import com.openisle.util.SearchCursor;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.data.domain.Pageable;
 
 class SearchServiceTest {
 
@@ -24,6 +28,8 @@ class SearchServiceTest {
     CommentRepository commentRepo = Mockito.mock(CommentRepository.class);
     CategoryRepository categoryRepo = Mockito.mock(CategoryRepository.class);
     TagRepository tagRepo = Mockito.mock(TagRepository.class);
+    OpenSearchProperties properties = new OpenSearchProperties();
+    properties.getFallback().setMode(OpenSearchProperties.FallbackMode.FULLTEXT);
     SearchService service = new SearchService(
       userRepo,
       postRepo,
@@ -31,7 +37,7 @@ class SearchServiceTest {
       categoryRepo,
       tagRepo,
       Optional.empty(),
-      new OpenSearchProperties()
+      properties
     );
 
     Post post1 = new Post();
@@ -42,24 +48,17 @@ class SearchServiceTest {
     post2.setTitle("world");
 
     Mockito.when(
-      postRepo.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
-        Mockito.anyString(),
-        Mockito.anyString(),
-        Mockito.eq(PostStatus.PUBLISHED)
-      )
-    ).thenReturn(List.of(post1));
+      postRepo.searchIdsByFulltext(Mockito.eq("h*"), Mockito.eq("PUBLISHED"), Mockito.anyInt())
+    ).thenReturn(List.of(1L));
     Mockito.when(
-      postRepo.findByTitleContainingIgnoreCaseAndStatus(
-        Mockito.anyString(),
-        Mockito.eq(PostStatus.PUBLISHED)
+      postRepo.searchIdsByTitleFulltext(
+        Mockito.eq("h*"),
+        Mockito.eq("PUBLISHED"),
+        Mockito.anyInt()
       )
-    ).thenReturn(List.of(post1, post2));
-    Mockito.when(commentRepo.findByContentContainingIgnoreCase(Mockito.anyString())).thenReturn(
-      List.of()
-    );
-    Mockito.when(userRepo.findByUsernameContainingIgnoreCase(Mockito.anyString())).thenReturn(
-      List.of()
-    );
+    ).thenReturn(List.of(1L, 2L));
+    Mockito.when(postRepo.findAllById(List.of(1L))).thenReturn(List.of(post1));
+    Mockito.when(postRepo.findAllById(List.of(1L, 2L))).thenReturn(List.of(post2, post1));
 
     List<SearchService.SearchResult> results = service.globalSearch("h");
 
@@ -67,4 +66,197 @@ class SearchServiceTest {
     assertEquals(1L, results.get(0).id());
     assertEquals(2L, results.get(1).id());
   }
+
+  @Test
+  void fulltextResultsKeepRelevanceOrderAndLimit() {
+    UserRepository userRepo = Mockito.mock(UserRepository.class);
+    OpenSearchProperties properties = new OpenSearchProperties();
+    properties.getFallback().setMode(OpenSearchProperties.FallbackMode.FULLTEXT);
+    properties.getFallback().setLimit(5);
+    SearchService service = new SearchService(
+      userRepo,
+      Mockito.mock(PostRepository.class),
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      properties
+    );
+    User alice = new User();
+    alice.setId(1L);
+    User alina = new User();
+    alina.setId(2L);
+    Mockito.when(userRepo.searchIdsByFulltext("\"ali\"", 5)).thenReturn(List.of(2L, 1L));
+    Mockito.when(userRepo.findAllById(List.of(2L, 1L))).thenReturn(List.of(alice, alina));
+
+    List<User> users = service.searchUsers(" ali ");
+
+    assertEquals(List.of(2L, 1L), users.stream().map(User::getId).toList());
+  }
+
+  @Test
+  void likeModeIsBoundedByLimit() {
+    CommentRepository commentRepo = Mockito.mock(CommentRepository.class);
+    OpenSearchProperties properties = new OpenSearchProperties();
+    properties.getFallback().setMode(OpenSearchProperties.FallbackMode.LIKE);
+    properties.getFallback().setLimit(7);
+    SearchService service = new SearchService(
+      Mockito.mock(UserRepository.class),
+      Mockito.mock(PostRepository.class),
+      commentRepo,
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      properties
+    );
+
+    service.searchComments("nice");
+
+    ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+    Mockito.verify(commentRepo).findByContentContainingIgnoreCase(
+      Mockito.eq("nice"),
+      captor.capture()
+    );
+    assertEquals(7, captor.getValue().getPageSize());
+    Mockito.verify(commentRepo, Mockito.never()).searchIdsByFulltext(
+      Mockito.anyString(),
+      Mockito.anyInt()
+    );
+  }
+
+  @Test
+  void missingFulltextIndexFallsBackToLike() {
+    UserRepository userRepo = Mockito.mock(UserRepository.class);
+    OpenSearchProperties properties = new OpenSearchProperties();
+    properties.getFallback().setMode(OpenSearchProperties.FallbackMode.FULLTEXT);
+    SearchService service = new SearchService(
+      userRepo,
+      Mockito.mock(PostRepository.class),
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      properties
+    );
+    User alice = new User();
+    alice.setId(1L);
+    Mockito.when(userRepo.searchIdsByFulltext(Mockito.anyString(), Mockito.anyInt())).thenThrow(
+      new InvalidDataAccessResourceUsageException("Can't find FULLTEXT index")
+    );
+    Mockito.when(
+      userRepo.findByUsernameContainingIgnoreCase(Mockito.eq("ali"), Mockito.any())
+    ).thenReturn(List.of(alice));
+
+    assertEquals(List.of(alice), service.searchUsers("ali"));
+  }
+
+  @Test
+  void fulltextQueryStripsOperatorsAndUsesPrefixForShortKeywords() {
+    assertEquals("\"hello world\"", SearchService.fulltextQuery("+hello -world", 2));
+    assertEquals("猫*", SearchService.fulltextQuery("猫", 2));
+    assertEquals("\"猫咪\"", SearchService.fulltextQuery("猫咪", 2));
+    assertNull(SearchService.fulltextQuery("\"*\"", 2));
+  }
+
+  @Test
+  void searchPageFallbackFiltersTypesAndCountsEveryType() {
+    UserRepository userRepo = Mockito.mock(UserRepository.class);
+    PostRepository postRepo = Mockito.mock(PostRepository.class);
+    OpenSearchProperties properties = new OpenSearchProperties();
+    properties.getFallback().setMode(OpenSearchProperties.FallbackMode.LIKE);
+    SearchService service = new SearchService(
+      userRepo,
+      postRepo,
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      properties
+    );
+    User user = new User();
+    user.setId(1L);
+    user.setUsername("nice");
+    Post post = new Post();
+    post.setId(2L);
+    post.setTitle("nice post");
+    Mockito.when(
+      userRepo.findByUsernameContainingIgnoreCase(Mockito.eq("nice"), Mockito.any())
+    ).thenReturn(List.of(user));
+    Mockito.when(
+      postRepo.findByTitleContainingIgnoreCaseAndStatus(
+        Mockito.eq("nice"),
+        Mockito.any(),
+        Mockito.any()
+      )
+    ).thenReturn(List.of(post));
+
+    SearchService.SearchPage page = service.searchPage(
+      new SearchService.SearchQuery("nice", List.of("post"), null, null, null, null, null, 10, true)
+    );
+
+    assertEquals(List.of(2L), page.items().stream().map(SearchService.SearchResult::id).toList());
+    assertEquals(1L, page.typeCounts().get("user"));
+    assertEquals(1L, page.typeCounts().get("post"));
+    assertEquals(0L, page.typeCounts().get("tag"));
+    assertEquals(1L, page.total());
+    assertNull(page.nextCursor());
+    assertTrue(page.degraded());
+  }
+
+  @Test
+  void searchPageFallbackReturnsNothingForFiltersItCannotApply() {
+    PostRepository postRepo = Mockito.mock(PostRepository.class);
+    OpenSearchProperties properties = new OpenSearchProperties();
+    SearchService service = new SearchService(
+      Mockito.mock(UserRepository.class),
+      postRepo,
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      properties
+    );
+
+    SearchService.SearchPage page = service.searchPage(
+      new SearchService.SearchQuery("nice", null, "tech", null, null, null, null, 10, true)
+    );
+
+    assertTrue(page.items().isEmpty());
+    assertTrue(page.typeCounts().isEmpty());
+    assertEquals(0L, page.total());
+    assertTrue(page.degraded());
+    Mockito.verifyNoInteractions(postRepo);
+  }
+
+  @Test
+  void searchPageRejectsUnknownTypesAndCursors() {
+    SearchService service = new SearchService(
+      Mockito.mock(UserRepository.class),
+      Mockito.mock(PostRepository.class),
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      new OpenSearchProperties()
+    );
+
+    assertThrows(IllegalArgumentException.class, () ->
+      service.searchPage(
+        new SearchService.SearchQuery("a", List.of("foo"), null, null, null, null, null, 10, false)
+      )
+    );
+    assertThrows(IllegalArgumentException.class, () ->
+      service.searchPage(
+        new SearchService.SearchQuery("a", null, null, null, null, null, "@@", 10, false)
+      )
+    );
+  }
+
+  @Test
+  void searchCursorRoundTrips() {
+    SearchCursor cursor = new SearchCursor(1.25, "post", 42L);
+
+    assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+    assertNull(SearchCursor.decode(""));
+  }
 }
@@ -1,15 +1,58 @@
 package com.openisle.websocket.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
 
+    public static final String QUEUE_PREFIX = "notifications-queue-";
+    // 向后兼容的单队列
+    public static final String LEGACY_QUEUE_NAME = "notifications-queue";
+    // websocket 节点之间交换心跳，用于分片归属的重新分配
+    public static final String NODES_EXCHANGE_NAME = "websocket-nodes";
+
+    /**
+     * 监听的队列名：与后端相同的分片数生成 notifications-queue-{十六进制分片号}，外加旧的单队列
+     */
+    @Bean
+    public String[] notificationQueueNames(@Value("${rabbitmq.sharding.shard-count:16}") int shardCount) {
+        String[] names = new String[shardCount + 1];
+        for (int i = 0; i < shardCount; i++) {
+            names[i] = QUEUE_PREFIX + Integer.toHexString(i);
+        }
+        names[shardCount] = LEGACY_QUEUE_NAME;
+        return names;
+    }
+
+    @Bean
+    public FanoutExchange websocketNodesExchange() {
+        return new FanoutExchange(NODES_EXCHANGE_NAME);
+    }
+
+    /**
+     * 每个节点独占的临时队列，节点下线后自动删除
+     */
+    @Bean
+    public Queue websocketNodeQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding websocketNodeBinding(Queue websocketNodeQueue, FanoutExchange websocketNodesExchange) {
+        return BindingBuilder.bind(websocketNodeQueue).to(websocketNodesExchange);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
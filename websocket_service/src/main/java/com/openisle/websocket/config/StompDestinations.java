@@ -0,0 +1,29 @@
+package com.openisle.websocket.config;
+
+/**
+ * 推送给客户端的 STOMP 目的地。
+ * 层级之间用 "." 分隔：RabbitMQ STOMP 插件把 /topic/ 之后的部分当作 amq.topic 的路由键，
+ * 路由键中不能再出现 "/"，simple 和 relay 两种模式使用同一套目的地。
+ */
+public final class StompDestinations {
+
+    public static final String UNREAD_COUNT = "/queue/unread-count";
+    public static final String CHANNEL_UNREAD = "/queue/channel-unread";
+
+    private StompDestinations() {
+    }
+
+    /**
+     * 会话内的新消息：/topic/conversation.{id}
+     */
+    public static String conversation(Long conversationId) {
+        return "/topic/conversation." + conversationId;
+    }
+
+    /**
+     * 用户的个人消息提醒：/topic/user.{id}.messages
+     */
+    public static String userMessages(Long userId) {
+        return "/topic/user." + userId + ".messages";
+    }
+}
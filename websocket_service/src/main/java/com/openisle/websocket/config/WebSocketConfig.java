@@ -6,6 +6,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -20,18 +22,87 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${app.website-url}")
     private String websiteUrl;
 
+    // simple：订阅只保存在本节点内存中；relay：转发到外部 STOMP broker（RabbitMQ STOMP 插件），多节点共享订阅
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.heartbeat.send-interval-ms:10000}")
+    private long heartbeatSendInterval;
+
+    @Value("${app.websocket.heartbeat.receive-interval-ms:10000}")
+    private long heartbeatReceiveInterval;
+
+    @Value("${app.websocket.heartbeat.pool-size:1}")
+    private int heartbeatPoolSize;
+
+    @Value("${app.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.broker.relay.virtual-host:/}")
+    private String relayVirtualHost;
+
+    @Value("${app.websocket.outbound.core-pool-size:4}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        ThreadPoolTaskScheduler ts = new ThreadPoolTaskScheduler();
-        ts.setPoolSize(1);
-        ts.setThreadNamePrefix("wss-heartbeat-thread-");
-        ts.initialize();
-
-        config.enableSimpleBroker("/queue", "/topic")
-              .setHeartbeatValue(new long[]{10000, 10000})
-              .setTaskScheduler(ts);
+        if (isRelayMode()) {
+            // 客户端心跳由外部 broker 处理，这里只配置系统连接的心跳
+            config.enableStompBrokerRelay("/queue", "/topic")
+                  .setRelayHost(relayHost)
+                  .setRelayPort(relayPort)
+                  .setClientLogin(relayLogin)
+                  .setClientPasscode(relayPasscode)
+                  .setSystemLogin(relayLogin)
+                  .setSystemPasscode(relayPasscode)
+                  .setVirtualHost(relayVirtualHost)
+                  .setSystemHeartbeatSendInterval(heartbeatSendInterval)
+                  .setSystemHeartbeatReceiveInterval(heartbeatReceiveInterval)
+                  // 本节点找不到用户会话时广播给其他节点，并同步各节点的在线用户
+                  .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                  .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            ThreadPoolTaskScheduler ts = new ThreadPoolTaskScheduler();
+            ts.setPoolSize(Math.max(1, heartbeatPoolSize));
+            ts.setThreadNamePrefix("wss-heartbeat-thread-");
+            ts.initialize();
+
+            config.enableSimpleBroker("/queue", "/topic")
+                  .setHeartbeatValue(new long[]{heartbeatSendInterval, heartbeatReceiveInterval})
+                  .setTaskScheduler(ts);
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // 目的地层级用 "." 分隔，见 StompDestinations
+        config.setPathMatcher(new AntPathMatcher("."));
+    }
+
+    private boolean isRelayMode() {
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            if (!StringUtils.hasText(relayHost)) {
+                throw new IllegalStateException("app.websocket.broker.relay.host is required in relay mode");
+            }
+            return true;
+        }
+        if (!"simple".equalsIgnoreCase(brokerMode)) {
+            throw new IllegalStateException("Unknown app.websocket.broker.mode: " + brokerMode);
+        }
+        return false;
     }
 
     @Override
@@ -70,4 +141,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(webSocketAuthInterceptor);
     }
-}
\ No newline at end of file
+
+    /**
+     * 推送给客户端的消息经由此线程池写出，大频道广播时避免排队过长
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(Math.max(outboundCorePoolSize, outboundMaxPoolSize))
+                .queueCapacity(outboundQueueCapacity);
+    }
+}
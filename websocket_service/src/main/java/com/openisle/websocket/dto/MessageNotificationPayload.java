@@ -1,15 +1,28 @@
 package com.openisle.websocket.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import java.io.Serializable;
+import java.util.List;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class MessageNotificationPayload implements Serializable {
-    private String targetUsername;
-    private Object payload;
-}
\ No newline at end of file
+/**
+ * 后端发来的消息通知，与后端 com.openisle.dto.MessageNotificationPayload 结构一致，修改时两边需同步并升级版本号。
+ * 消息内容只做转发，保留为 JSON 树，不在本服务内解析成具体类型。
+ *
+ * @param version 格式版本，不认识的版本直接丢弃
+ * @param targetUsername 分片键
+ * @param recipients 需要推送未读数的接收者；私信为除发送者外的全部参与者，频道只包含未读频道数有变化的成员
+ * @param recipientIds 频道中除发送者外的全部成员，只用于轻量提醒；私信为空
+ */
+public record MessageNotificationPayload(
+        int version,
+        String targetUsername,
+        Long conversationId,
+        boolean channel,
+        Long senderId,
+        JsonNode message,
+        List<NotificationRecipient> recipients,
+        List<Long> recipientIds
+) implements Serializable {
+    public static final int CURRENT_VERSION = 2;
+}
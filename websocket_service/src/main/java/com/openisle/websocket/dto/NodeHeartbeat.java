@@ -0,0 +1,16 @@
+package com.openisle.websocket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * websocket 节点心跳，leaving 为 true 表示节点正在下线
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeHeartbeat {
+    private String nodeId;
+    private boolean leaving;
+}
@@ -1,114 +1,114 @@
 package com.openisle.websocket.listener;
 
+import com.openisle.websocket.config.StompDestinations;
 import com.openisle.websocket.dto.MessageNotificationPayload;
-import lombok.RequiredArgsConstructor;
+import com.openisle.websocket.dto.NotificationRecipient;
+import com.openisle.websocket.service.ChannelFanoutService;
+import com.openisle.websocket.service.UnreadCountCoalescer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class NotificationListener {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ChannelFanoutService channelFanoutService;
+    private final UnreadCountCoalescer unreadCountCoalescer;
+    private final Counter directReceived;
+    private final Counter channelReceived;
+    private final Counter unsupported;
+    private final Counter failed;
+    // 每 sampleRate 条消息输出一条 debug 日志，避免突发流量下日志占满 CPU
+    private final long sampleRate;
+    private final AtomicLong received = new AtomicLong();
+
+    public NotificationListener(
+            SimpMessagingTemplate messagingTemplate,
+            ChannelFanoutService channelFanoutService,
+            UnreadCountCoalescer unreadCountCoalescer,
+            MeterRegistry meterRegistry,
+            @Value("${app.notification.log-sample-rate:1000}") long sampleRate) {
+        this.messagingTemplate = messagingTemplate;
+        this.channelFanoutService = channelFanoutService;
+        this.unreadCountCoalescer = unreadCountCoalescer;
+        this.directReceived = meterRegistry.counter("notification.listener.received", "kind", "direct");
+        this.channelReceived = meterRegistry.counter("notification.listener.received", "kind", "channel");
+        this.unsupported = meterRegistry.counter("notification.listener.unsupported");
+        this.failed = meterRegistry.counter("notification.listener.failed");
+        this.sampleRate = Math.max(1, sampleRate);
+    }
 
     /**
-     * Unified listener for all sharded queues and the backward-compatible legacy queue.
+     * Handles a notification from one of the sharded queues or the backward-compatible legacy queue.
+     * Invoked by the {@link ShardConsumer} of the queue, on the lane assigned to the target user.
      *
      * @param payload The message payload.
-     * @param queueName The name of the queue the message was consumed from. This header is optional.
+     * @param queueName The name of the queue the message was consumed from.
      */
-    @RabbitListener(
-            id = "shardedListenerContainer",
-            queues = {
-                "notifications-queue-0", "notifications-queue-1", "notifications-queue-2", "notifications-queue-3",
-                "notifications-queue-4", "notifications-queue-5", "notifications-queue-6", "notifications-queue-7",
-                "notifications-queue-8", "notifications-queue-9", "notifications-queue-a", "notifications-queue-b",
-                "notifications-queue-c", "notifications-queue-d", "notifications-queue-e", "notifications-queue-f",
-                "notifications-queue"
-            }
-    )
-    public void receiveMessage(MessageNotificationPayload payload, @Header("amqp_consumedQueue") @Nullable String queueName) {
-        if (queueName != null) {
-            String queueNamePrefix = "notifications-queue-";
-            if (queueName.startsWith(queueNamePrefix)) {
-                String shardIndexStr = queueName.substring(queueNamePrefix.length());
-                log.info("=== RabbitMQ Message Received from Shard {} ({}) ===", shardIndexStr, queueName);
-            } else {
-                log.info("=== RabbitMQ Message Received from Legacy Queue ({}) ===", queueName);
+    public void receiveMessage(MessageNotificationPayload payload, @Nullable String queueName) {
+        if (payload.version() != MessageNotificationPayload.CURRENT_VERSION) {
+            unsupported.increment();
+            if (sampled()) {
+                log.warn("Dropping notification with unsupported version {} from {}", payload.version(), queueName);
             }
+            return;
+        }
+        if (sampled() && log.isDebugEnabled()) {
+            log.debug("Notification from {}: conversation {}, channel {}, {} recipients",
+                    queueName, payload.conversationId(), payload.channel(), sizeOf(payload.recipients()));
         }
-        String username = payload.getTargetUsername();
-        Object payloadObject = payload.getPayload();
-        log.info("Target username: {}", username);
-        log.info("Payload object type: {}", payloadObject != null ? payloadObject.getClass().getSimpleName() : "null");
-        log.info("Payload content: {}", payloadObject);
 
         try {
-            if (payloadObject instanceof Map) {
-                Map<String, Object> payloadMap = (Map<String, Object>) payloadObject;
-
-                // 处理包含完整对话信息的消息 - 完全复制之前的WebSocket发送逻辑
-                if (payloadMap.containsKey("message") && payloadMap.containsKey("conversation") && payloadMap.containsKey("senderId")) {
-                    Object messageObj = payloadMap.get("message");
-                    Map<String, Object> conversationInfo = (Map<String, Object>) payloadMap.get("conversation");
-                    Long conversationId = ((Number) conversationInfo.get("id")).longValue();
-                    Long senderId = ((Number) payloadMap.get("senderId")).longValue();
-                    List<Map<String, Object>> participants = (List<Map<String, Object>>) conversationInfo.get("participants");
-
-                    // 1. 发送到conversation topic
-                    String conversationDestination = "/topic/conversation/" + conversationId;
-                    messagingTemplate.convertAndSend(conversationDestination, messageObj);
-                    log.info("Message broadcasted to destination: {}", conversationDestination);
-
-                    // 2. 为所有参与者（除发送者外）发送到个人频道和未读数量
-                    for (Map<String, Object> participant : participants) {
-                        Long participantUserId = ((Number) participant.get("userId")).longValue();
-                        String participantUsername = (String) participant.get("username");
-
-                        if (!participantUserId.equals(senderId)) {
-                            // 发送到用户个人消息频道
-                            String userDestination = "/topic/user/" + participantUserId + "/messages";
-                            messagingTemplate.convertAndSend(userDestination, messageObj);
-                            log.info("Message notification sent to destination: {}", userDestination);
-
-                            // 优先从 participant 中获取未读信息，兼容旧格式
-                            Object unreadCount = participant.getOrDefault("unreadCount", payloadMap.get("unreadCount"));
-                            if (unreadCount != null) {
-                                messagingTemplate.convertAndSendToUser(participantUsername, "/queue/unread-count", unreadCount);
-                                log.info("Sent unread count to user {} via /user/{}/queue/unread-count", participantUsername, participantUsername);
-                            }
-
-                            Object channelUnread = participant.getOrDefault("channelUnread", payloadMap.get("channelUnread"));
-                            if (channelUnread != null) {
-                                messagingTemplate.convertAndSendToUser(participantUsername, "/queue/channel-unread", channelUnread);
-                                log.info("Sent channel-unread to {}", participantUsername);
-                            }
-                        }
-                    }
-                }
-                // 处理简化的消息格式（向后兼容）
-                else if (payloadMap.containsKey("message")) {
-
-                    if (payloadMap.containsKey("unreadCount")) {
-                        messagingTemplate.convertAndSendToUser(username, "/queue/unread-count", payloadMap.get("unreadCount"));
-                        log.info("Sent unread count to user {} via /user/{}/queue/unread-count", username, username);
-                    }
-                    if (payloadMap.containsKey("channelUnread")) {
-                        messagingTemplate.convertAndSendToUser(username, "/queue/channel-unread", payloadMap.get("channelUnread"));
-                        log.info("Sent channel-unread to {}", username);
-                    }
-                }
+            if (payload.channel()) {
+                channelReceived.increment();
+                channelFanoutService.fanout(
+                        payload.conversationId(), payload.message(), payload.recipientIds(), payload.recipients());
+            } else {
+                directReceived.increment();
+                sendDirect(payload);
             }
         } catch (Exception e) {
-            log.error("Failed to process and send message for user {}", username, e);
+            failed.increment();
+            log.error("Failed to process and send message for conversation {}", payload.conversationId(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 私信：广播到会话 topic，再给每个接收者推送个人频道消息，未读数交给合并器按窗口推送最新值
+     */
+    private void sendDirect(MessageNotificationPayload payload) {
+        messagingTemplate.convertAndSend(StompDestinations.conversation(payload.conversationId()), payload.message());
+        if (payload.recipients() == null) {
+            return;
+        }
+        for (NotificationRecipient recipient : payload.recipients()) {
+            if (recipient.userId().equals(payload.senderId())) {
+                continue;
+            }
+            messagingTemplate.convertAndSend(StompDestinations.userMessages(recipient.userId()), payload.message());
+            if (recipient.unreadCount() != null) {
+                unreadCountCoalescer.submit(recipient.username(), StompDestinations.UNREAD_COUNT, recipient.unreadCount());
+            }
+            if (recipient.channelUnread() != null) {
+                unreadCountCoalescer.submit(recipient.username(), StompDestinations.CHANNEL_UNREAD, recipient.channelUnread());
+            }
+        }
+    }
+
+    private boolean sampled() {
+        return received.incrementAndGet() % sampleRate == 0;
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
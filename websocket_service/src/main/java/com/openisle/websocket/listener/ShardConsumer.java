@@ -0,0 +1,157 @@
+package com.openisle.websocket.listener;
+
+import com.openisle.websocket.dto.MessageNotificationPayload;
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个分片队列的消费者。
+ * 队列上只有一个 AMQP 消费者，取到的消息按目标用户名分配到固定的单线程通道处理，
+ * 同一用户的消息始终在同一通道内按到达顺序执行，不同用户之间并行。
+ * 消息在通道处理完成后才手动确认，节点下线或崩溃时未处理完的消息由 RabbitMQ 重新投递。
+ */
+@Slf4j
+class ShardConsumer {
+
+    private final String queueName;
+    private final SimpleMessageListenerContainer container;
+    private final ThreadPoolExecutor[] lanes;
+    private final MessageConverter messageConverter;
+    private final NotificationListener notificationListener;
+
+    ShardConsumer(
+            String queueName,
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            NotificationListener notificationListener,
+            int prefetch,
+            int concurrency,
+            int laneCapacity) {
+        this.queueName = queueName;
+        this.messageConverter = messageConverter;
+        this.notificationListener = notificationListener;
+        this.lanes = new ThreadPoolExecutor[Math.max(1, concurrency)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ThreadPoolExecutor(
+                    1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, laneCapacity)),
+                    new CustomizableThreadFactory("wss-" + queueName + "-lane" + i + "-"),
+                    ShardConsumer::blockUntilQueued);
+        }
+
+        this.container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(queueName);
+        // 单个消费者保证分片内按顺序取消息，并发由后面的通道提供
+        container.setConcurrentConsumers(1);
+        container.setPrefetchCount(prefetch);
+        container.setMissingQueuesFatal(false);
+        container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        container.setMessageListener((ChannelAwareMessageListener) this::dispatch);
+        container.afterPropertiesSet();
+    }
+
+    void start() {
+        container.start();
+        log.info("Started consumer for shard queue {}", queueName);
+    }
+
+    /**
+     * 先关闭各通道并等待已接收的消息处理完、确认完，再停止容器；
+     * 关闭后仍在预取缓冲里的消息不会确认，容器断开后由 RabbitMQ 重新投递给新的归属节点
+     */
+    void stop() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Lane of shard queue {} did not finish in time", queueName);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        container.stop();
+        container.destroy();
+        log.info("Stopped consumer for shard queue {}", queueName);
+    }
+
+    private void dispatch(Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        MessageNotificationPayload payload;
+        try {
+            // 后端写入的类型头在本服务中不存在，按固定类型反序列化
+            message.getMessageProperties().setInferredArgumentType(MessageNotificationPayload.class);
+            payload = (MessageNotificationPayload) messageConverter.fromMessage(message);
+        } catch (RuntimeException e) {
+            // 无法解析的消息直接丢弃，避免反复重投
+            log.warn("Dropping unreadable message from {}: {}", queueName, e.getMessage());
+            reject(channel, deliveryTag);
+            return;
+        }
+        try {
+            laneFor(payload.targetUsername()).execute(() -> {
+                try {
+                    notificationListener.receiveMessage(payload, queueName);
+                } catch (RuntimeException e) {
+                    log.error("Failed to handle message from {}", queueName, e);
+                } finally {
+                    ack(channel, deliveryTag);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 正在停止，不确认，连接关闭后重新投递
+            log.debug("Shard queue {} is stopping, message {} left unacked", queueName, deliveryTag);
+        }
+    }
+
+    private void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to ack message {} on {}: {}", deliveryTag, queueName, e.getMessage());
+        }
+    }
+
+    private void reject(Channel channel, long deliveryTag) {
+        try {
+            channel.basicReject(deliveryTag, false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to reject message {} on {}: {}", deliveryTag, queueName, e.getMessage());
+        }
+    }
+
+    private ThreadPoolExecutor laneFor(String username) {
+        int hash = username == null ? 0 : username.hashCode();
+        return lanes[Math.floorMod(hash, lanes.length)];
+    }
+
+    /**
+     * 通道队列满时阻塞消费者线程等待空位，既形成背压又不打乱顺序
+     */
+    private static void blockUntilQueued(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Lane is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+    }
+}
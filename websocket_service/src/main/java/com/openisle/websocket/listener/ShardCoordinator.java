@@ -0,0 +1,214 @@
+package com.openisle.websocket.listener;
+
+import com.openisle.websocket.config.RabbitMQConfig;
+import com.openisle.websocket.dto.NodeHeartbeat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片归属协调。
+ * 各 websocket 节点通过 websocket-nodes 交换机广播心跳，得到当前存活节点列表，
+ * 再用最高随机权重（rendezvous）哈希决定每个分片队列归哪个节点消费。
+ * 节点加入或离开时只有受影响的分片换主，其余分片的消费者保持不动。
+ */
+@Component
+@Slf4j
+public class ShardCoordinator implements SmartLifecycle {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // 节点 id -> 最近一次心跳时间
+    private final Map<String, Long> peers = new ConcurrentHashMap<>();
+    private final Map<String, ShardConsumer> consumers = new HashMap<>();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ConnectionFactory connectionFactory;
+    private final MessageConverter messageConverter;
+    private final NotificationListener notificationListener;
+    private final String[] queueNames;
+    private final int prefetch;
+    private final int concurrency;
+    private final int laneCapacity;
+    private final long heartbeatIntervalMs;
+    private final long nodeTimeoutMs;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+    private volatile long startedAt;
+
+    public ShardCoordinator(
+            RabbitTemplate rabbitTemplate,
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            NotificationListener notificationListener,
+            @Qualifier("notificationQueueNames") String[] queueNames,
+            @Value("${app.shards.prefetch:50}") int prefetch,
+            @Value("${app.shards.concurrency:4}") int concurrency,
+            @Value("${app.shards.lane-capacity:200}") int laneCapacity,
+            @Value("${app.shards.heartbeat-interval-ms:5000}") long heartbeatIntervalMs,
+            @Value("${app.shards.node-timeout-ms:15000}") long nodeTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.connectionFactory = connectionFactory;
+        this.messageConverter = messageConverter;
+        this.notificationListener = notificationListener;
+        this.queueNames = queueNames;
+        this.prefetch = prefetch;
+        this.concurrency = concurrency;
+        this.laneCapacity = laneCapacity;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.nodeTimeoutMs = nodeTimeoutMs;
+    }
+
+    @Override
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        peers.put(nodeId, startedAt);
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("wss-shard-coordinator-"));
+        // 首次分配等到收到其他节点的心跳之后，避免新节点启动瞬间认领全部分片
+        scheduler.scheduleWithFixedDelay(this::tick, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Shard coordinator started as node {}", nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        // 先停掉本节点的消费者并确认完已接收的消息，再通知其他节点接管，避免同一分片短暂地被两个节点同时消费
+        synchronized (this) {
+            consumers.values().forEach(ShardConsumer::stop);
+            consumers.clear();
+        }
+        publish(true);
+        log.info("Shard coordinator stopped, node {} left", nodeId);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @RabbitListener(queues = "#{websocketNodeQueue.name}")
+    public void onHeartbeat(NodeHeartbeat heartbeat) {
+        if (heartbeat.getNodeId() == null || nodeId.equals(heartbeat.getNodeId())) {
+            return;
+        }
+        boolean changed = heartbeat.isLeaving()
+                ? peers.remove(heartbeat.getNodeId()) != null
+                : peers.put(heartbeat.getNodeId(), System.currentTimeMillis()) == null;
+        if (changed) {
+            log.info("Node {} {}", heartbeat.getNodeId(), heartbeat.isLeaving() ? "left" : "joined");
+            rebalance();
+        }
+    }
+
+    private void tick() {
+        try {
+            publish(false);
+            long now = System.currentTimeMillis();
+            peers.put(nodeId, now);
+            peers.entrySet().removeIf(e -> {
+                boolean expired = now - e.getValue() > nodeTimeoutMs;
+                if (expired) {
+                    log.info("Node {} timed out", e.getKey());
+                }
+                return expired;
+            });
+            rebalance();
+        } catch (Exception e) {
+            log.error("Shard coordinator heartbeat failed", e);
+        }
+    }
+
+    private void publish(boolean leaving) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.NODES_EXCHANGE_NAME, "", new NodeHeartbeat(nodeId, leaving));
+        } catch (Exception e) {
+            log.warn("Failed to publish node heartbeat: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void rebalance() {
+        if (!running || System.currentTimeMillis() - startedAt < heartbeatIntervalMs) {
+            return;
+        }
+        Set<String> owned = assign(nodeId, peers.keySet(), queueNames);
+        consumers.entrySet().removeIf(e -> {
+            if (owned.contains(e.getKey())) {
+                return false;
+            }
+            e.getValue().stop();
+            return true;
+        });
+        for (String queueName : owned) {
+            consumers.computeIfAbsent(queueName, q -> {
+                ShardConsumer consumer = new ShardConsumer(
+                        q, connectionFactory, messageConverter, notificationListener,
+                        prefetch, concurrency, laneCapacity);
+                consumer.start();
+                return consumer;
+            });
+        }
+        log.debug("Node {} owns {} of {} queues across {} nodes",
+                nodeId, owned.size(), queueNames.length, peers.size());
+    }
+
+    /**
+     * 最高随机权重哈希：每个队列归属于 hash(节点, 队列) 最大的节点
+     */
+    static Set<String> assign(String self, Collection<String> nodes, String[] queueNames) {
+        Set<String> owned = new HashSet<>();
+        for (String queueName : queueNames) {
+            String owner = null;
+            long best = 0;
+            for (String node : nodes) {
+                long weight = hash(node + "|" + queueName);
+                if (owner == null || Long.compareUnsigned(weight, best) > 0
+                        || (weight == best && node.compareTo(owner) < 0)) {
+                    owner = node;
+                    best = weight;
+                }
+            }
+            if (self.equals(owner)) {
+                owned.add(queueName);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * FNV-1a 64 位哈希再经过 MurmurHash3 的 fmix64 打散
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,97 @@
+package com.openisle.websocket.service;
+
+import com.openisle.websocket.config.StompDestinations;
+import com.openisle.websocket.dto.NotificationRecipient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 频道消息推送：消息本身只向频道 topic 广播一次，
+ * 成员的轻量提醒按块分发到线程池并行推送，未读频道数交给合并器按窗口推送最新值。
+ */
+@Service
+@Slf4j
+public class ChannelFanoutService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TaskExecutor fanoutExecutor;
+    private final UnreadCountCoalescer unreadCountCoalescer;
+    private final int chunkSize;
+
+    public ChannelFanoutService(
+            SimpMessagingTemplate messagingTemplate,
+            @Qualifier("fanoutExecutor") TaskExecutor fanoutExecutor,
+            UnreadCountCoalescer unreadCountCoalescer,
+            @Value("${app.fanout.chunk-size:500}") int chunkSize) {
+        this.messagingTemplate = messagingTemplate;
+        this.fanoutExecutor = fanoutExecutor;
+        this.unreadCountCoalescer = unreadCountCoalescer;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * @param conversationId 频道 id
+     * @param message 消息内容，只广播到 /topic/conversation.{id}
+     * @param recipientIds 除发送者外的成员 id，收到提醒后客户端自行拉取列表和未读数
+     * @param unreadDeltas 未读频道数发生变化的成员
+     * @return 所有分块推送完成时结束
+     */
+    public CompletableFuture<Void> fanout(
+            Long conversationId,
+            Object message,
+            List<Long> recipientIds,
+            List<NotificationRecipient> unreadDeltas) {
+        messagingTemplate.convertAndSend(StompDestinations.conversation(conversationId), message);
+
+        Map<String, Object> notice = Map.of("conversationId", conversationId, "channel", true);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (List<Long> chunk : partition(recipientIds)) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (Long userId : chunk) {
+                    messagingTemplate.convertAndSend(StompDestinations.userMessages(userId), notice);
+                }
+            }, fanoutExecutor));
+        }
+        if (unreadDeltas != null) {
+            // 只是写入合并表，开销很小，不必分块
+            for (NotificationRecipient delta : unreadDeltas) {
+                if (delta.channelUnread() != null) {
+                    unreadCountCoalescer.submit(delta.username(), StompDestinations.CHANNEL_UNREAD, delta.channelUnread());
+                }
+            }
+        }
+        log.debug("Channel {} fan-out: {} recipients, {} unread deltas, {} chunks",
+                conversationId, sizeOf(recipientIds), sizeOf(unreadDeltas), tasks.size());
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        log.error("Channel {} fan-out failed", conversationId, e);
+                    }
+                });
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        if (items == null) {
+            return chunks;
+        }
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(items.subList(i, Math.min(i + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,121 @@
+package com.openisle.websocket.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 未读数推送合并。
+ * 未读数是绝对值，同一用户同一目的地在窗口期内只需要推送最后一个值：
+ * 聊天连发 50 条消息时，接收者只收到一两次未读数更新，而不是 50 次。
+ * 窗口为 0 时不合并，直接推送。
+ */
+@Component
+@Slf4j
+public class UnreadCountCoalescer implements SmartLifecycle {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long windowMs;
+    // (用户名, 目的地) -> 窗口期内最新的未读数
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+    private final Counter submitted;
+    private final Counter sent;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public UnreadCountCoalescer(
+            SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.notification.unread-coalesce-window-ms:200}") long windowMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.windowMs = Math.max(0, windowMs);
+        this.submitted = meterRegistry.counter("notification.unread.submitted");
+        this.sent = meterRegistry.counter("notification.unread.sent");
+        meterRegistry.gaugeMapSize("notification.unread.pending", Tags.empty(), pending);
+    }
+
+    /**
+     * 记录一次未读数变化，窗口结束时只推送最新值
+     *
+     * @param username 接收者用户名
+     * @param destination 用户目的地，如 /queue/unread-count
+     * @param count 最新的未读数
+     */
+    public void submit(String username, String destination, long count) {
+        submitted.increment();
+        if (windowMs == 0) {
+            send(username, destination, count);
+            return;
+        }
+        pending.put(new Key(username, destination), count);
+    }
+
+    /**
+     * 推送所有待发送的未读数。逐个移除后再发送，发送期间新到的值留到下一个窗口。
+     */
+    public void flush() {
+        for (Key key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count == null) {
+                continue;
+            }
+            try {
+                send(key.username(), key.destination(), count);
+            } catch (Exception e) {
+                log.error("Failed to push {} to {}", key.destination(), key.username(), e);
+            }
+        }
+    }
+
+    private void send(String username, String destination, long count) {
+        messagingTemplate.convertAndSendToUser(username, destination, count);
+        sent.increment();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (windowMs > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("wss-unread-"));
+            scheduler.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        // 停机前把最后一个窗口的值推出去
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Key(String username, String destination) {
+    }
+}
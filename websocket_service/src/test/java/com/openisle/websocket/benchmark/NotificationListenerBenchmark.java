@@ -0,0 +1,91 @@
+package com.openisle.websocket.benchmark;
+
+import com.openisle.websocket.config.RabbitMQConfig;
+import com.openisle.websocket.dto.MessageNotificationPayload;
+import com.openisle.websocket.listener.NotificationListener;
+import com.openisle.websocket.service.ChannelFanoutService;
+import com.openisle.websocket.service.UnreadCountCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个监听线程每秒能处理的私信通知数：从 AMQP 消息体解码到完成 STOMP 推送（broker 为空实现）。
+ * 运行：在 IDE 中执行 main，或 mvn test-compile 后以测试 classpath 运行本类。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NotificationListenerBenchmark {
+
+    private static final String BODY = """
+            {"version":2,"targetUsername":"alice","conversationId":42,"channel":false,"senderId":1,
+             "message":{"id":1001,"content":"hello, this is a direct message used for benchmarking",
+              "sender":{"id":1,"username":"alice","avatar":"https://example.com/a.png","bot":false},
+              "conversationId":42,"createdAt":"2025-01-01T12:00:00","replyTo":null,"reactions":[]},
+             "recipients":[{"userId":2,"username":"bob","unreadCount":3,"channelUnread":0}],
+             "recipientIds":[]}
+            """;
+
+    private Jackson2JsonMessageConverter converter;
+    private NotificationListener listener;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        converter = new RabbitMQConfig().messageConverter();
+        MessageChannel noop = (message, timeout) -> true;
+        SimpMessagingTemplate template = new SimpMessagingTemplate(noop);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UnreadCountCoalescer coalescer = new UnreadCountCoalescer(template, meterRegistry, 0);
+        listener = new NotificationListener(
+                template,
+                new ChannelFanoutService(template, new SyncTaskExecutor(), coalescer, 500),
+                coalescer,
+                meterRegistry,
+                1000);
+        body = BODY.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void decodeAndDispatch() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        // 与后端发送时一致，类型头指向后端的类，由推断类型覆盖
+        properties.setHeader("__TypeId__", "com.openisle.dto.MessageNotificationPayload");
+        properties.setInferredArgumentType(MessageNotificationPayload.class);
+        MessageNotificationPayload payload =
+                (MessageNotificationPayload) converter.fromMessage(new Message(body, properties));
+        listener.receiveMessage(payload, "notifications-queue-0");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NotificationListenerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
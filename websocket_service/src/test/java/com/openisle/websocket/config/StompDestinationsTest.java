@@ -0,0 +1,28 @@
+package com.openisle.websocket.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StompDestinationsTest {
+
+    @Test
+    void topicRoutingKeysContainNoSlash() {
+        assertEquals("/topic/conversation.42", StompDestinations.conversation(42L));
+        assertEquals("/topic/user.7.messages", StompDestinations.userMessages(7L));
+        // RabbitMQ STOMP 插件把 /topic/ 后面的部分作为路由键，不能再有 "/"
+        assertFalse(StompDestinations.conversation(42L).substring("/topic/".length()).contains("/"));
+        assertFalse(StompDestinations.userMessages(7L).substring("/topic/".length()).contains("/"));
+    }
+
+    @Test
+    void dotSeparatedPatternsMatchDestinations() {
+        AntPathMatcher matcher = new AntPathMatcher(".");
+        assertTrue(matcher.match("/topic/user.*.messages", StompDestinations.userMessages(7L)));
+        assertTrue(matcher.match("/topic/conversation.*", StompDestinations.conversation(42L)));
+        assertFalse(matcher.match("/topic/conversation.*", StompDestinations.userMessages(7L)));
+    }
+}
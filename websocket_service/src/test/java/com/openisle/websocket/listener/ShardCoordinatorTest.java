@@ -0,0 +1,60 @@
+package com.openisle.websocket.listener;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardCoordinatorTest {
+
+    private static final String[] QUEUES = queues(64);
+
+    @Test
+    void everyQueueHasExactlyOneOwner() {
+        List<String> nodes = List.of("node-a", "node-b", "node-c");
+
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        for (String node : nodes) {
+            Set<String> owned = ShardCoordinator.assign(node, nodes, QUEUES);
+            total += owned.size();
+            seen.addAll(owned);
+            assertTrue(owned.size() > QUEUES.length / 6, node + " owns " + owned.size());
+        }
+        assertEquals(QUEUES.length, total);
+        assertEquals(QUEUES.length, seen.size());
+    }
+
+    @Test
+    void nodeLeavingOnlyMovesItsOwnQueues() {
+        List<String> before = List.of("node-a", "node-b", "node-c", "node-d");
+        List<String> after = List.of("node-a", "node-b", "node-c");
+
+        Map<String, Set<String>> ownedBefore = new HashMap<>();
+        for (String node : before) {
+            ownedBefore.put(node, ShardCoordinator.assign(node, before, QUEUES));
+        }
+        for (String node : after) {
+            Set<String> ownedAfter = ShardCoordinator.assign(node, after, QUEUES);
+            assertTrue(ownedAfter.containsAll(ownedBefore.get(node)));
+            Set<String> gained = new HashSet<>(ownedAfter);
+            gained.removeAll(ownedBefore.get(node));
+            assertTrue(ownedBefore.get("node-d").containsAll(gained));
+        }
+    }
+
+    private static String[] queues(int count) {
+        String[] names = new String[count + 1];
+        for (int i = 0; i < count; i++) {
+            names[i] = "notifications-queue-" + Integer.toHexString(i);
+        }
+        names[count] = "notifications-queue";
+        return names;
+    }
+}
@@ -0,0 +1,90 @@
+package com.openisle.websocket.service;
+
+import com.openisle.websocket.dto.NotificationRecipient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 频道成员数增长时的推送耗时，对比单线程与分块线程池
+ * 耗时较长，默认构建不运行，使用 mvn test -Pload 执行
+ */
+@Slf4j
+@Tag("load")
+class ChannelFanoutLoadTest {
+
+    private static final int[] CHANNEL_SIZES = {100, 1_000, 5_000, 20_000};
+    // 模拟每次投递到 broker 的开销
+    private static final long SEND_COST_NANOS = 20_000;
+
+    @Test
+    void fanoutTimeByChannelSize() {
+        for (int size : CHANNEL_SIZES) {
+            long single = run(size, 1);
+            long pooled = run(size, 8);
+            log.info("{} members: 1 thread {} ms, 8 threads {} ms",
+                    size, single / 1_000_000, pooled / 1_000_000);
+            // 成员少时只有一个分块，两者差别不大
+            if (size >= 5_000) {
+                assertTrue(pooled < single,
+                        size + " members: pooled " + pooled + "ns, single " + single + "ns");
+            }
+        }
+    }
+
+    private static long run(int members, int poolSize) {
+        AtomicInteger sent = new AtomicInteger();
+        MessageChannel channel = new MessageChannel() {
+            @Override
+            public boolean send(Message<?> message, long timeout) {
+                LockSupport.parkNanos(SEND_COST_NANOS);
+                sent.incrementAndGet();
+                return true;
+            }
+        };
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        try {
+            SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+            // 窗口为 0：未读数直接推送，便于统计投递次数
+            UnreadCountCoalescer coalescer = new UnreadCountCoalescer(template, new SimpleMeterRegistry(), 0);
+            ChannelFanoutService service = new ChannelFanoutService(template, executor, coalescer, 500);
+            List<Long> recipients = new ArrayList<>();
+            List<NotificationRecipient> deltas = new ArrayList<>();
+            for (long i = 1; i <= members; i++) {
+                recipients.add(i);
+                if (i % 10 == 0) {
+                    deltas.add(new NotificationRecipient(i, "user" + i, null, 1L));
+                }
+            }
+
+            long start = System.nanoTime();
+            service.fanout(1L, Map.of("content", "hello"), recipients, deltas).join();
+            long elapsed = System.nanoTime() - start;
+
+            assertEquals(1 + members + deltas.size(), sent.get());
+            return elapsed;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.openisle.websocket.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class UnreadCountCoalescerTest {
+
+    private final SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void burstIsCoalescedToLatestValuePerUserAndDestination() {
+        UnreadCountCoalescer coalescer = new UnreadCountCoalescer(template, meterRegistry, 200);
+
+        for (long i = 1; i <= 50; i++) {
+            coalescer.submit("bob", "/queue/unread-count", i);
+        }
+        coalescer.submit("bob", "/queue/channel-unread", 2);
+        coalescer.submit("carol", "/queue/unread-count", 7);
+        verify(template, never()).convertAndSendToUser("bob", "/queue/unread-count", 50L);
+
+        coalescer.flush();
+
+        verify(template).convertAndSendToUser("bob", "/queue/unread-count", 50L);
+        verify(template).convertAndSendToUser("bob", "/queue/channel-unread", 2L);
+        verify(template).convertAndSendToUser("carol", "/queue/unread-count", 7L);
+        verifyNoMoreInteractions(template);
+        assertEquals(52.0, meterRegistry.counter("notification.unread.submitted").count());
+        assertEquals(3.0, meterRegistry.counter("notification.unread.sent").count());
+
+        // 已推送的值不会在下一个窗口重复发送
+        coalescer.flush();
+        verifyNoMoreInteractions(template);
+    }
+
+    @Test
+    void zeroWindowSendsImmediately() {
+        UnreadCountCoalescer coalescer = new UnreadCountCoalescer(template, meterRegistry, 0);
+
+        coalescer.submit("bob", "/queue/unread-count", 1);
+        coalescer.submit("bob", "/queue/unread-count", 2);
+
+        verify(template, times(1)).convertAndSendToUser("bob", "/queue/unread-count", 1L);
+        verify(template, times(1)).convertAndSendToUser("bob", "/queue/unread-count", 2L);
+    }
+
+    @Test
+    void stopFlushesPendingValues() {
+        UnreadCountCoalescer coalescer = new UnreadCountCoalescer(template, meterRegistry, 60_000);
+        coalescer.start();
+
+        coalescer.submit("bob", "/queue/unread-count", 3);
+        coalescer.stop();
+
+        verify(template).convertAndSendToUser("bob", "/queue/unread-count", 3L);
+    }
+}